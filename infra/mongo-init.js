@@ -94,6 +94,10 @@ db.createCollection('recipes', {
                bsonType: "string",
                description: "must be a string if provided"
             },
+            cuisine_norm: {
+               bsonType: "string",
+               description: "must be the trimmed, lowercase cuisine if provided"
+            },
             dietTags: {
                bsonType: "array",
                items: { bsonType: "string" },
@@ -125,11 +129,15 @@ db.createCollection('logs');
 db.users.createIndex({ "googleId": 1 }, { unique: true });
 db.users.createIndex({ "email": 1 }, { unique: true });
 
-db.recipes.createIndex({ "title": "text", "ingredients.name": "text" });
-db.recipes.createIndex({ "cuisine": 1 });
-db.recipes.createIndex({ "difficulty": 1 });
-db.recipes.createIndex({ "timeMinutes": 1 });
-db.recipes.createIndex({ "dietTags": 1 });
+// Same set and names as MongoIndexConfig, which also ensures them on application startup
+db.recipes.createIndex(
+   { "title": "text", "ingredients.name": "text" },
+   { name: "recipe_text", weights: { "title": 3, "ingredients.name": 1 } }
+);
+db.recipes.createIndex({ "cuisine_norm": 1, "difficulty": 1, "timeMinutes": 1 }, { name: "cuisine_norm_difficulty_time" });
+db.recipes.createIndex({ "difficulty": 1, "timeMinutes": 1 }, { name: "difficulty_time" });
+db.recipes.createIndex({ "timeMinutes": 1 }, { name: "time" });
+db.recipes.createIndex({ "dietTags": 1 }, { name: "diet_tags" });
 db.recipes.createIndex({ "source": 1 });
 db.recipes.createIndex({ "createdBy": 1 });
 db.recipes.createIndex({ "createdAt": -1 });
@@ -0,0 +1,133 @@
+package Assignment.Recipe_Generator.config;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the recipe indexes used by search (automatic index creation is off) and
+ * backfills cuisine_norm on recipes written before the field existed.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+
+    private static final String TEXT_INDEX = "recipe_text";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Bean
+    public CommandLineRunner ensureRecipeIndexes() {
+        return args -> {
+            try {
+                long backfilled = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("cuisine").type(2).and("cuisine_norm").exists(false)),
+                    AggregationUpdate.update().set("cuisine_norm").toValue(
+                        StringOperators.ToLower.lowerValueOf(StringOperators.valueOf("cuisine").trim())),
+                    Recipe.class).getModifiedCount();
+                if (backfilled > 0) {
+                    log.info("Backfilled cuisine_norm on {} recipes", backfilled);
+                }
+            } catch (Exception e) {
+                log.error("Failed to backfill cuisine_norm", e);
+            }
+
+            IndexOperations indexes = mongoTemplate.indexOps(Recipe.class);
+            // Equality on cuisine and difficulty, range on time
+            ensureIndex(indexes, new Index()
+                .on("cuisine_norm", Sort.Direction.ASC)
+                .on("difficulty", Sort.Direction.ASC)
+                .on("timeMinutes", Sort.Direction.ASC)
+                .named("cuisine_norm_difficulty_time"));
+            // Filters without a cuisine
+            ensureIndex(indexes, new Index()
+                .on("difficulty", Sort.Direction.ASC)
+                .on("timeMinutes", Sort.Direction.ASC)
+                .named("difficulty_time"));
+            ensureIndex(indexes, new Index()
+                .on("timeMinutes", Sort.Direction.ASC)
+                .named("time"));
+            ensureIndex(indexes, new Index()
+                .on("dietTags", Sort.Direction.ASC)
+                .named("diet_tags"));
+            ensureTextIndex(indexes);
+            log.info("Recipe search indexes ensured");
+        };
+    }
+
+    /**
+     * Creates an index unless one with the same key pattern exists under any name (e.g. the
+     * default names used by infra/mongo-init.js), which MongoDB would reject as a conflict.
+     */
+    private void ensureIndex(IndexOperations indexes, Index index) {
+        try {
+            List<String> keys = keyPattern(index.getIndexKeys());
+            for (IndexInfo info : indexes.getIndexInfo()) {
+                if (keys.equals(keyPattern(info))) {
+                    log.debug("Recipe index on {} already exists as {}", keys, info.getName());
+                    return;
+                }
+            }
+            indexes.ensureIndex(index);
+        } catch (Exception e) {
+            log.error("Failed to ensure recipe index {}", index.getIndexKeys().toJson(), e);
+        }
+    }
+
+    private void ensureTextIndex(IndexOperations indexes) {
+        try {
+            // A collection can have only one text index; replace an older one (e.g. unweighted)
+            for (IndexInfo info : indexes.getIndexInfo()) {
+                if (info.getIndexFields().stream().anyMatch(IndexField::isText) && !TEXT_INDEX.equals(info.getName())) {
+                    log.info("Dropping text index {} in favour of {}", info.getName(), TEXT_INDEX);
+                    indexes.dropIndex(info.getName());
+                }
+            }
+            // Same weights as the @TextIndexed annotations on Recipe
+            indexes.ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .onField("title", 3F)
+                .onField("ingredients.name", 1F)
+                .named(TEXT_INDEX)
+                .build());
+        } catch (Exception e) {
+            log.error("Failed to ensure recipe text index {}", TEXT_INDEX, e);
+        }
+    }
+
+    private static List<String> keyPattern(Document keys) {
+        List<String> pattern = new ArrayList<>();
+        keys.forEach((field, direction) -> pattern.add(field + ":" + ((Number) direction).intValue()));
+        return pattern;
+    }
+
+    private static List<String> keyPattern(IndexInfo info) {
+        List<String> pattern = new ArrayList<>();
+        for (IndexField field : info.getIndexFields()) {
+            if (field.getDirection() == null) {
+                // Text, geo and hashed keys never match a plain ascending/descending pattern
+                return List.of();
+            }
+            pattern.add(field.getKey() + ":" + (field.getDirection() == Sort.Direction.ASC ? 1 : -1));
+        }
+        return pattern;
+    }
+}
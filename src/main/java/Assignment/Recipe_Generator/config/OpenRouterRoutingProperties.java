@@ -0,0 +1,49 @@
+package Assignment.Recipe_Generator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-operation model routing for OpenRouter calls (openrouter.routing.*).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openrouter.routing")
+public class OpenRouterRoutingProperties {
+
+    private boolean enabled = false;
+
+    // Number of recent calls per model used for latency and health statistics
+    private int windowSize = 100;
+
+    // Calls needed before a model's statistics are trusted; until then it is explored first
+    private int minSamples = 5;
+
+    private double maxErrorRate = 0.5;
+
+    private double minParseRate = 0.5;
+
+    // How long an unhealthy model is skipped before it is probed again
+    private long cooldownMs = 60_000;
+
+    // Operation name (e.g. "image_recognition") -> candidate models
+    private Map<String, OperationRoute> operations = new HashMap<>();
+
+    // Model -> blended price in USD per 1M tokens
+    private Map<String, Double> modelCosts = new HashMap<>();
+
+    @Data
+    public static class OperationRoute {
+        // Candidate models in order of preference
+        private List<String> models = new ArrayList<>();
+
+        // Maximum blended price (USD per 1M tokens) a model may have for this operation
+        private Double maxCost;
+    }
+}
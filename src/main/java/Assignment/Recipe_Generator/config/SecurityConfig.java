@@ -44,10 +44,16 @@ public class SecurityConfig {
                 .requestMatchers("/", "/index.html", "/static/**", "/assets/**").permitAll()
                 .requestMatchers("/api/recipes/generate").permitAll()
                 .requestMatchers("/api/recipes").permitAll()
+                .requestMatchers("/api/recipes/cuisines").permitAll()
+                .requestMatchers("/api/recipes/facets").permitAll()
+                .requestMatchers("/api/recipes/suggest").permitAll()
+                .requestMatchers("/api/recipes/cook-now").permitAll()
                 .requestMatchers("/api/ingredients/**").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/config/**").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Protected endpoints - require basic authentication
                 .requestMatchers("/api/recipes/{id}").authenticated()
@@ -1,7 +1,13 @@
 package Assignment.Recipe_Generator.controller;
 
+import Assignment.Recipe_Generator.dto.ValueCount;
 import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.service.LlmHedgingService;
+import Assignment.Recipe_Generator.service.LlmMetricsService;
+import Assignment.Recipe_Generator.service.ModelRouterService;
+import Assignment.Recipe_Generator.service.RecipeFeatureStore;
 import Assignment.Recipe_Generator.service.RecipeService;
+import Assignment.Recipe_Generator.service.RecognitionCacheService;
 import Assignment.Recipe_Generator.service.LogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,7 +17,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -23,6 +31,11 @@ public class AdminController {
 
     private final RecipeService recipeService;
     private final LogService logService;
+    private final LlmMetricsService llmMetricsService;
+    private final LlmHedgingService llmHedgingService;
+    private final ModelRouterService modelRouterService;
+    private final RecognitionCacheService recognitionCacheService;
+    private final RecipeFeatureStore recipeFeatureStore;
 
     @PostMapping("/recipes")
     @Operation(summary = "Add a new recipe to the database (Admin only)")
@@ -76,9 +89,13 @@ public class AdminController {
     public ResponseEntity<Map<String, Object>> getStats() {
         try {
             // This would call various services to get stats
+            List<ValueCount> ingredientCounts = recipeService.getIngredientCounts();
             Map<String, Object> stats = Map.of(
-                "totalRecipes", 0,
+                "totalRecipes", recipeService.countRecipes(),
                 "totalUsers", 0,
+                "distinctIngredients", ingredientCounts.size(),
+                "topIngredients", ingredientCounts.subList(0, Math.min(20, ingredientCounts.size())),
+                "cuisines", recipeService.getCuisineCounts(),
                 "systemStatus", "healthy"
             );
             
@@ -89,7 +106,60 @@ public class AdminController {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
 
+    @GetMapping("/llm/metrics")
+    @Operation(summary = "Get LLM token usage and latency per operation, model and user (Admin only)")
+    public ResponseEntity<Map<String, Object>> getLlmMetrics() {
+        try {
+            Map<String, Object> metrics = Map.of(
+                "operations", llmMetricsService.getOperationStats(),
+                "users", llmMetricsService.getUserStats(),
+                "models", modelRouterService.getStats(),
+                "hedging", llmHedgingService.getStats(),
+                "recognitionCache", recognitionCacheService.getStats()
+            );
+            
+            return ResponseEntity.ok(metrics);
+            
+        } catch (Exception e) {
+            log.error("Error getting LLM metrics", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/retrieval/benchmark")
+    @Operation(summary = "Compare MinHash LSH retrieval with the exact scan: recall@k and latency (Admin only)")
+    public ResponseEntity<Map<String, Object>> benchmarkRetrieval(
+            @RequestParam(defaultValue = "200") int queries,
+            @RequestParam(defaultValue = "3") int k,
+            @RequestParam(defaultValue = "32") int bands,
+            @RequestParam(defaultValue = "2") int rowsPerBand,
+            @RequestParam(defaultValue = "42") long seed) {
+        try {
+            if (queries < 1 || queries > 10_000 || k < 1 || k > 100 || bands < 1 || rowsPerBand < 1 || bands * rowsPerBand > 1024) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(recipeFeatureStore.benchmark(queries, k, bands, rowsPerBand, seed));
+
+        } catch (Exception e) {
+            log.error("Error running retrieval benchmark", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 
+    @GetMapping("/recipes/explain")
+    @Operation(summary = "Explain the recipe filter query: plan stages, indexes used, whether it scans the collection (Admin only)")
+    public ResponseEntity<Map<String, Object>> explainRecipeFilters(
+            @RequestParam(required = false) Set<String> diet,
+            @RequestParam(required = false) Integer timeMax,
+            @RequestParam(required = false) Recipe.Difficulty difficulty,
+            @RequestParam(required = false) String cuisine) {
+        try {
+            return ResponseEntity.ok(recipeService.explainSearchFilters(diet, cuisine, difficulty, timeMax));
 
+        } catch (Exception e) {
+            log.error("Error explaining recipe filter query", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package Assignment.Recipe_Generator.controller;
 
 import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import Assignment.Recipe_Generator.service.BatchRecognitionService;
 import Assignment.Recipe_Generator.service.CustomOAuth2User;
-import Assignment.Recipe_Generator.service.OpenRouterService;
+import Assignment.Recipe_Generator.service.ImagePreprocessingService;
 import Assignment.Recipe_Generator.service.IngredientService;
+import Assignment.Recipe_Generator.service.RecognitionCacheService;
+import Assignment.Recipe_Generator.service.ResponseBodyCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
@@ -26,8 +32,14 @@ import java.util.ArrayList;
 @Tag(name = "Ingredients", description = "Ingredient recognition API")
 public class IngredientController {
 
-    private final OpenRouterService openRouterService;
     private final IngredientService ingredientService;
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final RecognitionCacheService recognitionCacheService;
+    private final BatchRecognitionService batchRecognitionService;
+    private final ResponseBodyCache responseBodyCache;
+
+    @Value("${ingredients.batch-recognition.max-images:5}")
+    private int maxBatchImages;
 
     @PostMapping("/recognize")
     @Operation(summary = "Recognize ingredients from uploaded image")
@@ -37,21 +49,18 @@ public class IngredientController {
             @AuthenticationPrincipal CustomOAuth2User user) {
         
         try {
-            // Validate file type
-            String contentType = image.getContentType();
-            if (contentType == null || !isValidImageType(contentType)) {
-                return ResponseEntity.badRequest().build();
-            }
-            
-            // Validate file size (max 10MB)
-            if (image.getSize() > 10 * 1024 * 1024) {
+            // Validate file type and size (max 10MB)
+            if (!isValidImage(image)) {
                 return ResponseEntity.badRequest().build();
             }
+            String contentType = image.getContentType();
             
-            byte[] imageBytes = image.getBytes();
+            // Downscale and re-encode to what the model actually looks at. The upload is
+            // streamed from the multipart part rather than copied with getBytes().
+            PreparedImage preparedImage = imagePreprocessingService.prepare(image::getInputStream, image.getSize(), contentType);
             String userId = user != null ? user.getUserId() : null;
             
-            IngredientRecognition result = openRouterService.recognizeIngredients(imageBytes, userId);
+            IngredientRecognition result = recognitionCacheService.recognizeIngredients(preparedImage, userId);
             
             return ResponseEntity.ok(result);
             
@@ -61,18 +70,48 @@ public class IngredientController {
         }
     }
 
+    @PostMapping("/recognize/batch")
+    @Operation(summary = "Recognize ingredients from several uploaded images, merged into one list")
+    public ResponseEntity<IngredientRecognition> recognizeIngredientsBatch(
+            @Parameter(description = "Image files (PNG, JPG, WEBP)")
+            @RequestParam("images") List<MultipartFile> images,
+            @AuthenticationPrincipal CustomOAuth2User user) {
+
+        try {
+            if (images.isEmpty() || images.size() > maxBatchImages) {
+                return ResponseEntity.badRequest().build();
+            }
+            for (MultipartFile image : images) {
+                if (!isValidImage(image)) {
+                    return ResponseEntity.badRequest().build();
+                }
+            }
+
+            String userId = user != null ? user.getUserId() : null;
+
+            IngredientRecognition result = batchRecognitionService.recognizeAll(images, userId);
+
+            return ResponseEntity.ok(result);
+
+        } catch (Exception e) {
+            log.error("Error processing images for batch ingredient recognition", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/master-list")
-    @Operation(summary = "Get complete master ingredients list for frontend autocomplete")
-    public ResponseEntity<List<String>> getMasterIngredients() {
+    @Operation(summary = "Get complete master ingredients list for frontend autocomplete (supports If-None-Match)")
+    public ResponseEntity<byte[]> getMasterIngredients(WebRequest request) {
         
         try {
-            Set<String> masterIngredients = ingredientService.getMasterIngredientsList();
-            List<String> ingredientsList = new ArrayList<>(masterIngredients);
-            
-            // Return all ingredients sorted alphabetically
-            ingredientsList.sort(String::compareToIgnoreCase);
-            
-            return ResponseEntity.ok(ingredientsList);
+            return responseBodyCache.respond("master-list", ingredientService.getMasterIngredientsVersion(), () -> {
+                Set<String> masterIngredients = ingredientService.getMasterIngredientsList();
+                List<String> ingredientsList = new ArrayList<>(masterIngredients);
+                
+                // Return all ingredients sorted alphabetically
+                ingredientsList.sort(String::compareToIgnoreCase);
+                return ingredientsList;
+            }, request);
             
         } catch (Exception e) {
             log.error("Error getting master ingredients list", e);
@@ -80,16 +119,39 @@ public class IngredientController {
         }
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete ingredient names from the master ingredients list")
+    public ResponseEntity<List<String>> suggestIngredients(
+            @Parameter(description = "Text typed so far")
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of suggestions (1-20)")
+            @RequestParam(defaultValue = "10") int limit) {
+
+        try {
+            List<String> suggestions = ingredientService.suggestIngredients(query, Math.max(1, Math.min(limit, 20)));
+
+            return ResponseEntity.ok(suggestions);
+
+        } catch (Exception e) {
+            log.error("Error suggesting ingredients for '{}'", query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/supported-formats")
-    @Operation(summary = "Get supported image formats")
-    public ResponseEntity<Map<String, Object>> getSupportedFormats() {
-        Map<String, Object> response = Map.of(
+    @Operation(summary = "Get supported image formats (supports If-None-Match)")
+    public ResponseEntity<byte[]> getSupportedFormats(WebRequest request) {
+        // Constant for the lifetime of the process
+        return responseBodyCache.respond("supported-formats", 0, () -> Map.of(
             "supportedFormats", new String[]{"image/png", "image/jpeg", "image/webp"},
             "maxSize", "10MB",
             "maxSizeBytes", 10 * 1024 * 1024
-        );
-        
-        return ResponseEntity.ok(response);
+        ), request);
+    }
+
+    private boolean isValidImage(MultipartFile image) {
+        String contentType = image.getContentType();
+        return contentType != null && isValidImageType(contentType) && image.getSize() <= 10 * 1024 * 1024;
     }
 
     private boolean isValidImageType(String contentType) {
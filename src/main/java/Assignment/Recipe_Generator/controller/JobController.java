@@ -0,0 +1,125 @@
+package Assignment.Recipe_Generator.controller;
+
+import Assignment.Recipe_Generator.dto.JobStatus;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.service.ImagePreprocessingService;
+import Assignment.Recipe_Generator.service.JobService;
+import Assignment.Recipe_Generator.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Jobs", description = "Asynchronous recognition and recipe generation")
+public class JobController {
+
+    private static final Set<String> SUPPORTED_IMAGE_TYPES = Set.of("image/png", "image/jpeg", "image/jpg", "image/webp");
+
+    private final JobService jobService;
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final UserService userService;
+
+    @Value("${jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    @PostMapping("/recognize")
+    @Operation(summary = "Submit an ingredient recognition job; returns a job id immediately")
+    public ResponseEntity<JobStatus> submitRecognition(
+            @Parameter(description = "Image file (PNG, JPG, WEBP)")
+            @RequestParam("image") MultipartFile image,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        String contentType = image.getContentType();
+        if (contentType == null || !SUPPORTED_IMAGE_TYPES.contains(contentType) || image.getSize() > 10 * 1024 * 1024) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            // Preprocess while the upload is still readable; the job only holds the small result
+            PreparedImage preparedImage = imagePreprocessingService.prepare(image::getInputStream, image.getSize(), contentType);
+
+            return accepted(jobService.submitRecognition(preparedImage, userService.getCurrentUserId(), idempotencyKey));
+
+        } catch (JobService.QueueFullException e) {
+            return queueFull();
+        } catch (Exception e) {
+            log.error("Error submitting recognition job", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/generate")
+    @Operation(summary = "Submit a recipe generation job; returns a job id immediately")
+    public ResponseEntity<JobStatus> submitGeneration(
+            @Valid @RequestBody RecipeRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        try {
+            return accepted(jobService.submitGeneration(request, userService.getCurrentUserId(), idempotencyKey));
+        } catch (JobService.QueueFullException e) {
+            return queueFull();
+        } catch (Exception e) {
+            log.error("Error submitting generation job", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get job status, and the result once finished")
+    public ResponseEntity<JobStatus> getJob(@PathVariable String id) {
+        return jobService.getJob(id, userService.getCurrentUserId())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/events", produces = "text/event-stream")
+    @Operation(summary = "Subscribe to a job; sends the final status as a 'result' event")
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable String id) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+
+        boolean found = jobService.onFinished(id, userService.getCurrentUserId(), status -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(status));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already timed out
+                emitter.completeWithError(e);
+            }
+        });
+
+        if (!found) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private ResponseEntity<JobStatus> accepted(JobStatus status) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .location(URI.create("/api/jobs/" + status.getId()))
+            .body(status);
+    }
+
+    private ResponseEntity<JobStatus> queueFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .build();
+    }
+}
@@ -1,11 +1,16 @@
 package Assignment.Recipe_Generator.controller;
 
+import Assignment.Recipe_Generator.dto.CookNowRequest;
+import Assignment.Recipe_Generator.dto.CursorPage;
 import Assignment.Recipe_Generator.dto.RecipeRequest;
 import Assignment.Recipe_Generator.dto.RecipeResponse;
+import Assignment.Recipe_Generator.dto.RecipeSuggestion;
 import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
 import Assignment.Recipe_Generator.service.FavoriteService;
 import Assignment.Recipe_Generator.service.RatingService;
 import Assignment.Recipe_Generator.service.RecipeService;
+import Assignment.Recipe_Generator.service.ResponseBodyCache;
 import Assignment.Recipe_Generator.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +23,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -26,6 +32,8 @@ import jakarta.validation.constraints.Min;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/recipes")
@@ -38,23 +46,14 @@ public class RecipeController {
     private final RatingService ratingService;
     private final FavoriteService favoriteService;
     private final UserService userService;
-
-    private String getCurrentUserId() {
-        var authentication = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            var userOpt = userService.findByUsername(username);
-            return userOpt.map(user -> user.getId()).orElse(null);
-        }
-        return null;
-    }
+    private final ResponseBodyCache responseBodyCache;
 
     @PostMapping("/generate")
     @Operation(summary = "Generate recipes based on ingredients and preferences")
     public ResponseEntity<RecipeResponse> generateRecipes(
             @Valid @RequestBody RecipeRequest request) {
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         RecipeResponse response = recipeService.generateRecipes(request, userId);
         
         return ResponseEntity.ok(response);
@@ -90,12 +89,124 @@ public class RecipeController {
         return ResponseEntity.ok(recipes);
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Filter recipes with cursor (keyset) pagination ordered by id, for deep paging; pass cursor= for the first page (no text query)")
+    public ResponseEntity<CursorPage<Recipe>> searchRecipesByCursor(
+            @Parameter(description = "nextCursor from the previous page; empty for the first page")
+            @RequestParam String cursor,
+            
+            @Parameter(description = "Diet tags to filter by")
+            @RequestParam(required = false) Set<String> diet,
+            
+            @Parameter(description = "Maximum cooking time in minutes")
+            @RequestParam(required = false) Integer timeMax,
+            
+            @Parameter(description = "Recipe difficulty level")
+            @RequestParam(required = false) Recipe.Difficulty difficulty,
+            
+            @Parameter(description = "Cuisine type")
+            @RequestParam(required = false) String cuisine,
+            
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        
+        try {
+            CursorPage<Recipe> recipes = recipeService.searchRecipesAfter(diet, cuisine, difficulty, timeMax, cursor,
+                Math.max(1, Math.min(size, 100)));
+
+            return ResponseEntity.ok(recipes);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor, rejected by the service
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Search-as-you-type recipe title suggestions, most popular first")
+    public ResponseEntity<List<RecipeSuggestion>> suggestRecipes(
+            @Parameter(description = "Text typed so far")
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of suggestions (1-20)")
+            @RequestParam(defaultValue = "10") int limit) {
+
+        try {
+            List<RecipeSuggestion> suggestions = recipeService.suggestTitles(query, Math.max(1, Math.min(limit, 20)));
+
+            return ResponseEntity.ok(suggestions);
+
+        } catch (Exception e) {
+            log.error("Error suggesting recipes for '{}'", query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/cook-now")
+    @Operation(summary = "Find recipes that need nothing beyond the given pantry ingredients, by size or rating")
+    public ResponseEntity<List<Recipe>> cookNow(@Valid @RequestBody CookNowRequest request) {
+        try {
+            List<Recipe> recipes = recipeService.findCookableRecipes(request);
+
+            return ResponseEntity.ok(recipes);
+
+        } catch (Exception e) {
+            log.error("Error finding cookable recipes", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get recipe counts per cuisine, difficulty, diet tag and time for a filter selection (supports If-None-Match)")
+    public ResponseEntity<byte[]> getFacets(
+            @Parameter(description = "Diet tags to filter by")
+            @RequestParam(required = false) Set<String> diet,
+            
+            @Parameter(description = "Maximum cooking time in minutes")
+            @RequestParam(required = false) Integer timeMax,
+            
+            @Parameter(description = "Recipe difficulty level")
+            @RequestParam(required = false) Recipe.Difficulty difficulty,
+            
+            @Parameter(description = "Cuisine type")
+            @RequestParam(required = false) String cuisine,
+            
+            WebRequest request) {
+        try {
+            // One cached body per filter selection and catalog version; cuisine and diet tags
+            // are normalized as the facet filters compare them, so equivalent selections
+            // ("Italian" and " italian") share a body instead of each taking a cache entry
+            Set<String> dietNorm = diet == null ? null : diet.stream()
+                .filter(tag -> tag != null && !tag.isBlank())
+                .map(String::toLowerCase)
+                .collect(Collectors.toCollection(TreeSet::new));
+            Set<String> dietFilter = dietNorm == null || dietNorm.isEmpty() ? null : dietNorm;
+            String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+            String key = "facets:" + (dietFilter != null ? dietFilter : "") + ":" + cuisineNorm + ":" + difficulty + ":" + timeMax;
+            return responseBodyCache.respond(key, recipeService.getCatalogVersion(),
+                () -> recipeService.getSearchFacets(dietFilter, cuisineNorm, difficulty, timeMax), request);
+        } catch (Exception e) {
+            log.error("Error getting recipe facets", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/cuisines")
+    @Operation(summary = "Get distinct cuisines with recipe counts (supports If-None-Match)")
+    public ResponseEntity<byte[]> getCuisines(WebRequest request) {
+        try {
+            return responseBodyCache.respond("cuisines", recipeService.getCatalogVersion(),
+                recipeService::getCuisineCounts, request);
+        } catch (Exception e) {
+            log.error("Error getting cuisines", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get recipe by ID")
-    public ResponseEntity<Recipe> getRecipe(@PathVariable String id) {
-        return recipeService.findById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    @Operation(summary = "Get recipe by ID (supports If-None-Match)")
+    public ResponseEntity<byte[]> getRecipe(@PathVariable String id, WebRequest request) {
+        // Versioned per recipe: changes to other recipes keep this body and its ETag
+        return responseBodyCache.respond("recipe:" + id, recipeService.getRecipeVersion(id),
+            () -> recipeService.findById(id).orElse(null), request);
     }
 
     @PostMapping("/{id}/rate")
@@ -104,7 +215,7 @@ public class RecipeController {
             @PathVariable String id,
             @RequestBody Map<String, Integer> request) {
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(401).build();
         }
@@ -135,7 +246,7 @@ public class RecipeController {
     public ResponseEntity<Map<String, Object>> saveRecipe(
             @PathVariable String id) {
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(401).build();
         }
@@ -164,7 +275,7 @@ public class RecipeController {
     public ResponseEntity<Map<String, Object>> saveLLMRecipe(
             @RequestBody Recipe recipe) {
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(401).build();
         }
@@ -198,7 +309,7 @@ public class RecipeController {
     public ResponseEntity<Map<String, Object>> unsaveRecipe(
             @PathVariable String id) {
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(401).build();
         }
@@ -221,7 +332,7 @@ public class RecipeController {
         double avgRating = ratingService.getAverageRating(id);
         int ratingCount = ratingService.getRatingCount(id);
         
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         Integer userRating = null;
         if (userId != null) {
             userRating = ratingService.getUserRating(userId, id)
@@ -244,7 +355,7 @@ public class RecipeController {
             @PathVariable String id) {
         
         long favoriteCount = favoriteService.getFavoriteCount(id);
-        String userId = getCurrentUserId();
+        String userId = userService.getCurrentUserId();
         boolean isFavorited = userId != null && favoriteService.isFavorited(userId, id);
         
         Map<String, Object> response = Map.of(
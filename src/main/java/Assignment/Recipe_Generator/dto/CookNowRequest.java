@@ -0,0 +1,34 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CookNowRequest {
+
+    // Everything in the pantry; only recipes needing nothing else are returned
+    @NotNull
+    private List<String> ingredients;
+
+    // size: most ingredients first; rating: highest average rating first
+    @Pattern(regexp = "size|rating")
+    @Builder.Default
+    private String sort = "size";
+
+    @Min(1)
+    @Max(100)
+    @Builder.Default
+    private Integer limit = 20;
+}
@@ -0,0 +1,30 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Recipe counts per facet value for a filter selection. Each facet is counted with all
+ * other filters applied but not its own, so the counts show what selecting another value
+ * of that facet would return. Values are ordered by count, most common first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCounts {
+
+    // Recipes matching all filters
+    private long total;
+
+    private Map<String, Long> cuisine;
+    private Map<String, Long> difficulty;
+    private Map<String, Long> dietTags;
+
+    // Maximum time in minutes -> recipes that take at most that long
+    private Map<String, Long> maxTime;
+}
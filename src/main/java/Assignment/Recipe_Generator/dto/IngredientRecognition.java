@@ -1,5 +1,6 @@
 package Assignment.Recipe_Generator.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,6 +23,10 @@ public class IngredientRecognition {
     public static class RecognizedIngredient {
         private String name;
         private Double confidence;
+
+        // Indexes (in upload order) of the images the ingredient was seen in; batch recognition only
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<Integer> sourceImages;
     }
 }
 
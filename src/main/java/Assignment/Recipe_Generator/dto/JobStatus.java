@@ -0,0 +1,41 @@
+package Assignment.Recipe_Generator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatus {
+
+    private String id;
+    private Type type;
+    private State state;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    // IngredientRecognition or RecipeResponse once the job has succeeded
+    private Object result;
+    private String error;
+
+    public enum Type {
+        RECOGNITION, GENERATION
+    }
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package Assignment.Recipe_Generator.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
@@ -7,8 +8,11 @@ import lombok.Data;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class OpenRouterRequest {
+
+    // Image URL placeholder replaced by the streamed data URL of inlineImage when the body is written
+    public static final String INLINE_IMAGE_PLACEHOLDER = "__inline_image__";
     
     private String model;
     private List<Message> messages;
@@ -20,6 +24,9 @@ public class OpenRouterRequest {
     
     @JsonProperty("response_format")
     private ResponseFormat responseFormat;
+
+    @JsonIgnore
+    private PreparedImage inlineImage;
     
     @Data
     @Builder
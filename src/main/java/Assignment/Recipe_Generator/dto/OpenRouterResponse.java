@@ -1,5 +1,6 @@
 package Assignment.Recipe_Generator.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.util.List;
@@ -18,6 +19,8 @@ public class OpenRouterResponse {
     public static class Choice {
         private Integer index;
         private Message message;
+        
+        @JsonProperty("finish_reason")
         private String finishReason;
     }
     
@@ -29,8 +32,13 @@ public class OpenRouterResponse {
     
     @Data
     public static class Usage {
+        @JsonProperty("prompt_tokens")
         private Integer promptTokens;
+        
+        @JsonProperty("completion_tokens")
         private Integer completionTokens;
+        
+        @JsonProperty("total_tokens")
         private Integer totalTokens;
     }
 }
@@ -0,0 +1,48 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Image ready to be sent to the LLM, after server-side preprocessing.
+ *
+ * The bytes are exposed as a re-openable stream rather than an array so that large
+ * pass-through uploads can be streamed into the request body without being copied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class PreparedImage {
+
+    private Source source;
+
+    // Size in bytes of the data provided by source
+    private long size;
+
+    // MIME type of the data (not necessarily the type declared by the client)
+    private String mimeType;
+
+    private int width;
+
+    private int height;
+
+    private long originalSize;
+
+    // False when the original upload is passed through unchanged
+    private boolean reencoded;
+
+    // 64-bit difference hash of the image content, null if the image could not be decoded
+    private Long perceptualHash;
+
+    @FunctionalInterface
+    public interface Source {
+        // Each call returns a new stream positioned at the start of the image
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Average stars and number of ratings of one recipe, as returned by the aggregation
+ * queries in RatingRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummary {
+
+    private String recipeId;
+    private double averageRating;
+    private long ratingCount;
+}
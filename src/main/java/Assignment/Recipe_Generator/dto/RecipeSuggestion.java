@@ -0,0 +1,14 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSuggestion {
+
+    private String id;
+    private String title;
+}
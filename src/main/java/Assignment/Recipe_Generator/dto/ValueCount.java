@@ -0,0 +1,18 @@
+package Assignment.Recipe_Generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A distinct value and the number of recipes it occurs in, as returned by the
+ * aggregation queries in RecipeRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValueCount {
+
+    private String value;
+    private long count;
+}
@@ -4,8 +4,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 
 import jakarta.validation.constraints.NotBlank;
@@ -29,7 +31,7 @@ public class Recipe {
     private String id;
     
     @NotBlank
-    @TextIndexed
+    @TextIndexed(weight = 3)
     private String title;
     
     @NotNull
@@ -46,6 +48,11 @@ public class Recipe {
     
     private String cuisine;
     
+    // Trimmed, lowercase cuisine for indexed filtering; maintained on save (RecipeCatalogListener)
+    @JsonIgnore
+    @Field("cuisine_norm")
+    private String cuisineNorm;
+    
     @Builder.Default
     private Set<String> dietTags = Set.of();
     
@@ -67,6 +74,7 @@ public class Recipe {
     @Builder
     public static class Ingredient {
         @NotBlank
+        @TextIndexed
         private String name;
         
         private String quantity;
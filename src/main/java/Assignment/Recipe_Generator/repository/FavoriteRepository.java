@@ -1,6 +1,8 @@
 package Assignment.Recipe_Generator.repository;
 
+import Assignment.Recipe_Generator.dto.ValueCount;
 import Assignment.Recipe_Generator.model.Favorite;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -18,9 +20,17 @@ public interface FavoriteRepository extends MongoRepository<Favorite, String> {
     
     boolean existsByUserIdAndRecipeId(String userId, String recipeId);
     
-    void deleteByUserIdAndRecipeId(String userId, String recipeId);
+    // Returns the number of favorites deleted
+    long deleteByUserIdAndRecipeId(String userId, String recipeId);
     
     long countByRecipeId(String recipeId);
+    
+    // Number of favorites per recipe id
+    @Aggregation(pipeline = {
+        "{ $group: { _id: '$recipeId', count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, value: '$_id', count: 1 } }"
+    })
+    List<ValueCount> countByRecipe();
 }
 
 
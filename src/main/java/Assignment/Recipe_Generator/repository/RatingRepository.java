@@ -1,10 +1,13 @@
 package Assignment.Recipe_Generator.repository;
 
+import Assignment.Recipe_Generator.dto.RatingSummary;
 import Assignment.Recipe_Generator.model.Rating;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +28,14 @@ public interface RatingRepository extends MongoRepository<Rating, String> {
            fields = "{ 'stars': 1 }")
     List<Rating> findStarsByRecipeId(String recipeId);
     
+    // Average stars per recipe for a set of recipes, computed in the database
+    @Aggregation(pipeline = {
+        "{ $match: { recipeId: { $in: ?0 } } }",
+        "{ $group: { _id: '$recipeId', averageRating: { $avg: '$stars' }, ratingCount: { $sum: 1 } } }",
+        "{ $project: { _id: 0, recipeId: '$_id', averageRating: 1, ratingCount: 1 } }"
+    })
+    List<RatingSummary> summarizeByRecipeIds(Collection<String> recipeIds);
+    
     void deleteByUserIdAndRecipeId(String userId, String recipeId);
 }
 
@@ -0,0 +1,31 @@
+package Assignment.Recipe_Generator.repository;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published after recipes are written to or removed from the database. Derived data
+ * (e.g. the master ingredient index) listens to this to update incrementally.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RecipeCatalogChangedEvent {
+
+    public enum Type {
+        SAVED,   // one recipe inserted or updated
+        DELETED, // one recipe deleted by id
+        RESET    // bulk delete or other change not attributable to single recipes; rebuild
+    }
+
+    private final Type type;
+
+    // Null for RESET
+    private final String recipeId;
+
+    // Saved recipe for SAVED, null otherwise
+    private final Recipe recipe;
+
+    // Catalog version after this change
+    private final long catalogVersion;
+}
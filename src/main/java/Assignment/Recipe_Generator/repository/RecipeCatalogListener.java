@@ -0,0 +1,106 @@
+package Assignment.Recipe_Generator.repository;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns Mongo lifecycle events for recipes into {@link RecipeCatalogChangedEvent}s and keeps
+ * a catalog version that increases with every change, plus the version at which each recipe
+ * last changed.
+ *
+ * Saves (including saveAll/seeding) are reported per recipe. A delete whose query is a single
+ * _id is reported as DELETED; any other delete (deleteAll, deleteBySource, ...) removes an
+ * unknown set of recipes and is reported as RESET. Before a recipe is written, its derived
+ * cuisineNorm field is refreshed from cuisine.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeCatalogListener extends AbstractMongoEventListener<Recipe> {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // Recipe id -> catalog version of its last save or delete since the last RESET
+    private final Map<String, Long> recipeVersions = new ConcurrentHashMap<>();
+
+    // Catalog version of the last RESET; recipes not in recipeVersions last changed at or before it
+    private volatile long resetVersion;
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * @return Version that changes whenever this recipe is saved or deleted (or the catalog
+     *         is reset), but not when other recipes change
+     */
+    public long getRecipeVersion(String recipeId) {
+        return recipeVersions.getOrDefault(recipeId, resetVersion);
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Recipe> event) {
+        Recipe recipe = event.getSource();
+        recipe.setCuisineNorm(normalizeCuisine(recipe.getCuisine()));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Recipe> event) {
+        Recipe recipe = event.getSource();
+        publish(RecipeCatalogChangedEvent.Type.SAVED, recipe.getId(), recipe);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Recipe> event) {
+        Document query = event.getSource();
+        Object id = query.get("_id");
+
+        if (query.size() == 1 && id != null && !(id instanceof Document)) {
+            publish(RecipeCatalogChangedEvent.Type.DELETED, id.toString(), null);
+        } else {
+            log.debug("Bulk recipe delete {}, resetting catalog", query.toJson());
+            publish(RecipeCatalogChangedEvent.Type.RESET, null, null);
+        }
+    }
+
+    /**
+     * @return Form of a cuisine stored in cuisine_norm and used in filters
+     */
+    public static String normalizeCuisine(String cuisine) {
+        if (cuisine == null || cuisine.isBlank()) {
+            return null;
+        }
+        return cuisine.trim().toLowerCase();
+    }
+
+    private void publish(RecipeCatalogChangedEvent.Type type, String recipeId, Recipe recipe) {
+        long version = recordVersion(type, recipeId);
+        eventPublisher.publishEvent(new RecipeCatalogChangedEvent(type, recipeId, recipe, version));
+    }
+
+    // Serialized so a RESET cannot clear the entry of a save that happened after it
+    private synchronized long recordVersion(RecipeCatalogChangedEvent.Type type, String recipeId) {
+        long version = catalogVersion.incrementAndGet();
+        if (type == RecipeCatalogChangedEvent.Type.RESET) {
+            resetVersion = version;
+            recipeVersions.clear();
+        } else if (recipeId != null) {
+            recipeVersions.put(recipeId, version);
+        }
+        return version;
+    }
+}
@@ -1,8 +1,10 @@
 package Assignment.Recipe_Generator.repository;
 
+import Assignment.Recipe_Generator.dto.ValueCount;
 import Assignment.Recipe_Generator.model.Recipe;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,11 +13,7 @@ import java.util.List;
 import java.util.Set;
 
 @Repository
-public interface RecipeRepository extends MongoRepository<Recipe, String> {
-    
-    // Text search in title and ingredients
-    @Query("{ $text: { $search: ?0 } }")
-    Page<Recipe> findByTextSearch(String searchText, Pageable pageable);
+public interface RecipeRepository extends MongoRepository<Recipe, String>, RecipeRepositoryCustom {
     
     // Filter by diet tags
     List<Recipe> findByDietTagsIn(Set<String> dietTags);
@@ -29,25 +27,47 @@ public interface RecipeRepository extends MongoRepository<Recipe, String> {
     // Filter by time
     List<Recipe> findByTimeMinutesLessThanEqual(Integer maxTime);
     
-    // Complex query combining multiple filters
-    @Query("{ " +
-           "$and: [" +
-           "  { $or: [ { 'dietTags': { $in: ?0 } }, { $expr: { $eq: [{ $size: ?0 }, 0] } } ] }," +
-           "  { $or: [ { 'cuisine': { $regex: ?1, $options: 'i' } }, { $expr: { $eq: [?1, ''] } } ] }," +
-           "  { $or: [ { 'difficulty': ?2 }, { $expr: { $eq: [?2, null] } } ] }," +
-           "  { $or: [ { 'timeMinutes': { $lte: ?3 } }, { $expr: { $eq: [?3, null] } } ] }" +
-           "] }")
-    List<Recipe> findByFilters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime);
-    
     // Find by source
     List<Recipe> findBySource(Recipe.Source source);
     
     // Find recipes created by user
     List<Recipe> findByCreatedBy(String userId);
     
-    // Get all distinct cuisines
-    @Query(value = "{}", fields = "{ 'cuisine': 1 }")
-    List<Recipe> findAllCuisines();
+    // Distinct cuisines (case-insensitive) with recipe counts, most common first
+    @Aggregation(pipeline = {
+        "{ $match: { cuisine: { $type: 'string', $ne: '' } } }",
+        "{ $group: { _id: { $toLower: { $trim: { input: '$cuisine' } } }, value: { $min: { $trim: { input: '$cuisine' } } }, count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, value: 1, count: 1 } }",
+        "{ $sort: { count: -1, value: 1 } }"
+    })
+    List<ValueCount> countCuisines();
+    
+    // Distinct ingredient names (lowercased, trimmed) with the number of recipes using each
+    @Aggregation(pipeline = {
+        "{ $unwind: '$ingredients' }",
+        "{ $match: { 'ingredients.name': { $type: 'string' } } }",
+        "{ $group: { _id: { recipe: '$_id', name: { $toLower: { $trim: { input: '$ingredients.name' } } } } } }",
+        "{ $group: { _id: '$_id.name', count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, value: '$_id', count: 1 } }",
+        "{ $sort: { count: -1, value: 1 } }"
+    })
+    List<ValueCount> countIngredientNames();
+    
+    // Only the fields used for filtering and ranking (no steps, nutrition, quantities)
+    @Query(value = "{}", fields = "{ 'timeMinutes': 1, 'difficulty': 1, 'cuisine': 1, 'dietTags': 1, 'ingredients.name': 1 }")
+    List<Recipe> findAllFeatures();
+    
+    // Only the fields indexed for full-text search
+    @Query(value = "{}", fields = "{ 'title': 1, 'timeMinutes': 1, 'difficulty': 1, 'cuisine': 1, 'dietTags': 1, 'ingredients.name': 1 }")
+    List<Recipe> findAllSearchFields();
+    
+    // Only the id and title of every recipe
+    @Query(value = "{}", fields = "{ 'title': 1 }")
+    List<Recipe> findAllTitles();
+    
+    // Only the id and ingredient names of every recipe
+    @Query(value = "{}", fields = "{ 'ingredients.name': 1 }")
+    List<Recipe> findAllIngredientNames();
     
     // Delete by source
     void deleteBySource(Recipe.Source source);
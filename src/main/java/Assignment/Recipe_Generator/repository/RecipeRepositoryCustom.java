@@ -0,0 +1,43 @@
+package Assignment.Recipe_Generator.repository;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recipe queries built dynamically with MongoTemplate, mixed into {@link RecipeRepository}.
+ */
+public interface RecipeRepositoryCustom {
+
+    /**
+     * Filter recipes with skip/limit applied in the database. Null or empty filters are
+     * ignored. The total is counted separately, and only when it can't be inferred from
+     * the page itself.
+     */
+    Page<Recipe> findByFilters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                               Integer maxTime, Pageable pageable);
+
+    /**
+     * Full-text search over title and ingredient names combined with the same filters in one
+     * query, most relevant first (title matches weigh more), paginated in the database.
+     */
+    Page<Recipe> searchByText(String text, Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                              Integer maxTime, Pageable pageable);
+
+    /**
+     * Keyset pagination over the same filters, ordered by id: returns up to limit recipes
+     * with an id greater than afterId (from the start if null). Cost does not grow with depth.
+     * @param afterId Recipe id (ObjectId hex string) to continue after; validated by the caller
+     */
+    List<Recipe> findByFiltersAfter(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                                    Integer maxTime, String afterId, int limit);
+
+    /**
+     * @return MongoDB explain output (queryPlanner) for the filter query of the first page
+     */
+    Document explainFilters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime);
+}
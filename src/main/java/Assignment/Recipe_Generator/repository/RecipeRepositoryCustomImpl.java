@@ -0,0 +1,110 @@
+package Assignment.Recipe_Generator.repository;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<Recipe> findByFilters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                                      Integer maxTime, Pageable pageable) {
+        Query query = new Query(filterCriteria(dietTags, cuisine, difficulty, maxTime));
+        if (pageable.getSort().isUnsorted()) {
+            // Stable order so pages don't overlap or skip recipes
+            query.with(Sort.by("id"));
+        }
+        query.with(pageable);
+
+        List<Recipe> content = mongoTemplate.find(query, Recipe.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Recipe.class));
+    }
+
+    @Override
+    public Page<Recipe> searchByText(String text, Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                                     Integer maxTime, Pageable pageable) {
+        TextCriteria textCriteria = TextCriteria.forDefaultLanguage().matching(text);
+        Criteria filters = filterCriteria(dietTags, cuisine, difficulty, maxTime);
+
+        Query query = TextQuery.queryText(textCriteria)
+            .sortByScore()
+            .addCriteria(filters)
+            .with(Sort.by("id"))
+            .with(pageable);
+
+        List<Recipe> content = mongoTemplate.find(query, Recipe.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(new Query(textCriteria).addCriteria(filters), Recipe.class));
+    }
+
+    @Override
+    public List<Recipe> findByFiltersAfter(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                                           Integer maxTime, String afterId, int limit) {
+        Criteria criteria = filterCriteria(dietTags, cuisine, difficulty, maxTime);
+        if (afterId != null) {
+            criteria = new Criteria().andOperator(criteria, Criteria.where("id").gt(new ObjectId(afterId)));
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by("id"))
+            .limit(limit);
+        return mongoTemplate.find(query, Recipe.class);
+    }
+
+    @Override
+    public Document explainFilters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        Query query = new Query(filterCriteria(dietTags, cuisine, difficulty, maxTime)).with(Sort.by("id"));
+
+        // Map property names and values (enum, id) the way find() would
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Recipe.class);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Recipe.class))
+            .find(filter)
+            .sort(sort)
+            .limit(20)
+            .explain();
+    }
+
+    // Only the supplied filters become conditions
+    private Criteria filterCriteria(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        List<Criteria> conditions = new ArrayList<>();
+        if (dietTags != null && !dietTags.isEmpty()) {
+            conditions.add(Criteria.where("dietTags").in(dietTags));
+        }
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+        if (cuisineNorm != null) {
+            // Equality on the normalized field, so the compound index can be used
+            conditions.add(Criteria.where("cuisineNorm").is(cuisineNorm));
+        }
+        if (difficulty != null) {
+            conditions.add(Criteria.where("difficulty").is(difficulty));
+        }
+        if (maxTime != null) {
+            conditions.add(Criteria.where("timeMinutes").lte(maxTime));
+        }
+        return conditions.isEmpty() ? new Criteria() : new Criteria().andOperator(conditions);
+    }
+}
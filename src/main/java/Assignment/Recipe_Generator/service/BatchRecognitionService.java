@@ -0,0 +1,132 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Recognizes ingredients in several images at once. Images are preprocessed and recognized
+ * concurrently on a shared worker pool, with at most max-concurrency images of one request
+ * in flight, and the per-image results are merged into one deduplicated recognition.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchRecognitionService {
+
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final RecognitionCacheService recognitionCacheService;
+
+    @Value("${ingredients.batch-recognition.max-concurrency:3}")
+    private int maxConcurrency;
+
+    @Value("${ingredients.batch-recognition.workers:8}")
+    private int workers;
+
+    private ExecutorService executor;
+
+    /**
+     * @param images Uploaded images, already validated
+     * @param userId Requesting user, or null
+     * @return Merged recognition; each ingredient lists the indexes of the images it was seen in
+     */
+    public IngredientRecognition recognizeAll(List<MultipartFile> images, String userId) throws InterruptedException {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<IngredientRecognition>> results = new ArrayList<>();
+
+        for (MultipartFile image : images) {
+            // Throttle submission so one request can't occupy the whole pool
+            permits.acquire();
+            try {
+                results.add(executor.submit(() -> {
+                    try {
+                        PreparedImage prepared = imagePreprocessingService.prepare(
+                            image::getInputStream, image.getSize(), image.getContentType());
+                        return recognitionCacheService.recognizeIngredients(prepared, userId);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        List<IngredientRecognition> perImage = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                perImage.add(results.get(i).get());
+            } catch (ExecutionException e) {
+                // One unreadable image shouldn't fail the others
+                log.error("Recognition failed for image {} of {}", i, results.size(), e.getCause());
+                perImage.add(IngredientRecognition.builder().ingredients(new ArrayList<>()).build());
+            }
+        }
+
+        return merge(perImage);
+    }
+
+    /**
+     * Merge per-image results by ingredient name (case-insensitive), keeping the highest
+     * confidence and recording every image the ingredient appeared in.
+     */
+    private IngredientRecognition merge(List<IngredientRecognition> perImage) {
+        Map<String, IngredientRecognition.RecognizedIngredient> merged = new LinkedHashMap<>();
+
+        for (int imageIndex = 0; imageIndex < perImage.size(); imageIndex++) {
+            List<IngredientRecognition.RecognizedIngredient> ingredients = perImage.get(imageIndex).getIngredients();
+            if (ingredients == null) {
+                continue;
+            }
+
+            for (IngredientRecognition.RecognizedIngredient ingredient : ingredients) {
+                String key = ingredient.getName().toLowerCase().trim();
+                IngredientRecognition.RecognizedIngredient existing = merged.get(key);
+                if (existing == null) {
+                    merged.put(key, IngredientRecognition.RecognizedIngredient.builder()
+                        .name(ingredient.getName())
+                        .confidence(ingredient.getConfidence())
+                        .sourceImages(new ArrayList<>(List.of(imageIndex)))
+                        .build());
+                    continue;
+                }
+
+                double confidence = ingredient.getConfidence() != null ? ingredient.getConfidence() : 0.0;
+                if (existing.getConfidence() == null || confidence > existing.getConfidence()) {
+                    existing.setConfidence(ingredient.getConfidence());
+                }
+                if (!existing.getSourceImages().contains(imageIndex)) {
+                    existing.getSourceImages().add(imageIndex);
+                }
+            }
+        }
+
+        return IngredientRecognition.builder()
+            .ingredients(new ArrayList<>(merged.values()))
+            .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "batch-recognition-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package Assignment.Recipe_Generator.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Burkhard-Keller tree over strings with Levenshtein distance, for finding the terms within
+ * a small edit distance of a query without comparing against every term. Supports one
+ * writer adding terms concurrently with any number of readers (a lookup may or may not see
+ * a term being added); writers must be serialized externally. Terms cannot be removed.
+ */
+public class BkTree {
+
+    private volatile Node root;
+    private volatile int size;
+
+    public record Match(String term, int distance) {
+    }
+
+    public void add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Closest term within maxDistance (ties broken alphabetically), if any
+     */
+    public Optional<Match> closest(String query, int maxDistance) {
+        if (root == null) {
+            return Optional.empty();
+        }
+
+        Match best = null;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int limit = best != null ? best.distance() : maxDistance;
+            int distance = distance(query, node.term);
+
+            if (distance <= limit && (best == null || distance < best.distance()
+                    || (distance == best.distance() && node.term.compareTo(best.term()) < 0))) {
+                best = new Match(node.term, distance);
+                limit = distance;
+            }
+
+            // Triangle inequality: only children at |d - distance| <= limit can be within limit
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= limit) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Levenshtein distance. Computed exactly (no early exit) because the tree search relies
+     * on exact distances to prune with the triangle inequality.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static class Node {
+        private final String term;
+        private final Map<Integer, Node> children = new ConcurrentHashMap<>();
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final RecipeRepository recipeRepository;
     private final LogService logService;
+    private final RecipeTitleIndex recipeTitleIndex;
 
     public Favorite addToFavorites(String userId, String recipeId) {
         // Check if already favorited
@@ -33,6 +34,7 @@ public class FavoriteService {
             .build();
         
         Favorite saved = favoriteRepository.save(favorite);
+        recipeTitleIndex.adjustPopularity(recipeId, 1);
         
         logService.logUserActivity("recipe_favorited", userId, 
             java.util.Map.of("recipeId", recipeId));
@@ -41,7 +43,9 @@ public class FavoriteService {
     }
 
     public void removeFromFavorites(String userId, String recipeId) {
-        favoriteRepository.deleteByUserIdAndRecipeId(userId, recipeId);
+        if (favoriteRepository.deleteByUserIdAndRecipeId(userId, recipeId) > 0) {
+            recipeTitleIndex.adjustPopularity(recipeId, -1);
+        }
         
         logService.logUserActivity("recipe_unfavorited", userId, 
             java.util.Map.of("recipeId", recipeId));
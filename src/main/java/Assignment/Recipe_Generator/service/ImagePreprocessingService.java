@@ -0,0 +1,356 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Shrinks uploaded images before they are sent for ingredient recognition.
+ *
+ * Recognition requests use detail "low", so the provider works from a ~512px image anyway.
+ * Images are decoded with source subsampling, resized to that resolution, rotated according
+ * to their EXIF orientation and re-encoded as JPEG. Formats ImageIO cannot decode (e.g. WEBP
+ * without a plugin) are passed through unchanged, labelled with their real MIME type.
+ * The upload is read as a stream; it is never copied into a single byte array.
+ */
+@Service
+@Slf4j
+public class ImagePreprocessingService {
+
+    // Enough for the file signature and a maximal EXIF (APP1) segment
+    private static final int HEADER_BYTES = 64 * 1024 + 16;
+
+    // 9x8 luminance grid -> 8 comparisons per row x 8 rows = 64-bit hash
+    private static final int HASH_GRID_WIDTH = 9;
+    private static final int HASH_GRID_HEIGHT = 8;
+
+    @Value("${image.preprocessing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.preprocessing.max-dimension:512}")
+    private int maxDimension;
+
+    @Value("${image.preprocessing.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    /**
+     * @param source Upload contents; read once here and re-opened later only if passed through
+     * @param size Upload size in bytes
+     * @param declaredContentType Content type declared by the client
+     */
+    public PreparedImage prepare(PreparedImage.Source source, long size, String declaredContentType) throws IOException {
+        try (BufferedInputStream input = new BufferedInputStream(source.open(), HEADER_BYTES)) {
+            // Keep the leading bytes for format sniffing and the EXIF segment, then rewind
+            input.mark(HEADER_BYTES);
+            byte[] header = input.readNBytes(HEADER_BYTES);
+            input.reset();
+
+            String mimeType = detectMimeType(header, declaredContentType);
+            if (!enabled) {
+                return passThrough(source, size, mimeType, null);
+            }
+
+            try {
+                BufferedImage decoded = decodeSubsampled(input);
+                if (decoded == null) {
+                    log.debug("No ImageIO reader for {}, sending original bytes", mimeType);
+                    return passThrough(source, size, mimeType, null);
+                }
+
+                int orientation = "image/jpeg".equals(mimeType) ? readExifOrientation(header) : 1;
+                BufferedImage image = applyOrientation(resize(decoded), orientation);
+                byte[] encoded = encodeJpeg(image);
+                long perceptualHash = differenceHash(image);
+
+                // Already small JPEGs can grow when re-encoded; keep the original if nothing had to change
+                boolean unchanged = decoded.getWidth() <= maxDimension && decoded.getHeight() <= maxDimension
+                    && orientation == 1 && "image/jpeg".equals(mimeType);
+                if (unchanged && encoded.length >= size) {
+                    return passThrough(source, size, mimeType, perceptualHash);
+                }
+
+                log.debug("Preprocessed image {} ({} bytes) -> image/jpeg {}x{} ({} bytes)",
+                    mimeType, size, image.getWidth(), image.getHeight(), encoded.length);
+
+                return PreparedImage.builder()
+                    .source(() -> new ByteArrayInputStream(encoded))
+                    .size(encoded.length)
+                    .mimeType("image/jpeg")
+                    .width(image.getWidth())
+                    .height(image.getHeight())
+                    .originalSize(size)
+                    .reencoded(true)
+                    .perceptualHash(perceptualHash)
+                    .build();
+
+            } catch (IOException | RuntimeException e) {
+                // e.g. CMYK JPEGs or truncated files; the provider may still cope with the original
+                log.warn("Image preprocessing failed for {}, sending original bytes: {}", mimeType, e.getMessage());
+                return passThrough(source, size, mimeType, null);
+            }
+        }
+    }
+
+    /**
+     * Determine the MIME type from the file signature, falling back to the declared type.
+     */
+    public String detectMimeType(byte[] bytes, String declaredContentType) {
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (bytes.length >= 8 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return "image/png";
+        }
+        if (bytes.length >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+            && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "image/webp";
+        }
+        if (bytes.length >= 4 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == '8') {
+            return "image/gif";
+        }
+        if (declaredContentType == null || declaredContentType.equals("image/jpg")) {
+            return "image/jpeg";
+        }
+        return declaredContentType;
+    }
+
+    private PreparedImage passThrough(PreparedImage.Source source, long size, String mimeType, Long perceptualHash) {
+        return PreparedImage.builder()
+            .source(source)
+            .size(size)
+            .mimeType(mimeType)
+            .width(-1)
+            .height(-1)
+            .originalSize(size)
+            .reencoded(false)
+            .perceptualHash(perceptualHash)
+            .build();
+    }
+
+    /**
+     * Decode the image, skipping rows/columns at read time so a 12MP photo never gets
+     * fully materialised. Returns null if no reader supports the format. The stream is cached
+     * according to ImageIO's cache setting (a temp file by default), not on the heap.
+     */
+    private BufferedImage decodeSubsampled(InputStream stream) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+
+                // Keep at least twice the target resolution so the final resize still smooths
+                int subsampling = Math.max(1, longestSide / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale so the longest side is at most maxDimension, flattening any alpha onto white.
+     */
+    private BufferedImage resize(BufferedImage source) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Rotate/flip according to the EXIF orientation tag (1-8).
+     */
+    private BufferedImage applyOrientation(BufferedImage source, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return source;
+        }
+
+        int w = source.getWidth();
+        int h = source.getHeight();
+        boolean swapsAxes = orientation >= 5;
+        int targetWidth = swapsAxes ? h : w;
+        int targetHeight = swapsAxes ? w : h;
+
+        int[] src = source.getRGB(0, 0, w, h, null, 0, w);
+        int[] dst = new int[src.length];
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int tx;
+                int ty;
+                switch (orientation) {
+                    case 2 -> { tx = w - 1 - x; ty = y; }          // mirror horizontal
+                    case 3 -> { tx = w - 1 - x; ty = h - 1 - y; }  // rotate 180
+                    case 4 -> { tx = x; ty = h - 1 - y; }          // mirror vertical
+                    case 5 -> { tx = y; ty = x; }                  // transpose
+                    case 6 -> { tx = h - 1 - y; ty = x; }          // rotate 90 CW
+                    case 7 -> { tx = h - 1 - y; ty = w - 1 - x; }  // transverse
+                    default -> { tx = y; ty = w - 1 - x; }         // rotate 270 CW
+                }
+                dst[ty * targetWidth + tx] = src[y * w + x];
+            }
+        }
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        target.setRGB(0, 0, targetWidth, targetHeight, dst, 0, targetWidth);
+        return target;
+    }
+
+    /**
+     * dHash: average luminance over a 9x8 grid, one bit per horizontally adjacent pair
+     * (set when brightness increases). Robust to re-encoding, rescaling and small exposure
+     * changes, so retakes of the same scene land within a few bits of each other.
+     */
+    private long differenceHash(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, w, h, null, 0, w);
+
+        double[] luminance = new double[HASH_GRID_WIDTH * HASH_GRID_HEIGHT];
+        int[] counts = new int[luminance.length];
+        for (int y = 0; y < h; y++) {
+            int cellRow = y * HASH_GRID_HEIGHT / h;
+            for (int x = 0; x < w; x++) {
+                int cell = cellRow * HASH_GRID_WIDTH + x * HASH_GRID_WIDTH / w;
+                int pixel = rgb[y * w + x];
+                luminance[cell] += 0.299 * ((pixel >> 16) & 0xFF) + 0.587 * ((pixel >> 8) & 0xFF) + 0.114 * (pixel & 0xFF);
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < luminance.length; i++) {
+            luminance[i] = counts[i] == 0 ? 0 : luminance[i] / counts[i];
+        }
+
+        long hash = 0;
+        int bit = 0;
+        for (int row = 0; row < HASH_GRID_HEIGHT; row++) {
+            for (int col = 0; col < HASH_GRID_WIDTH - 1; col++) {
+                if (luminance[row * HASH_GRID_WIDTH + col] < luminance[row * HASH_GRID_WIDTH + col + 1]) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream imageOutput = new MemoryCacheImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Read the orientation tag from the EXIF (APP1) segment of a JPEG.
+     * @return Orientation 1-8, or 1 if absent
+     */
+    private int readExifOrientation(byte[] jpeg) {
+        int pos = 2;
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+            int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                break; // start of scan / end of image: no more metadata
+            }
+            int length = readUnsignedShort(jpeg, pos + 2, false);
+            if (marker == 0xE1 && length >= 8 && pos + 10 <= jpeg.length
+                && jpeg[pos + 4] == 'E' && jpeg[pos + 5] == 'x' && jpeg[pos + 6] == 'i' && jpeg[pos + 7] == 'f') {
+                return readTiffOrientation(jpeg, pos + 10, Math.min(jpeg.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private int readTiffOrientation(byte[] data, int tiffStart, int end) {
+        if (tiffStart + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = data[tiffStart] == 'I';
+        long ifdOffset = readUnsignedInt(data, tiffStart + 4, littleEndian);
+
+        long ifd = tiffStart + ifdOffset;
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readUnsignedShort(data, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readUnsignedShort(data, entry, littleEndian) == 0x0112) {
+                int orientation = readUnsignedShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private long readUnsignedInt(byte[] data, int offset, boolean littleEndian) {
+        long first = readUnsignedShort(data, offset, littleEndian);
+        long second = readUnsignedShort(data, offset + 2, littleEndian);
+        return littleEndian ? (second << 16) | first : (first << 16) | second;
+    }
+
+    private int readUnsignedShort(byte[] data, int offset, boolean littleEndian) {
+        if (offset + 2 > data.length) {
+            return 0;
+        }
+        int first = data[offset] & 0xFF;
+        int second = data[offset + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+}
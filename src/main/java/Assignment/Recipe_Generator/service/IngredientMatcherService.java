@@ -0,0 +1,68 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Maps free-form ingredient names (e.g. from image recognition) onto the master ingredient
+ * vocabulary locally, so the vocabulary does not have to be sent to the LLM.
+ *
+ * Lookups go through {@link MasterIngredientIndex#canonicalName}, the same normalization
+ * and typo tolerance used when matching user ingredients against recipes, so a recognized
+ * name and a typed one map to the same master ingredient.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngredientMatcherService {
+
+    private final MasterIngredientIndex masterIngredientIndex;
+
+    /**
+     * @param name Ingredient name as returned by the LLM or entered by a user
+     * @return Matching master ingredient name, if any is close enough
+     */
+    public Optional<String> match(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return masterIngredientIndex.canonicalName(name);
+    }
+
+    /**
+     * Replace recognized names by their master-list names where a match exists, merging
+     * ingredients that map to the same master name (keeping the highest confidence).
+     */
+    public IngredientRecognition mapToVocabulary(IngredientRecognition recognition) {
+        if (recognition.getIngredients() == null) {
+            return recognition;
+        }
+
+        Map<String, IngredientRecognition.RecognizedIngredient> merged = new LinkedHashMap<>();
+        for (IngredientRecognition.RecognizedIngredient ingredient : recognition.getIngredients()) {
+            if (ingredient.getName() == null || ingredient.getName().isBlank()) {
+                continue;
+            }
+            String name = match(ingredient.getName()).orElse(ingredient.getName().trim());
+            IngredientRecognition.RecognizedIngredient existing = merged.get(name.toLowerCase());
+            if (existing == null || confidence(ingredient) > confidence(existing)) {
+                merged.put(name.toLowerCase(), IngredientRecognition.RecognizedIngredient.builder()
+                    .name(name)
+                    .confidence(ingredient.getConfidence())
+                    .build());
+            }
+        }
+
+        return IngredientRecognition.builder()
+            .ingredients(new ArrayList<>(merged.values()))
+            .build();
+    }
+
+    private static double confidence(IngredientRecognition.RecognizedIngredient ingredient) {
+        return ingredient.getConfidence() != null ? ingredient.getConfidence() : 0.0;
+    }
+}
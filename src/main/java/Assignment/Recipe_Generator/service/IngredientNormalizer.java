@@ -0,0 +1,240 @@
+package Assignment.Recipe_Generator.service;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form for ingredient names, used both when recipes are indexed and when user
+ * input is matched against them, so "Tomatoes", "fresh tomato" and "tomato" compare equal
+ * and "scallions" matches "green onion".
+ *
+ * Steps: lowercase, fold accents ("jalapeño" -> "jalapeno", like Lucene's ASCIIFoldingFilter),
+ * strip punctuation, quantities and descriptive words (fresh, chopped, ...), singularize each
+ * word (with exceptions for words that only look plural), then map synonyms to a preferred
+ * name. Digits inside words ("7up", "v8") are kept. Word order is preserved.
+ */
+@Component
+public class IngredientNormalizer {
+
+    // Cache bound; ingredient names are a small, slowly growing set
+    private static final int MAX_CACHED = 50_000;
+
+    private static final Set<String> DESCRIPTORS = Set.of(
+        "fresh", "raw", "whole", "organic", "ripe", "chopped", "sliced", "diced", "minced",
+        "large", "small", "medium", "frozen", "dried", "canned", "of", "a", "some", "piece", "pieces"
+    );
+
+    // Words ending in "s" that are not plurals
+    private static final Set<String> SINGULAR_EXCEPTIONS = Set.of(
+        "hummus", "couscous", "asparagus", "citrus", "molasses", "swiss", "brussels", "grits",
+        "bass", "watercress", "anise", "series", "species", "haggis", "tapas"
+    );
+
+    private static final Map<String, String> IRREGULAR_PLURALS = Map.of(
+        "leaves", "leaf",
+        "loaves", "loaf",
+        "halves", "half",
+        "cookies", "cookie",
+        "brownies", "brownie",
+        "pies", "pie",
+        "geese", "goose",
+        "mice", "mouse",
+        "chillies", "chilli",
+        "chilies", "chili"
+    );
+
+    // Alternative name -> preferred name, both in normalized form
+    private static final Map<String, String> SYNONYMS = Map.ofEntries(
+        Map.entry("scallion", "green onion"),
+        Map.entry("spring onion", "green onion"),
+        Map.entry("coriander", "cilantro"),
+        Map.entry("coriander leaf", "cilantro"),
+        Map.entry("courgette", "zucchini"),
+        Map.entry("aubergine", "eggplant"),
+        Map.entry("capsicum", "bell pepper"),
+        Map.entry("garbanzo", "chickpea"),
+        Map.entry("garbanzo bean", "chickpea"),
+        Map.entry("prawn", "shrimp"),
+        Map.entry("rocket", "arugula"),
+        Map.entry("beef mince", "ground beef"),
+        Map.entry("sweet corn", "corn"),
+        Map.entry("maize", "corn"),
+        Map.entry("parmesan cheese", "parmesan"),
+        Map.entry("heavy cream", "cream"),
+        Map.entry("icing sugar", "powdered sugar"),
+        Map.entry("confectioner sugar", "powdered sugar"),
+        Map.entry("cornflour", "cornstarch"),
+        Map.entry("bicarbonate soda", "baking soda"),
+        Map.entry("chilli", "chili"),
+        Map.entry("chile", "chili"),
+        Map.entry("chilli pepper", "chili pepper"),
+        Map.entry("chilli powder", "chili powder")
+    );
+
+    // Letters that do not decompose under NFD, folded as ASCIIFoldingFilter does
+    private static final Map<Character, String> LIGATURES = Map.of(
+        'ß', "ss",
+        'æ', "ae",
+        'œ', "oe",
+        'ø', "o",
+        'ł', "l",
+        'đ', "d"
+    );
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @return Canonical name, or an empty string if nothing is left after normalization
+     */
+    public String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String cached = cache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalized = computeNormalized(name);
+        if (cache.size() < MAX_CACHED) {
+            cache.put(name, normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Normalize text typed into an autocomplete box. Completed words are normalized like
+     * {@link #normalize}; a trailing partial word (no whitespace after it) is kept even if it
+     * looks like a descriptor or quantity ("a" may become "apple"), but is still folded and
+     * singularized, which only shortens it to a prefix of the name being typed in the usual case.
+     * @return Query in the same form as the canonical names, or an empty string
+     */
+    public String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        String folded = fold(query.toLowerCase()).replaceAll("[^a-z0-9\\s]", " ");
+        boolean partial = !folded.isEmpty() && !Character.isWhitespace(folded.charAt(folded.length() - 1));
+        String[] words = folded.trim().split("\\s+");
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            boolean last = partial && i == words.length - 1;
+            if (!word.isEmpty() && (last || (!DESCRIPTORS.contains(word) && !isNumber(word)))) {
+                tokens.add(singularize(word));
+            }
+        }
+        return applySynonyms(tokens);
+    }
+
+    private String computeNormalized(String name) {
+        String[] words = fold(name.toLowerCase()).replaceAll("[^a-z0-9 ]", " ").trim().split("\\s+");
+
+        List<String> tokens = new ArrayList<>();
+        for (String word : words) {
+            // Bare numbers are quantities ("2 eggs")
+            if (!word.isEmpty() && !DESCRIPTORS.contains(word) && !isNumber(word)) {
+                tokens.add(singularize(word));
+            }
+        }
+        return applySynonyms(tokens);
+    }
+
+    private static String applySynonyms(List<String> tokens) {
+        String phrase = String.join(" ", tokens);
+
+        String synonym = SYNONYMS.get(phrase);
+        if (synonym != null) {
+            return synonym;
+        }
+
+        // Single-word synonyms inside longer names ("chilli powder" -> "chili powder")
+        boolean replaced = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            String tokenSynonym = SYNONYMS.get(tokens.get(i));
+            if (tokenSynonym != null && !tokenSynonym.contains(" ")) {
+                tokens.set(i, tokenSynonym);
+                replaced = true;
+            }
+        }
+        if (replaced) {
+            phrase = String.join(" ", tokens);
+            return SYNONYMS.getOrDefault(phrase, phrase);
+        }
+        return phrase;
+    }
+
+    // Accents and ligatures to plain ASCII letters
+    static String fold(String text) {
+        String decomposed = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            String replacement = LIGATURES.get(c);
+            if (replacement != null) {
+                folded.append(replacement);
+            } else {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String singularize(String word) {
+        if (word.length() <= 3 || SINGULAR_EXCEPTIONS.contains(word)) {
+            return word;
+        }
+        String irregular = IRREGULAR_PLURALS.get(word);
+        if (irregular != null) {
+            return irregular;
+        }
+        if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is")) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    /**
+     * @return Alternative name -> preferred name, both in normalized form
+     */
+    static Map<String, String> synonyms() {
+        return SYNONYMS;
+    }
+
+    /**
+     * Maximum edit distance accepted as a typo for a name of this length: none for short
+     * names (too many near neighbours), one for medium, two for long names.
+     */
+    public static int typoTolerance(String normalized) {
+        int length = normalized.length();
+        if (length <= 4) {
+            return 0;
+        }
+        return length <= 8 ? 1 : 2;
+    }
+}
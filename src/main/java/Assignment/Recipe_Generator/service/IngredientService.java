@@ -1,7 +1,6 @@
 package Assignment.Recipe_Generator.service;
 
 import Assignment.Recipe_Generator.model.Recipe;
-import Assignment.Recipe_Generator.repository.RecipeRepository;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,25 +13,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class IngredientService {
 
-    private final RecipeRepository recipeRepository;
+    private final MasterIngredientIndex masterIngredientIndex;
+    private final IngredientNormalizer ingredientNormalizer;
 
     /**
-     * Get the complete list of master ingredients dynamically from all stored recipes in the database
+     * Get the complete list of master ingredients from all stored recipes in the database,
+     * as stored (lowercased and trimmed), not in canonical matching form.
+     * Served from the in-memory {@link MasterIngredientIndex}; the returned set is a read-only live view.
      */
     public Set<String> getMasterIngredientsList() {
         try {
-            List<Recipe> allRecipes = recipeRepository.findAll();
-            
-            Set<String> masterIngredients = allRecipes.stream()
-                .flatMap(recipe -> recipe.getIngredients().stream())
-                .map(ingredient -> ingredient.getName().toLowerCase().trim())
-                .filter(name -> !name.isEmpty())
-                .collect(Collectors.toSet());
-            
-            log.debug("Extracted {} unique ingredients from {} recipes in database", 
-                     masterIngredients.size(), allRecipes.size());
-            
-            return masterIngredients;
+            return masterIngredientIndex.getDisplayNames();
             
         } catch (Exception e) {
             log.error("Error extracting master ingredients from database", e);
@@ -41,6 +32,57 @@ public class IngredientService {
         }
     }
 
+    /**
+     * Suggest master ingredients for autocomplete
+     * @param query Text typed so far
+     * @param limit Maximum number of suggestions
+     * @return Ingredient names, prefix matches first, then by how many recipes use them
+     */
+    public List<String> suggestIngredients(String query, int limit) {
+        return masterIngredientIndex.suggest(query, limit).stream()
+            .map(PrefixSuggestIndex.Suggestion::text)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return Catalog version the master ingredients list reflects
+     */
+    public long getMasterIngredientsVersion() {
+        return masterIngredientIndex.getVersion();
+    }
+
+    /**
+     * Normalize user-provided ingredients for matching: master-list name where one matches
+     * (tolerating plurals, synonyms and typos), otherwise the normalized form
+     * @param userIngredients Ingredient names as entered
+     * @return Set of comparable ingredient keys
+     */
+    public Set<String> normalizeUserIngredients(Collection<String> userIngredients) {
+        if (userIngredients == null) {
+            return new HashSet<>();
+        }
+        return userIngredients.stream()
+            .filter(Objects::nonNull)
+            .map(ingredient -> masterIngredientIndex.canonicalName(ingredient)
+                .orElseGet(() -> ingredientNormalizer.normalize(ingredient)))
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return Comparable ingredient keys of a recipe, in the same form as the master list
+     */
+    public Set<String> recipeIngredientKeys(Recipe recipe) {
+        if (recipe.getIngredients() == null) {
+            return new HashSet<>();
+        }
+        return recipe.getIngredients().stream()
+            .filter(ingredient -> ingredient.getName() != null)
+            .map(ingredient -> ingredientNormalizer.normalize(ingredient.getName()))
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
     /**
      * Calculate the percentage match between user ingredients and a recipe's ingredients
      * @param userIngredients List of ingredients provided by user
@@ -53,14 +95,10 @@ public class IngredientService {
             return 0.0;
         }
 
-        // Convert to lowercase for case-insensitive comparison
-        Set<String> userIngredientsSet = userIngredients.stream()
-            .map(String::toLowerCase)
-            .collect(Collectors.toSet());
+        // Normalize both sides (case, plurals, synonyms, typos) for comparison
+        Set<String> userIngredientsSet = normalizeUserIngredients(userIngredients);
 
-        Set<String> recipeIngredientsSet = recipe.getIngredients().stream()
-            .map(ingredient -> ingredient.getName().toLowerCase())
-            .collect(Collectors.toSet());
+        Set<String> recipeIngredientsSet = recipeIngredientKeys(recipe);
 
         // Calculate intersection (common ingredients)
         Set<String> intersection = new HashSet<>(userIngredientsSet);
@@ -100,13 +138,13 @@ public class IngredientService {
     }
 
     /**
-     * Check if an ingredient exists in the master ingredients list
+     * Check if an ingredient exists in the master ingredients list, tolerating plurals,
+     * synonyms and typos
      * @param ingredient Ingredient name to check
      * @return True if ingredient exists in master list
      */
     public boolean isInMasterList(String ingredient) {
-        Set<String> masterIngredients = getMasterIngredientsList();
-        return masterIngredients.contains(ingredient.toLowerCase().trim());
+        return masterIngredientIndex.canonicalName(ingredient).isPresent();
     }
 
     /**
@@ -115,11 +153,7 @@ public class IngredientService {
      * @return Standardized name from master list, or original name if not found
      */
     public String getStandardizedIngredientName(String ingredient) {
-        Set<String> masterIngredients = getMasterIngredientsList();
-        String lowerIngredient = ingredient.toLowerCase().trim();
-        return masterIngredients.stream()
-            .filter(masterIngredient -> masterIngredient.equals(lowerIngredient))
-            .findFirst()
+        return masterIngredientIndex.canonicalName(ingredient)
             .orElse(ingredient); // Return original if not found
     }
 
@@ -158,25 +192,11 @@ public class IngredientService {
             return new ArrayList<>();
         }
 
-        // Convert user ingredients to lowercase for comparison
-        Set<String> userIngredientsSet = userIngredients.stream()
-            .map(String::toLowerCase)
-            .collect(Collectors.toSet());
+        // Normalize user ingredients for comparison
+        Set<String> userIngredientsSet = normalizeUserIngredients(userIngredients);
 
         return recipes.stream()
-            .filter(recipe -> {
-                if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty()) {
-                    return false;
-                }
-
-                // Get recipe ingredients
-                Set<String> recipeIngredientsSet = recipe.getIngredients().stream()
-                    .map(ingredient -> ingredient.getName().toLowerCase())
-                    .collect(Collectors.toSet());
-
-                // Check if user has ALL ingredients needed for this recipe
-                return userIngredientsSet.containsAll(recipeIngredientsSet);
-            })
+            .filter(recipe -> hasAllIngredients(userIngredientsSet, recipe))
             .collect(Collectors.toList());
     }
 
@@ -199,6 +219,9 @@ public class IngredientService {
             return result;
         }
 
+        // Normalize user ingredients once for the containment checks
+        Set<String> userIngredientsSet = normalizeUserIngredients(userIngredients);
+
         for (Recipe recipe : recipes) {
             double matchPercentage = calculateIngredientMatchPercentage(userIngredients, recipe);
             
@@ -206,7 +229,7 @@ public class IngredientService {
                 result.get("highMatch").add(recipe);
             } else {
                 // Check if user has all required ingredients for this recipe
-                if (userHasAllIngredientsForRecipe(recipe, userIngredients)) {
+                if (hasAllIngredients(userIngredientsSet, recipe)) {
                     result.get("userHasAll").add(recipe);
                 } else {
                     result.get("other").add(recipe);
@@ -227,28 +250,26 @@ public class IngredientService {
     }
 
     /**
-     * Check if user has all required ingredients for a specific recipe
+     * Check if user has all required ingredients for a specific recipe, stopping at the first
+     * missing one (no per-recipe sets; normalized names are memoized)
+     * @param userIngredientsSet User's ingredients from {@link #normalizeUserIngredients}
      * @param recipe Recipe to check
-     * @param userIngredients User's ingredients
      * @return true if user has all ingredients needed for this recipe
      */
-    private boolean userHasAllIngredientsForRecipe(Recipe recipe, List<String> userIngredients) {
-        if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty() || 
-            userIngredients == null || userIngredients.isEmpty()) {
+    private boolean hasAllIngredients(Set<String> userIngredientsSet, Recipe recipe) {
+        if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty() || userIngredientsSet.isEmpty()) {
             return false;
         }
 
-        // Convert user ingredients to lowercase for comparison
-        Set<String> userIngredientsSet = userIngredients.stream()
-            .map(String::toLowerCase)
-            .collect(Collectors.toSet());
-
-        // Get recipe ingredients
-        Set<String> recipeIngredientsSet = recipe.getIngredients().stream()
-            .map(ingredient -> ingredient.getName().toLowerCase())
-            .collect(Collectors.toSet());
-
-        // Check if user has ALL ingredients needed for this recipe
-        return userIngredientsSet.containsAll(recipeIngredientsSet);
+        for (Recipe.Ingredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getName() == null) {
+                continue;
+            }
+            String key = ingredientNormalizer.normalize(ingredient.getName());
+            if (!key.isEmpty() && !userIngredientsSet.contains(key)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
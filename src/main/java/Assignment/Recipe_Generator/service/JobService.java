@@ -0,0 +1,336 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.JobStatus;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous recognition and generation jobs. Jobs run on a bounded worker pool; when its
+ * queue is full, or queued images already hold max-queued-image-bytes, new jobs are rejected
+ * rather than queued without limit. Finished jobs are kept for result-ttl-minutes so clients
+ * can poll or reconnect, then dropped.
+ *
+ * Submissions may carry an idempotency key: a retried submission with the same key (per user)
+ * returns the existing job instead of starting another LLM call.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobService {
+
+    private static final String ANONYMOUS_USER = "anonymous";
+
+    private final RecognitionCacheService recognitionCacheService;
+    private final RecipeService recipeService;
+
+    @Value("${jobs.workers:4}")
+    private int workers;
+
+    @Value("${jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${jobs.result-ttl-minutes:10}")
+    private long resultTtlMinutes;
+
+    // Pass-through uploads are up to 10 MB each; bounds the heap held by waiting recognition jobs
+    @Value("${jobs.max-queued-image-bytes:67108864}")
+    private long maxQueuedImageBytes;
+
+    // Bytes of images held by recognition jobs that have not finished yet
+    private final AtomicLong queuedImageBytes = new AtomicLong();
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, String> idempotencyKeys = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService cleaner;
+
+    /**
+     * Thrown when the job queue is full.
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("Job queue is full");
+        }
+    }
+
+    /**
+     * @param image Preprocessed image; pass-through uploads are copied since the multipart
+     *              part is only readable while the submitting request is open
+     * @throws QueueFullException If the queue is full or queued images hold too many bytes
+     */
+    public JobStatus submitRecognition(PreparedImage image, String userId, String idempotencyKey) throws IOException {
+        long imageBytes = image.getSize();
+        if (!reserveImageBytes(imageBytes)) {
+            log.warn("Rejecting recognition job: queued images hold {} bytes", queuedImageBytes.get());
+            throw new QueueFullException();
+        }
+        PreparedImage detached;
+        try {
+            detached = detach(image);
+        } catch (IOException | RuntimeException e) {
+            queuedImageBytes.addAndGet(-imageBytes);
+            throw e;
+        }
+        return submit(JobStatus.Type.RECOGNITION, userId, idempotencyKey, imageBytes,
+            () -> recognitionCacheService.recognizeIngredients(detached, userId));
+    }
+
+    public JobStatus submitGeneration(RecipeRequest request, String userId, String idempotencyKey) {
+        return submit(JobStatus.Type.GENERATION, userId, idempotencyKey, 0,
+            () -> recipeService.generateRecipes(request, userId));
+    }
+
+    /**
+     * @return The job, if it exists and belongs to the user (jobs submitted anonymously are
+     *         visible to anyone holding the id)
+     */
+    public Optional<JobStatus> getJob(String id, String userId) {
+        return findJob(id, userId).map(Job::snapshot);
+    }
+
+    /**
+     * Register a listener called once with the final status when the job finishes (immediately
+     * if it already has).
+     * @return False if there is no such job for the user
+     */
+    public boolean onFinished(String id, String userId, Consumer<JobStatus> listener) {
+        Optional<Job> job = findJob(id, userId);
+        job.ifPresent(j -> j.addListener(listener));
+        return job.isPresent();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "jobs", jobs.size(),
+            "queued", executor.getQueue().size(),
+            "running", executor.getActiveCount(),
+            "queueCapacity", queueCapacity,
+            "queuedImageBytes", queuedImageBytes.get(),
+            "maxQueuedImageBytes", maxQueuedImageBytes,
+            "workers", workers
+        );
+    }
+
+    // imageBytes were reserved by the caller and are released once the job no longer holds the image
+    private JobStatus submit(JobStatus.Type type, String userId, String idempotencyKey, long imageBytes,
+                             Callable<Object> work) {
+        Job job = new Job(UUID.randomUUID().toString(), type, userId);
+
+        String scopedKey = idempotencyKey == null || idempotencyKey.isBlank() ? null
+            : (userId != null ? userId : ANONYMOUS_USER) + ":" + type + ":" + idempotencyKey;
+
+        // The job is visible before its key is published, so a concurrent retry that finds
+        // the key also finds the job (and doesn't mistake it for one that outlived its key)
+        jobs.put(job.id, job);
+        if (scopedKey != null) {
+            AtomicReference<Job> existing = new AtomicReference<>();
+            idempotencyKeys.compute(scopedKey, (key, existingId) -> {
+                Job owner = existingId != null ? jobs.get(existingId) : null;
+                if (owner != null) {
+                    existing.set(owner);
+                    return existingId;
+                }
+                // No key yet, or it outlived its job; take it over
+                return job.id;
+            });
+            if (existing.get() != null) {
+                jobs.remove(job.id);
+                queuedImageBytes.addAndGet(-imageBytes);
+                log.info("Returning existing job {} for idempotency key", existing.get().id);
+                return existing.get().snapshot();
+            }
+            job.idempotencyKey = scopedKey;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    job.run(work);
+                } finally {
+                    queuedImageBytes.addAndGet(-imageBytes);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            remove(job);
+            queuedImageBytes.addAndGet(-imageBytes);
+            throw new QueueFullException();
+        }
+
+        log.info("Queued {} job {} (queue depth {})", type, job.id, executor.getQueue().size());
+        return job.snapshot();
+    }
+
+    private Optional<Job> findJob(String id, String userId) {
+        Job job = jobs.get(id);
+        if (job == null || (job.userId != null && !job.userId.equals(userId))) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    private boolean reserveImageBytes(long bytes) {
+        while (true) {
+            long current = queuedImageBytes.get();
+            if (current + bytes > maxQueuedImageBytes) {
+                return false;
+            }
+            if (queuedImageBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private PreparedImage detach(PreparedImage image) throws IOException {
+        if (image.isReencoded()) {
+            // Re-encoded images are already held in memory
+            return image;
+        }
+        byte[] bytes;
+        try (InputStream input = image.getSource().open()) {
+            bytes = input.readAllBytes();
+        }
+        return image.toBuilder()
+            .source(() -> new ByteArrayInputStream(bytes))
+            .build();
+    }
+
+    private void remove(Job job) {
+        jobs.remove(job.id);
+        if (job.idempotencyKey != null) {
+            idempotencyKeys.remove(job.idempotencyKey, job.id);
+        }
+    }
+
+    private void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(resultTtlMinutes);
+        for (Job job : jobs.values()) {
+            if (job.isExpired(cutoff)) {
+                remove(job);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "job-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::evictExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        cleaner.shutdownNow();
+    }
+
+    private static class Job {
+        private final String id;
+        private final JobStatus.Type type;
+        private final String userId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<Consumer<JobStatus>> listeners = new ArrayList<>();
+        private String idempotencyKey;
+
+        private JobStatus.State state = JobStatus.State.QUEUED;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private Object result;
+        private String error;
+
+        Job(String id, JobStatus.Type type, String userId) {
+            this.id = id;
+            this.type = type;
+            this.userId = userId;
+        }
+
+        void run(Callable<Object> work) {
+            synchronized (this) {
+                state = JobStatus.State.RUNNING;
+                startedAt = LocalDateTime.now();
+            }
+
+            Object value = null;
+            String failure = null;
+            try {
+                value = work.call();
+            } catch (Exception e) {
+                log.error("Job {} failed", id, e);
+                failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+
+            List<Consumer<JobStatus>> toNotify;
+            synchronized (this) {
+                result = value;
+                error = failure;
+                state = failure == null ? JobStatus.State.SUCCEEDED : JobStatus.State.FAILED;
+                completedAt = LocalDateTime.now();
+                toNotify = new ArrayList<>(listeners);
+                listeners.clear();
+            }
+
+            JobStatus finished = snapshot();
+            toNotify.forEach(listener -> notify(listener, finished));
+        }
+
+        void addListener(Consumer<JobStatus> listener) {
+            synchronized (this) {
+                if (!state.isFinished()) {
+                    listeners.add(listener);
+                    return;
+                }
+            }
+            notify(listener, snapshot());
+        }
+
+        synchronized boolean isExpired(LocalDateTime cutoff) {
+            return state.isFinished() && completedAt.isBefore(cutoff);
+        }
+
+        synchronized JobStatus snapshot() {
+            return JobStatus.builder()
+                .id(id)
+                .type(type)
+                .state(state)
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .completedAt(completedAt)
+                .result(result)
+                .error(error)
+                .build();
+        }
+
+        private void notify(Consumer<JobStatus> listener, JobStatus status) {
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.warn("Job {} listener failed: {}", id, e.getMessage());
+            }
+        }
+    }
+}
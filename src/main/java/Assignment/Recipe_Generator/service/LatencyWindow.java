@@ -0,0 +1,48 @@
+package Assignment.Recipe_Generator.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of the most recent latency samples (in milliseconds).
+ * Used to derive percentiles over recent traffic without keeping unbounded history.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @param percentile Percentile between 0.0 and 1.0 (e.g. 0.95)
+     * @return Latency at the given percentile, or -1 if no samples were recorded yet
+     */
+    public long percentile(double percentile) {
+        long[] copy;
+        synchronized (this) {
+            copy = Arrays.copyOf(samples, count);
+        }
+        if (copy.length == 0) {
+            return -1;
+        }
+
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * copy.length) - 1;
+        return copy[Math.max(0, Math.min(copy.length - 1, index))];
+    }
+}
@@ -0,0 +1,172 @@
+package Assignment.Recipe_Generator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Request hedging for LLM calls. When a call has not produced a valid result after
+ * a configurable percentile of its recent latency, a duplicate request is sent and
+ * whichever answers first with a valid parse wins; the other one is cancelled.
+ * Hedges are capped by a global budget relative to the number of primary calls.
+ */
+@Service
+@Slf4j
+public class LlmHedgingService {
+
+    @Value("${openrouter.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${openrouter.hedging.operations:recipe_generation_single}")
+    private Set<String> operations;
+
+    @Value("${openrouter.hedging.percentile:0.95}")
+    private double percentile;
+
+    @Value("${openrouter.hedging.min-samples:20}")
+    private int minSamples;
+
+    @Value("${openrouter.hedging.min-delay-ms:500}")
+    private long minDelayMs;
+
+    @Value("${openrouter.hedging.window-size:200}")
+    private int windowSize;
+
+    @Value("${openrouter.hedging.budget-ratio:0.05}")
+    private double budgetRatio;
+
+    @Value("${openrouter.hedging.alternate-model:}")
+    private String alternateModel;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private long primaryCalls;
+    private long hedgesSent;
+    private long hedgeWins;
+
+    /**
+     * Run the primary call, hedging it with a duplicate if the operation is eligible.
+     * @param operation Operation name used for latency tracking (e.g. "image_recognition")
+     * @param primary Primary attempt; completes empty if the response could not be parsed
+     * @param hedge Supplier for the duplicate attempt, only invoked if a hedge is sent
+     * @return Mono with the first valid result, empty if no attempt produced one
+     */
+    public <T> Mono<T> execute(String operation, Mono<T> primary, Supplier<Mono<T>> hedge) {
+        Mono<T> timedPrimary = timed(operation, primary);
+
+        if (!enabled || !operations.contains(operation)) {
+            return timedPrimary;
+        }
+
+        Optional<Duration> delay = hedgeDelay(operation);
+        if (delay.isEmpty()) {
+            return timedPrimary;
+        }
+
+        synchronized (this) {
+            primaryCalls++;
+        }
+
+        // Errors are captured rather than propagated so that a failing attempt does not
+        // cancel the other one; the error is only surfaced if neither produces a value.
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+
+        // Emitted when the primary ends; a primary that fails (or parses nothing) before the
+        // delay has no slow tail to hedge, so the pending hedge is dropped. A hedge already
+        // sent keeps running.
+        Sinks.Empty<Void> primaryDone = Sinks.empty();
+
+        Mono<T> primaryAttempt = timedPrimary
+            .onErrorResume(e -> {
+                lastError.set(e);
+                return Mono.empty();
+            })
+            .doOnTerminate(primaryDone::tryEmitEmpty);
+
+        Mono<T> hedgeAttempt = Mono.delay(delay.get())
+            .takeUntilOther(primaryDone.asMono().then(Mono.just(true)))
+            .filter(tick -> tryAcquireHedge())
+            .flatMap(tick -> {
+                log.info("Hedging {} after {} ms", operation, delay.get().toMillis());
+                return timed(operation, hedge.get());
+            })
+            .doOnNext(result -> recordHedgeWin())
+            .onErrorResume(e -> {
+                lastError.compareAndSet(null, e);
+                return Mono.empty();
+            });
+
+        return Flux.merge(primaryAttempt, hedgeAttempt)
+            .next()
+            .switchIfEmpty(Mono.defer(() -> lastError.get() != null ? Mono.error(lastError.get()) : Mono.empty()));
+    }
+
+    /**
+     * Model to send the duplicate request to, falling back to the primary model.
+     */
+    public String hedgeModel(String primaryModel) {
+        return alternateModel != null && !alternateModel.isBlank() ? alternateModel : primaryModel;
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (this) {
+            return Map.of(
+                "enabled", enabled,
+                "primaryCalls", primaryCalls,
+                "hedgesSent", hedgesSent,
+                "hedgeWins", hedgeWins,
+                "budgetRatio", budgetRatio
+            );
+        }
+    }
+
+    private Optional<Duration> hedgeDelay(String operation) {
+        LatencyWindow window = latencies.get(operation);
+        if (window == null || window.size() < minSamples) {
+            return Optional.empty();
+        }
+
+        long delayMs = Math.max(minDelayMs, window.percentile(percentile));
+        return Optional.of(Duration.ofMillis(delayMs));
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgesSent + 1 > budgetRatio * primaryCalls) {
+            return false;
+        }
+        hedgesSent++;
+        return true;
+    }
+
+    private synchronized void recordHedgeWin() {
+        hedgeWins++;
+    }
+
+    /**
+     * Record the attempt's latency when it produces a value, completes empty or fails, so
+     * slow failures and timeouts count towards the hedge delay. Cancelled attempts are not
+     * recorded.
+     */
+    private <T> Mono<T> timed(String operation, Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Runnable record = () -> latencies
+                .computeIfAbsent(operation, key -> new LatencyWindow(windowSize))
+                .record((System.nanoTime() - start) / 1_000_000);
+            return attempt
+                .doOnSuccess(result -> record.run())
+                .doOnError(e -> record.run());
+        });
+    }
+}
@@ -0,0 +1,223 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.OpenRouterResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token usage and latency accounting for LLM calls.
+ *
+ * Per-operation/per-model figures are published as Micrometer meters (available under
+ * /actuator/metrics, e.g. llm.request.latency) and also aggregated in memory together with
+ * per-user totals for the admin API. Users are deliberately not used as meter tags to keep
+ * metric cardinality bounded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LlmMetricsService {
+
+    private static final String ANONYMOUS_USER = "anonymous";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CallAggregate> byOperationAndModel = new ConcurrentHashMap<>();
+    private final Map<String, UserAggregate> byUser = new ConcurrentHashMap<>();
+
+    public enum CallOutcome {
+        PARSED, PARSE_FAILURE, EMPTY_CHOICES, ERROR
+    }
+
+    /**
+     * Record one completed LLM call attempt.
+     * @param operation Operation name (e.g. "image_recognition")
+     * @param model Model the request was sent to
+     * @param userId Requesting user, or null for anonymous requests
+     * @param latencyMs Time until the full response was received and parsed
+     * @param ttfbMs Time until response headers were received, or -1 if unknown
+     * @param usage Token usage reported by the provider, may be null
+     * @param outcome Outcome of the call
+     */
+    public void recordCall(String operation, String model, String userId, long latencyMs, long ttfbMs,
+                           OpenRouterResponse.Usage usage, CallOutcome outcome) {
+        recordCall(operation, model, Collections.singletonList(userId), latencyMs, ttfbMs, usage, outcome);
+    }
+
+    /**
+     * Record one completed LLM call attempt made on behalf of several users (a batched call).
+     * Each user is charged the call and its latency, and an equal share of its tokens; the
+     * remainder of an uneven split goes to the first users, so the shares add up to the call's
+     * totals.
+     * @param userIds Participating users, null entries for anonymous requests
+     */
+    public void recordCall(String operation, String model, List<String> userIds, long latencyMs, long ttfbMs,
+                           OpenRouterResponse.Usage usage, CallOutcome outcome) {
+        String outcomeTag = outcome.name().toLowerCase();
+
+        Timer.builder("llm.request.latency")
+            .description("LLM request latency")
+            .tags("operation", operation, "model", model, "outcome", outcomeTag)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(Duration.ofMillis(latencyMs));
+
+        if (ttfbMs >= 0) {
+            Timer.builder("llm.request.ttfb")
+                .description("LLM time to first byte")
+                .tags("operation", operation, "model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(ttfbMs));
+        }
+
+        if (outcome == CallOutcome.PARSE_FAILURE || outcome == CallOutcome.EMPTY_CHOICES) {
+            Counter.builder(outcome == CallOutcome.PARSE_FAILURE ? "llm.parse.failures" : "llm.empty.choices")
+                .tags("operation", operation, "model", model)
+                .register(meterRegistry)
+                .increment();
+        }
+
+        int promptTokens = usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+        int completionTokens = usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+        int totalTokens = usage != null && usage.getTotalTokens() != null ? usage.getTotalTokens() : promptTokens + completionTokens;
+
+        if (usage != null) {
+            recordTokens(operation, model, "prompt", promptTokens);
+            recordTokens(operation, model, "completion", completionTokens);
+            recordTokens(operation, model, "total", totalTokens);
+        }
+
+        byOperationAndModel
+            .computeIfAbsent(operation + "|" + model, key -> new CallAggregate())
+            .record(latencyMs, ttfbMs, promptTokens, completionTokens, totalTokens, outcome);
+
+        List<String> users = userIds.isEmpty() ? Collections.singletonList(null) : userIds;
+        int n = users.size();
+        for (int i = 0; i < n; i++) {
+            String userId = users.get(i);
+            byUser
+                .computeIfAbsent(userId != null ? userId : ANONYMOUS_USER, key -> new UserAggregate())
+                .record(latencyMs, share(promptTokens, i, n), share(completionTokens, i, n), share(totalTokens, i, n));
+        }
+    }
+
+    // Share of the i-th of n users in an even split of tokens
+    private static int share(int tokens, int i, int n) {
+        return tokens / n + (i < tokens % n ? 1 : 0);
+    }
+
+    /**
+     * @return Aggregates keyed by operation, then model
+     */
+    public Map<String, Object> getOperationStats() {
+        Map<String, Object> result = new TreeMap<>();
+        byOperationAndModel.forEach((key, aggregate) -> {
+            String[] parts = key.split("\\|", 2);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> models = (Map<String, Object>) result.computeIfAbsent(parts[0], op -> new TreeMap<String, Object>());
+            models.put(parts[1], aggregate.snapshot());
+        });
+        return result;
+    }
+
+    public Map<String, Object> getUserStats() {
+        Map<String, Object> result = new TreeMap<>();
+        byUser.forEach((userId, aggregate) -> result.put(userId, aggregate.snapshot()));
+        return result;
+    }
+
+    private void recordTokens(String operation, String model, String type, int tokens) {
+        DistributionSummary.builder("llm.tokens")
+            .description("Tokens per LLM request")
+            .baseUnit("tokens")
+            .tags("operation", operation, "model", model, "type", type)
+            .register(meterRegistry)
+            .record(tokens);
+    }
+
+    private static class CallAggregate {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder parseFailures = new LongAdder();
+        private final LongAdder emptyChoices = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalTokens = new LongAdder();
+        private final LatencyWindow latency = new LatencyWindow(1000);
+        private final LatencyWindow ttfb = new LatencyWindow(1000);
+
+        void record(long latencyMs, long ttfbMs, int prompt, int completion, int total, CallOutcome outcome) {
+            calls.increment();
+            switch (outcome) {
+                case ERROR -> errors.increment();
+                case PARSE_FAILURE -> parseFailures.increment();
+                case EMPTY_CHOICES -> emptyChoices.increment();
+                default -> { }
+            }
+            promptTokens.add(prompt);
+            completionTokens.add(completion);
+            totalTokens.add(total);
+            latency.record(latencyMs);
+            if (ttfbMs >= 0) {
+                ttfb.record(ttfbMs);
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new TreeMap<>();
+            snapshot.put("calls", calls.sum());
+            snapshot.put("errors", errors.sum());
+            snapshot.put("parseFailures", parseFailures.sum());
+            snapshot.put("emptyChoices", emptyChoices.sum());
+            snapshot.put("promptTokens", promptTokens.sum());
+            snapshot.put("completionTokens", completionTokens.sum());
+            snapshot.put("totalTokens", totalTokens.sum());
+            snapshot.put("latencyP50Ms", latency.percentile(0.5));
+            snapshot.put("latencyP95Ms", latency.percentile(0.95));
+            snapshot.put("latencyP99Ms", latency.percentile(0.99));
+            snapshot.put("ttfbP50Ms", ttfb.percentile(0.5));
+            snapshot.put("ttfbP95Ms", ttfb.percentile(0.95));
+            return snapshot;
+        }
+    }
+
+    private static class UserAggregate {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalTokens = new LongAdder();
+        private final LongAdder latencyMs = new LongAdder();
+
+        void record(long latency, int prompt, int completion, int total) {
+            calls.increment();
+            promptTokens.add(prompt);
+            completionTokens.add(completion);
+            totalTokens.add(total);
+            latencyMs.add(latency);
+        }
+
+        Map<String, Object> snapshot() {
+            long callCount = calls.sum();
+            return Map.of(
+                "calls", callCount,
+                "promptTokens", promptTokens.sum(),
+                "completionTokens", completionTokens.sum(),
+                "totalTokens", totalTokens.sum(),
+                "avgLatencyMs", callCount == 0 ? 0 : latencyMs.sum() / callCount
+            );
+        }
+    }
+}
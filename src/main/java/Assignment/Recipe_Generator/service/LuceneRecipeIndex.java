@@ -0,0 +1,744 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.FacetCounts;
+import Assignment.Recipe_Generator.dto.RecipeSuggestion;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.synonym.SynonymGraphFilter;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Embedded Lucene index over the recipe catalog, an alternative to MongoDB text search for
+ * {@link RecipeService#searchRecipes}, title suggestions and search facets. Enabled with
+ * recipe.search.engine=lucene; otherwise it stays closed and is never loaded.
+ *
+ * Titles, ingredient names and cuisines are analyzed with the word-level rules of
+ * {@link IngredientNormalizer} (lowercase, accent folding, singular form); queries are also
+ * expanded with its synonyms in both directions. Text queries score title matches above
+ * ingredient and cuisine matches and add down-weighted fuzzy variants of each word, within
+ * {@link IngredientNormalizer#typoTolerance} edits. Filters have the semantics of the
+ * MongoDB filter query. Cuisine, difficulty and diet tags are also indexed as sorted-set
+ * facets.
+ *
+ * The index lives in an mmap'd directory under recipe.search.lucene.path and is built from
+ * the recipe collection on first use, then kept current from
+ * {@link RecipeCatalogChangedEvent}s; searchers are refreshed in the background so writes
+ * are visible within max-staleness-ms. A rebuild (after a RESET) writes a new index in its
+ * own subdirectory and swaps it in when committed, so searches keep using the previous one
+ * instead of seeing it emptied. The directory belongs to one application instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LuceneRecipeIndex {
+
+    private static final String ID = "id";
+    private static final String ID_SORT = "id_sort";
+    private static final String TITLE = "title";
+    private static final String TITLE_PREFIX = "title_prefix";
+    private static final String INGREDIENTS = "ingredients";
+    private static final String CUISINE = "cuisine";
+    private static final String CUISINE_NORM = "cuisine_norm";
+    private static final String DIFFICULTY = "difficulty";
+    private static final String DIET_TAGS = "diet_tags";
+    private static final String TIME = "time";
+
+    // Facet dimensions
+    private static final String CUISINE_FACET = "cuisine";
+    private static final String DIFFICULTY_FACET = "difficulty";
+    private static final String DIET_FACET = "dietTags";
+    private static final String TIME_FACET = "maxTime";
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float INGREDIENTS_BOOST = 1.5f;
+    private static final float CUISINE_BOOST = 1.0f;
+
+    // Weight of a fuzzy match relative to an exact match in the same field
+    private static final float FUZZY_WEIGHT = 0.3f;
+
+    // Words of a query that are used; the rest is ignored
+    private static final int MAX_QUERY_TERMS = 16;
+
+    // Deepest hit reachable by page/size; deeper paging goes through the cursor API
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    // Subdirectories of recipe.search.lucene.path holding one build of the index each
+    private static final String GENERATION_PREFIX = "gen-";
+
+    private static final Sort BY_ID = new Sort(new SortField(ID_SORT, SortField.Type.STRING));
+    private static final Sort BY_RELEVANCE = new Sort(SortField.FIELD_SCORE, new SortField(ID_SORT, SortField.Type.STRING));
+
+    private final RecipeRepository recipeRepository;
+
+    // mongo: MongoDB text and filter queries; lucene: this index
+    @Value("${recipe.search.engine:mongo}")
+    private String engine;
+
+    @Value("${recipe.search.lucene.path:data/recipe-index}")
+    private String indexPath;
+
+    @Value("${recipe.search.lucene.max-staleness-ms:1000}")
+    private long maxStalenessMs;
+
+    private final Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(
+        new RecipeTextAnalyzer(true, null), Map.of(TITLE_PREFIX, new RecipeTextAnalyzer(false, null)));
+    private final Analyzer prefixAnalyzer = new RecipeTextAnalyzer(false, null);
+    private final Analyzer queryAnalyzer = new RecipeTextAnalyzer(true, buildSynonyms());
+
+    private final FacetsConfig facetsConfig = buildFacetsConfig();
+
+    // Index currently searched and written; replaced as a whole by a rebuild
+    private volatile IndexGeneration current;
+
+    // Number of the last generation built, naming its subdirectory
+    private int generations;
+
+    private volatile boolean loaded;
+
+    // Facet ordinals of one reader, rebuilt when the searcher is refreshed
+    private volatile FacetState facetState;
+
+    /**
+     * @param recipeIds Matching recipe ids of the requested page, in result order
+     * @param total     Number of matching recipes
+     */
+    public record SearchHits(List<String> recipeIds, long total) {
+    }
+
+    public boolean isEnabled() {
+        return "lucene".equalsIgnoreCase(engine);
+    }
+
+    /**
+     * One page of recipes matching the text (any word, best first) and every supplied
+     * filter; without text, all recipes passing the filters ordered by id.
+     */
+    public SearchHits search(String text, Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                             Integer maxTime, Pageable pageable) {
+        ensureLoaded();
+
+        boolean hasText = text != null && !text.isBlank();
+        Query query = withFilters(hasText ? textQuery(text) : new MatchAllDocsQuery(),
+            filters(dietTags, cuisine, difficulty, maxTime), null);
+
+        int from = (int) Math.min(pageable.getOffset(), MAX_RESULT_WINDOW);
+        int to = Math.min(from + pageable.getPageSize(), MAX_RESULT_WINDOW);
+
+        IndexSearcher searcher = acquire();
+        try {
+            List<String> ids = new ArrayList<>();
+            if (to > from) {
+                TopFieldDocs top = searcher.search(query, to, hasText ? BY_RELEVANCE : BY_ID);
+                ids = storedValues(searcher, top.scoreDocs, from, ID);
+            }
+            return new SearchHits(ids, searcher.count(query));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Recipe search failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Title suggestions: every typed word must match a title word exactly or within the typo
+     * tolerance, and the last word may also be a prefix. Best matches first.
+     */
+    public List<RecipeSuggestion> suggest(String text, int limit) {
+        ensureLoaded();
+
+        List<String> words = terms(prefixAnalyzer, TITLE_PREFIX, text);
+        if (words.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < words.size(); i++) {
+            Term term = new Term(TITLE_PREFIX, words.get(i));
+            BooleanQuery.Builder word = new BooleanQuery.Builder();
+            word.add(new TermQuery(term), Occur.SHOULD);
+            if (i == words.size() - 1) {
+                word.add(new PrefixQuery(term), Occur.SHOULD);
+            }
+            int edits = IngredientNormalizer.typoTolerance(term.text());
+            if (edits > 0) {
+                word.add(new BoostQuery(new FuzzyQuery(term, edits, 1), FUZZY_WEIGHT), Occur.SHOULD);
+            }
+            query.add(word.build(), Occur.MUST);
+        }
+
+        IndexSearcher searcher = acquire();
+        try {
+            TopFieldDocs top = searcher.search(query.build(), limit, BY_RELEVANCE);
+            StoredFields storedFields = searcher.storedFields();
+            List<RecipeSuggestion> suggestions = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc hit : top.scoreDocs) {
+                Document document = storedFields.document(hit.doc, Set.of(ID, TITLE));
+                suggestions.add(new RecipeSuggestion(document.get(ID), document.get(TITLE)));
+            }
+            return suggestions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Recipe suggestion failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Facet counts for a search filter selection, with the semantics of
+     * {@link RecipeFeatureStore#facetCounts}: each facet is counted under every filter but
+     * its own. Waits for pending writes to become searchable, because results are cached by
+     * catalog version.
+     */
+    public FacetCounts facetCounts(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        ensureLoaded();
+        awaitLastWrite();
+
+        Map<String, Query> filters = filters(dietTags, cuisine, difficulty, maxTime);
+
+        IndexSearcher searcher = acquire();
+        try {
+            SortedSetDocValuesReaderState state = facetState(searcher);
+
+            Map<String, Long> timeCounts = new LinkedHashMap<>();
+            for (int bucket : RecipeFeatureStore.TIME_BUCKETS) {
+                Query withinBucket = IntPoint.newRangeQuery(TIME, Integer.MIN_VALUE, bucket);
+                timeCounts.put(String.valueOf(bucket), (long) searcher.count(withFilters(withinBucket, filters, TIME_FACET)));
+            }
+
+            return FacetCounts.builder()
+                .total(searcher.count(withFilters(new MatchAllDocsQuery(), filters, null)))
+                .cuisine(countValues(searcher, state, filters, CUISINE_FACET))
+                .difficulty(countValues(searcher, state, filters, DIFFICULTY_FACET))
+                .dietTags(countValues(searcher, state, filters, DIET_FACET))
+                .maxTime(timeCounts)
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Recipe facet counting failed", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(RecipeCatalogChangedEvent event) {
+        if (!loaded) {
+            // Nothing to maintain yet; the next load reads the current state
+            return;
+        }
+
+        try {
+            switch (event.getType()) {
+                case SAVED -> {
+                    Recipe recipe = event.getRecipe();
+                    if (recipe != null && recipe.getId() != null) {
+                        current.lastWrite = current.writer.updateDocument(new Term(ID, recipe.getId()), toDocument(recipe));
+                    }
+                }
+                case DELETED -> current.lastWrite = current.writer.deleteDocuments(new Term(ID, event.getRecipeId()));
+                case RESET -> loaded = false;
+            }
+        } catch (IOException e) {
+            // Rebuild from the database rather than keep serving a diverged index
+            log.error("Failed to update recipe search index; it will be rebuilt on next use", e);
+            loaded = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        if (!isEnabled()) {
+            throw new IllegalStateException("Lucene recipe search is disabled (recipe.search.engine=" + engine + ")");
+        }
+
+        IndexGeneration built = null;
+        try {
+            if (current == null) {
+                // Left over from a previous run; everything is rebuilt from the database
+                deleteGenerations(Path.of(indexPath));
+            }
+            built = open(Path.of(indexPath).resolve(GENERATION_PREFIX + ++generations));
+
+            List<Recipe> recipes = recipeRepository.findAllSearchFields();
+            for (Recipe recipe : recipes) {
+                if (recipe.getId() != null) {
+                    built.writer.addDocument(toDocument(recipe));
+                }
+            }
+            built.lastWrite = built.writer.commit();
+            built.searcherManager.maybeRefreshBlocking();
+
+            IndexGeneration previous = current;
+            current = built;
+            loaded = true;
+            log.info("Loaded recipe search index at {}: {} recipes", built.path, recipes.size());
+            if (previous != null) {
+                retire(previous);
+            }
+        } catch (IOException e) {
+            if (built != null && built != current) {
+                retire(built);
+            }
+            throw new UncheckedIOException("Failed to build recipe search index", e);
+        }
+    }
+
+    // Searches holding its searchers finish on them; new ones use the rebuilt index
+    private static void retire(IndexGeneration generation) {
+        generation.close();
+        try {
+            deleteGenerations(generation.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete replaced recipe search index at {}", generation.path, e);
+        }
+    }
+
+    private IndexGeneration open(Path path) throws IOException {
+        Files.createDirectories(path);
+        Directory directory = new MMapDirectory(path);
+
+        IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        IndexWriter writer = new IndexWriter(directory, config);
+        SearcherManager searcherManager = new SearcherManager(writer, new SearcherFactory());
+
+        double maxStaleSeconds = maxStalenessMs / 1000.0;
+        ControlledRealTimeReopenThread<IndexSearcher> reopenThread = new ControlledRealTimeReopenThread<>(
+            writer, searcherManager, maxStaleSeconds, Math.min(0.025, maxStaleSeconds));
+        reopenThread.setName("recipe-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        return new IndexGeneration(path, directory, writer, searcherManager, reopenThread);
+    }
+
+    // The path itself if it is a generation directory, otherwise every generation directory in it
+    private static void deleteGenerations(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+        List<Path> generations = new ArrayList<>();
+        if (path.getFileName().toString().startsWith(GENERATION_PREFIX)) {
+            generations.add(path);
+        } else {
+            try (var children = Files.list(path)) {
+                children.filter(child -> child.getFileName().toString().startsWith(GENERATION_PREFIX))
+                    .forEach(generations::add);
+            }
+        }
+        for (Path generation : generations) {
+            try (var files = Files.walk(generation)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Document toDocument(Recipe recipe) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, recipe.getId(), Field.Store.YES));
+        document.add(new SortedDocValuesField(ID_SORT, new BytesRef(recipe.getId())));
+
+        if (recipe.getTitle() != null) {
+            document.add(new TextField(TITLE, recipe.getTitle(), Field.Store.YES));
+            document.add(new TextField(TITLE_PREFIX, recipe.getTitle(), Field.Store.NO));
+        }
+        if (recipe.getIngredients() != null) {
+            for (Recipe.Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient.getName() != null) {
+                    document.add(new TextField(INGREDIENTS, ingredient.getName(), Field.Store.NO));
+                }
+            }
+        }
+
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(recipe.getCuisine());
+        if (cuisineNorm != null) {
+            document.add(new TextField(CUISINE, recipe.getCuisine(), Field.Store.NO));
+            document.add(new StringField(CUISINE_NORM, cuisineNorm, Field.Store.NO));
+            document.add(new SortedSetDocValuesFacetField(CUISINE_FACET, cuisineNorm));
+        }
+        if (recipe.getDifficulty() != null) {
+            document.add(new StringField(DIFFICULTY, recipe.getDifficulty().name(), Field.Store.NO));
+            document.add(new SortedSetDocValuesFacetField(DIFFICULTY_FACET, recipe.getDifficulty().name()));
+        }
+        if (recipe.getDietTags() != null) {
+            // Lowercased for both filtering and faceting, like the feature store's facet counts
+            Set<String> tags = new HashSet<>();
+            for (String tag : recipe.getDietTags()) {
+                if (tag != null && !tag.isBlank()) {
+                    tags.add(tag.toLowerCase());
+                }
+            }
+            for (String tag : tags) {
+                document.add(new StringField(DIET_TAGS, tag, Field.Store.NO));
+                document.add(new SortedSetDocValuesFacetField(DIET_FACET, tag));
+            }
+        }
+        // Recipes without a time fail any time filter, as in the database query
+        if (recipe.getTimeMinutes() != null) {
+            document.add(new IntPoint(TIME, recipe.getTimeMinutes()));
+        }
+
+        return facetsConfig.build(document);
+    }
+
+    // Any analyzed word in any field; exact matches through synonyms, plus fuzzy variants
+    private Query textQuery(String text) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        QueryBuilder builder = new QueryBuilder(queryAnalyzer);
+        addBoosted(query, builder.createBooleanQuery(TITLE, text), TITLE_BOOST);
+        addBoosted(query, builder.createBooleanQuery(INGREDIENTS, text), INGREDIENTS_BOOST);
+        addBoosted(query, builder.createBooleanQuery(CUISINE, text), CUISINE_BOOST);
+
+        for (String word : terms(indexAnalyzer, TITLE, text)) {
+            int edits = IngredientNormalizer.typoTolerance(word);
+            if (edits == 0) {
+                continue;
+            }
+            addBoosted(query, new FuzzyQuery(new Term(TITLE, word), edits, 1), TITLE_BOOST * FUZZY_WEIGHT);
+            addBoosted(query, new FuzzyQuery(new Term(INGREDIENTS, word), edits, 1), INGREDIENTS_BOOST * FUZZY_WEIGHT);
+        }
+        return query.build();
+    }
+
+    private static void addBoosted(BooleanQuery.Builder query, Query clause, float boost) {
+        // QueryBuilder returns null when the text has no words
+        if (clause != null) {
+            query.add(new BoostQuery(clause, boost), Occur.SHOULD);
+        }
+    }
+
+    // Filter per facet dimension, only for the supplied filters
+    private static Map<String, Query> filters(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        Map<String, Query> filters = new LinkedHashMap<>();
+        if (dietTags != null && !dietTags.isEmpty()) {
+            BooleanQuery.Builder anyTag = new BooleanQuery.Builder();
+            for (String tag : dietTags) {
+                if (tag != null) {
+                    anyTag.add(new TermQuery(new Term(DIET_TAGS, tag.toLowerCase())), Occur.SHOULD);
+                }
+            }
+            filters.put(DIET_FACET, anyTag.build());
+        }
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+        if (cuisineNorm != null) {
+            filters.put(CUISINE_FACET, new TermQuery(new Term(CUISINE_NORM, cuisineNorm)));
+        }
+        if (difficulty != null) {
+            filters.put(DIFFICULTY_FACET, new TermQuery(new Term(DIFFICULTY, difficulty.name())));
+        }
+        if (maxTime != null) {
+            filters.put(TIME_FACET, IntPoint.newRangeQuery(TIME, Integer.MIN_VALUE, maxTime));
+        }
+        return filters;
+    }
+
+    private static Query withFilters(Query query, Map<String, Query> filters, String excludedDimension) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(query, Occur.MUST);
+        filters.forEach((dimension, filter) -> {
+            if (!dimension.equals(excludedDimension)) {
+                builder.add(filter, Occur.FILTER);
+            }
+        });
+        return builder.build();
+    }
+
+    // Non-zero counts of one sorted-set dimension, most common first, then alphabetical
+    private Map<String, Long> countValues(IndexSearcher searcher, SortedSetDocValuesReaderState state,
+                                          Map<String, Query> filters, String dimension) throws IOException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (state == null) {
+            return counts;
+        }
+
+        FacetsCollector hits = searcher.search(withFilters(new MatchAllDocsQuery(), filters, dimension), new FacetsCollectorManager());
+        FacetResult result;
+        try {
+            result = new SortedSetDocValuesFacetCounts(state, hits).getAllChildren(dimension);
+        } catch (IllegalArgumentException e) {
+            // No document has a value for the dimension
+            return counts;
+        }
+        if (result == null) {
+            return counts;
+        }
+
+        Arrays.stream(result.labelValues)
+            .filter(labelValue -> labelValue.value.longValue() > 0)
+            .sorted(Comparator.comparingLong((LabelAndValue labelValue) -> labelValue.value.longValue()).reversed()
+                .thenComparing(labelValue -> labelValue.label))
+            .forEach(labelValue -> counts.put(labelValue.label, labelValue.value.longValue()));
+        return counts;
+    }
+
+    // Null if no document has facet values yet
+    private SortedSetDocValuesReaderState facetState(IndexSearcher searcher) throws IOException {
+        IndexReader reader = searcher.getIndexReader();
+        FacetState current = facetState;
+        if (current != null && current.reader == reader) {
+            return current.state;
+        }
+
+        SortedSetDocValuesReaderState state;
+        try {
+            state = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        } catch (IllegalArgumentException e) {
+            state = null;
+        }
+        // Concurrent callers may build the same state twice; either result is correct
+        facetState = new FacetState(reader, state);
+        return state;
+    }
+
+    private void awaitLastWrite() {
+        IndexGeneration generation = current;
+        try {
+            if (!generation.reopenThread.waitForGeneration(generation.lastWrite, (int) maxStalenessMs * 2)) {
+                log.debug("Recipe search index refresh still pending after {} ms", maxStalenessMs * 2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private IndexSearcher acquire() {
+        while (true) {
+            IndexGeneration generation = current;
+            try {
+                return generation.searcherManager.acquire();
+            } catch (AlreadyClosedException e) {
+                // Replaced by a rebuild between reading it and acquiring; retry on the new one
+                if (current == generation) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open recipe search index", e);
+            }
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            // Releasing only decrements the reader's reference count, also for a replaced generation
+            current.searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Failed to release recipe index searcher", e);
+        }
+    }
+
+    private static List<String> storedValues(IndexSearcher searcher, ScoreDoc[] hits, int from, String field) throws IOException {
+        StoredFields storedFields = searcher.storedFields();
+        List<String> values = new ArrayList<>(Math.max(hits.length - from, 0));
+        for (int i = from; i < hits.length; i++) {
+            values.add(storedFields.document(hits[i].doc, Set.of(field)).get(field));
+        }
+        return values;
+    }
+
+    // Analyzed words of the text, at most MAX_QUERY_TERMS
+    private static List<String> terms(Analyzer analyzer, String field, String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (terms.size() < MAX_QUERY_TERMS) {
+                    terms.add(term.toString());
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static FacetsConfig buildFacetsConfig() {
+        FacetsConfig config = new FacetsConfig();
+        config.setMultiValued(DIET_FACET, true);
+        return config;
+    }
+
+    // Ingredient synonyms in both directions, keeping the original words
+    private static SynonymMap buildSynonyms() {
+        SynonymMap.Builder builder = new SynonymMap.Builder(true);
+        for (Map.Entry<String, String> synonym : IngredientNormalizer.synonyms().entrySet()) {
+            CharsRef alternative = SynonymMap.Builder.join(synonym.getKey().split(" "), new CharsRefBuilder());
+            CharsRef preferred = SynonymMap.Builder.join(synonym.getValue().split(" "), new CharsRefBuilder());
+            builder.add(alternative, preferred, true);
+            builder.add(preferred, alternative, true);
+        }
+        try {
+            return builder.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record FacetState(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+
+    /**
+     * One built index: its directory, writer and searchers.
+     */
+    private static final class IndexGeneration {
+        private final Path path;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+        private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+        // Sequence number of the latest write, to wait for it to become searchable
+        private volatile long lastWrite;
+
+        IndexGeneration(Path path, Directory directory, IndexWriter writer, SearcherManager searcherManager,
+                        ControlledRealTimeReopenThread<IndexSearcher> reopenThread) {
+            this.path = path;
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+            this.reopenThread = reopenThread;
+        }
+
+        void close() {
+            try {
+                reopenThread.close();
+                searcherManager.close();
+                writer.close();
+                directory.close();
+            } catch (IOException e) {
+                log.warn("Failed to close recipe search index at {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Standard tokenization, lowercase and accent folding; optionally the singular form of
+     * each word (as in {@link IngredientNormalizer}) and synonym expansion.
+     */
+    private static class RecipeTextAnalyzer extends Analyzer {
+        private final boolean singularize;
+        private final SynonymMap synonyms;
+
+        RecipeTextAnalyzer(boolean singularize, SynonymMap synonyms) {
+            this.singularize = singularize;
+            this.synonyms = synonyms;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            if (singularize) {
+                stream = new SingularFilter(stream);
+            }
+            if (synonyms != null) {
+                stream = new SynonymGraphFilter(stream, synonyms, true);
+            }
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    }
+
+    private static final class SingularFilter extends TokenFilter {
+        private final CharTermAttribute term = addAttribute(CharTermAttribute.class);
+
+        SingularFilter(TokenStream input) {
+            super(input);
+        }
+
+        @Override
+        public boolean incrementToken() throws IOException {
+            if (!input.incrementToken()) {
+                return false;
+            }
+            String singular = IngredientNormalizer.singularize(term.toString());
+            if (!singular.contentEquals(term)) {
+                term.setEmpty().append(singular);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory master ingredient vocabulary: every distinct ingredient name used by a stored
+ * recipe, in {@link IngredientNormalizer} canonical form for matching, and as stored
+ * (lowercased and trimmed) for display.
+ *
+ * Loaded from the database on first use, then kept up to date from
+ * {@link RecipeCatalogChangedEvent}s: each name is reference-counted by the recipes using it,
+ * so saving or deleting a recipe only touches that recipe's names. A RESET drops the index
+ * and it is reloaded on next use into new maps that replace the old ones when complete, so
+ * readers never see a partly loaded vocabulary. Lookups are O(1) and never hit the database. A
+ * {@link PrefixSuggestIndex} weighted by reference count is maintained alongside for
+ * autocomplete, and a {@link BkTree} for typo-tolerant lookups.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MasterIngredientIndex {
+
+    // Maximum suggestions per query
+    private static final int SUGGEST_TOP_K = 20;
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeCatalogListener recipeCatalogListener;
+    private final IngredientNormalizer ingredientNormalizer;
+
+    // Replaced as a whole on load; updated in place by catalog events
+    private volatile Vocabulary vocabulary = new Vocabulary();
+
+    private volatile PrefixSuggestIndex suggestIndex = new PrefixSuggestIndex(SUGGEST_TOP_K);
+
+    // Edit-distance index over the vocabulary, built lazily and extended as names are added
+    private volatile BkTree bkTree;
+
+    private volatile boolean loaded;
+
+    // Catalog version the index reflects
+    private volatile long version = -1;
+
+    /**
+     * @return Live, read-only view of the vocabulary in canonical form; a reload replaces the
+     *         vocabulary, so a view obtained before it keeps the complete old one
+     */
+    public Set<String> getNames() {
+        ensureLoaded();
+        return vocabulary.names;
+    }
+
+    /**
+     * @return Live, read-only view of the ingredient names as stored in recipes, lowercased
+     *         and trimmed; several can share one canonical name
+     */
+    public Set<String> getDisplayNames() {
+        ensureLoaded();
+        return vocabulary.displayNames;
+    }
+
+    /**
+     * Exact membership of the ingredient's normalized form (no typo tolerance)
+     */
+    public boolean contains(String ingredient) {
+        ensureLoaded();
+        return vocabulary.referenceCounts.containsKey(ingredientNormalizer.normalize(ingredient));
+    }
+
+    /**
+     * @return Vocabulary name for the ingredient: its normalized form if present, otherwise
+     *         the closest name within the typo tolerance for its length
+     */
+    public Optional<String> canonicalName(String ingredient) {
+        ensureLoaded();
+        String name = ingredientNormalizer.normalize(ingredient);
+        if (name.isEmpty()) {
+            return Optional.empty();
+        }
+        if (vocabulary.referenceCounts.containsKey(name)) {
+            return Optional.of(name);
+        }
+
+        int tolerance = IngredientNormalizer.typoTolerance(name);
+        if (tolerance == 0) {
+            return Optional.empty();
+        }
+        return typoIndex().closest(name, tolerance).map(BkTree.Match::term);
+    }
+
+    /**
+     * Autocomplete over the vocabulary, ranking prefix matches first and then by the number
+     * of recipes using the ingredient. The query is normalized like the vocabulary, so
+     * "Tomatoes" and "Crème" find "tomato" and "creme fraiche".
+     */
+    public List<PrefixSuggestIndex.Suggestion> suggest(String query, int limit) {
+        ensureLoaded();
+        return suggestIndex.suggest(ingredientNormalizer.normalizeQuery(query), Math.min(limit, SUGGEST_TOP_K));
+    }
+
+    public long getVersion() {
+        ensureLoaded();
+        return version;
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(RecipeCatalogChangedEvent event) {
+        if (!loaded) {
+            // Nothing to maintain yet; the next load reads the current state
+            return;
+        }
+
+        switch (event.getType()) {
+            case SAVED -> updateSuggestions(vocabulary.replace(event.getRecipeId(), namesOf(event.getRecipe())));
+            case DELETED -> updateSuggestions(vocabulary.replace(event.getRecipeId(), RecipeNames.EMPTY));
+            case RESET -> {
+                loaded = false;
+                log.debug("Master ingredient index reset at catalog version {}", event.getCatalogVersion());
+                return;
+            }
+        }
+        version = event.getCatalogVersion();
+    }
+
+    private BkTree typoIndex() {
+        BkTree tree = bkTree;
+        if (tree != null) {
+            return tree;
+        }
+        synchronized (this) {
+            if (bkTree == null) {
+                BkTree built = new BkTree();
+                vocabulary.referenceCounts.keySet().forEach(built::add);
+                bkTree = built;
+            }
+            return bkTree;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        // Read the version first: changes made during the scan bump it again, so the index
+        // can only appear older than it is, never newer
+        long catalogVersion = recipeCatalogListener.getCatalogVersion();
+        // Ids and ingredient names only; the per-recipe names are needed to apply later changes
+        List<Recipe> recipes = recipeRepository.findAllIngredientNames();
+
+        // Built aside and swapped in, so readers keep the previous vocabulary until this one is complete
+        Vocabulary loadedVocabulary = new Vocabulary();
+        for (Recipe recipe : recipes) {
+            loadedVocabulary.replace(recipe.getId(), namesOf(recipe));
+        }
+
+        PrefixSuggestIndex suggestions = new PrefixSuggestIndex(SUGGEST_TOP_K);
+        loadedVocabulary.referenceCounts.forEach((name, count) -> suggestions.put(name, name, count));
+        vocabulary = loadedVocabulary;
+        suggestIndex = suggestions;
+        bkTree = null;
+
+        version = catalogVersion;
+        loaded = true;
+        log.info("Loaded master ingredient index: {} ingredients from {} recipes",
+            loadedVocabulary.referenceCounts.size(), recipes.size());
+    }
+
+    // Caller must hold the lock
+    private void updateSuggestions(Set<String> changedNames) {
+        boolean removed = false;
+        for (String name : changedNames) {
+            Integer count = vocabulary.referenceCounts.get(name);
+            if (count == null) {
+                suggestIndex.remove(name);
+                removed = true;
+            } else {
+                suggestIndex.put(name, name, count);
+                BkTree tree = bkTree;
+                if (count == 1 && tree != null) {
+                    // Possibly new; adding a name the tree already has is a no-op
+                    tree.add(name);
+                }
+            }
+        }
+        if (removed) {
+            // BK-trees don't support removal; rebuilt on the next typo lookup
+            bkTree = null;
+        }
+    }
+
+    private RecipeNames namesOf(Recipe recipe) {
+        if (recipe == null || recipe.getIngredients() == null) {
+            return RecipeNames.EMPTY;
+        }
+        Set<String> keys = new HashSet<>();
+        Set<String> display = new HashSet<>();
+        for (Recipe.Ingredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getName() == null) {
+                continue;
+            }
+            String key = ingredientNormalizer.normalize(ingredient.getName());
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+            String displayName = ingredient.getName().toLowerCase().trim();
+            if (!displayName.isEmpty()) {
+                display.add(displayName);
+            }
+        }
+        return new RecipeNames(keys, display);
+    }
+
+    /**
+     * Reference-counted names of one load of the catalog. Written under the index lock, read
+     * without it.
+     */
+    private static class Vocabulary {
+        // Ingredient name -> number of recipes using it
+        private final Map<String, Integer> referenceCounts = new ConcurrentHashMap<>();
+
+        // Display name -> number of recipes using it
+        private final Map<String, Integer> displayCounts = new ConcurrentHashMap<>();
+
+        // Recipe id -> that recipe's ingredient names, to undo its contribution on update/delete
+        private final Map<String, RecipeNames> namesByRecipe = new HashMap<>();
+
+        private final Set<String> names = Collections.unmodifiableSet(referenceCounts.keySet());
+
+        private final Set<String> displayNames = Collections.unmodifiableSet(displayCounts.keySet());
+
+        // Returns the canonical names whose reference count changed
+        Set<String> replace(String recipeId, RecipeNames recipeNames) {
+            RecipeNames previous = recipeNames.isEmpty() ? namesByRecipe.remove(recipeId) : namesByRecipe.put(recipeId, recipeNames);
+
+            // Add before removing so concurrent readers never miss a name the recipe keeps
+            recipeNames.keys().forEach(name -> referenceCounts.merge(name, 1, Integer::sum));
+            recipeNames.displayNames().forEach(name -> displayCounts.merge(name, 1, Integer::sum));
+            if (previous != null) {
+                previous.keys().forEach(name -> decrement(referenceCounts, name));
+                previous.displayNames().forEach(name -> decrement(displayCounts, name));
+            }
+
+            Set<String> changed = new HashSet<>(recipeNames.keys());
+            if (previous != null) {
+                changed.addAll(previous.keys());
+            }
+            return changed;
+        }
+
+        private static void decrement(Map<String, Integer> counts, String name) {
+            counts.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private record RecipeNames(Set<String> keys, Set<String> displayNames) {
+
+        static final RecipeNames EMPTY = new RecipeNames(Set.of(), Set.of());
+
+        boolean isEmpty() {
+            return keys.isEmpty() && displayNames.isEmpty();
+        }
+    }
+}
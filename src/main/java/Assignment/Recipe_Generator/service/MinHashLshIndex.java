@@ -0,0 +1,178 @@
+package Assignment.Recipe_Generator.service;
+
+import java.util.*;
+
+/**
+ * Locality-sensitive index for approximate Jaccard similarity between sets of ints.
+ *
+ * Each set gets a MinHash signature of bands × rowsPerBand values; the probability that two
+ * sets agree on one value equals their Jaccard similarity. Sets whose signatures agree on
+ * every row of a band share a bucket in that band's table, so two sets with similarity s
+ * become candidates with probability 1 - (1 - s^rowsPerBand)^bands: more bands raise recall,
+ * more rows per band cut false candidates. Not thread-safe.
+ */
+public class MinHashLshIndex {
+
+    private final int bands;
+    private final int rowsPerBand;
+
+    // Hash i of x is mix(x * multipliers[i] + increments[i])
+    private final long[] multipliers;
+    private final long[] increments;
+
+    private final List<Map<Long, Bucket>> tables;
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+
+    public MinHashLshIndex(int bands, int rowsPerBand, long seed) {
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+
+        Random random = new Random(seed);
+        int hashes = bands * rowsPerBand;
+        multipliers = new long[hashes];
+        increments = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+
+        tables = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Index a set under a key, replacing any set already indexed under it. Empty sets are
+     * not indexed (they have no similar sets).
+     */
+    public void put(int key, int[] set) {
+        remove(key);
+        if (set.length == 0) {
+            return;
+        }
+        int[] signature = signature(set);
+        signatures.put(key, signature);
+        for (int band = 0; band < bands; band++) {
+            tables.get(band).computeIfAbsent(bandKey(signature, band), k -> new Bucket()).add(key);
+        }
+    }
+
+    public void remove(int key) {
+        int[] signature = signatures.remove(key);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Bucket> table = tables.get(band);
+            long bandKey = bandKey(signature, band);
+            Bucket bucket = table.get(bandKey);
+            if (bucket != null && bucket.remove(key) && bucket.size == 0) {
+                table.remove(bandKey);
+            }
+        }
+    }
+
+    /**
+     * Re-key an indexed set without recomputing its signature; the target key must be free.
+     */
+    public void move(int from, int to) {
+        int[] signature = signatures.get(from);
+        if (signature == null) {
+            return;
+        }
+        remove(from);
+        signatures.put(to, signature);
+        for (int band = 0; band < bands; band++) {
+            tables.get(band).computeIfAbsent(bandKey(signature, band), k -> new Bucket()).add(to);
+        }
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    /**
+     * @return Distinct keys sharing at least one band bucket with the set, ascending
+     */
+    public int[] candidates(int[] set) {
+        if (set.length == 0) {
+            return new int[0];
+        }
+        int[] signature = signature(set);
+
+        int[] keys = new int[16];
+        int count = 0;
+        for (int band = 0; band < bands; band++) {
+            Bucket bucket = tables.get(band).get(bandKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            if (count + bucket.size > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, count + bucket.size));
+            }
+            System.arraycopy(bucket.keys, 0, keys, count, bucket.size);
+            count += bucket.size;
+        }
+
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private int[] signature(int[] set) {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int value : set) {
+            for (int i = 0; i < signature.length; i++) {
+                int hash = (int) (mix(value * multipliers[i] + increments[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand; row++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[row];
+        }
+        return mix(key);
+    }
+
+    // Finalizer of SplitMix64; spreads the bits of a linear hash
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class Bucket {
+        private int[] keys = new int[2];
+        private int size;
+
+        void add(int key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        boolean remove(int key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    keys[i] = keys[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
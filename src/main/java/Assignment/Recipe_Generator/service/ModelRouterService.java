@@ -0,0 +1,185 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.config.OpenRouterRoutingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes each LLM operation to an ordered list of candidate models. Candidates above the
+ * operation's cost ceiling are dropped, healthy models are ordered by their recent median
+ * latency, and unhealthy models are kept at the end of the list as a last resort.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ModelRouterService {
+
+    private final OpenRouterRoutingProperties properties;
+
+    @Value("${openrouter.model}")
+    private String defaultModel;
+
+    private final Map<String, ModelStats> stats = new ConcurrentHashMap<>();
+
+    public enum Outcome {
+        PARSED, UNPARSED, ERROR
+    }
+
+    /**
+     * @param operation Operation name (e.g. "image_recognition")
+     * @return Models to try in order; never empty
+     */
+    public List<String> route(String operation) {
+        OpenRouterRoutingProperties.OperationRoute route = properties.getOperations().get(operation);
+        if (!properties.isEnabled() || route == null || route.getModels().isEmpty()) {
+            return List.of(defaultModel);
+        }
+
+        List<String> affordable = route.getModels().stream()
+            .filter(model -> isWithinCost(model, route.getMaxCost()))
+            .toList();
+        if (affordable.isEmpty()) {
+            log.warn("No model for {} is within cost ceiling {}, using configured order", operation, route.getMaxCost());
+            affordable = route.getModels();
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> healthy = new ArrayList<>();
+        List<String> unhealthy = new ArrayList<>();
+        for (String model : affordable) {
+            if (statsFor(model).isHealthy(now)) {
+                healthy.add(model);
+            } else {
+                unhealthy.add(model);
+            }
+        }
+
+        // Stable sort: models without enough samples keep their configured order and go first
+        // so they get explored; the rest are ordered by median latency.
+        healthy.sort(Comparator.comparingLong(model -> statsFor(model).rankingLatency()));
+
+        List<String> ordered = new ArrayList<>(healthy);
+        ordered.addAll(unhealthy);
+        return ordered;
+    }
+
+    public void record(String model, long latencyMs, Outcome outcome) {
+        statsFor(model).record(latencyMs, outcome);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new TreeMap<>();
+        long now = System.currentTimeMillis();
+        stats.forEach((model, modelStats) -> result.put(model, modelStats.snapshot(now)));
+        return result;
+    }
+
+    private boolean isWithinCost(String model, Double maxCost) {
+        if (maxCost == null) {
+            return true;
+        }
+        Double cost = properties.getModelCosts().get(model);
+        // Models without a configured price are not excluded
+        return cost == null || cost <= maxCost;
+    }
+
+    private ModelStats statsFor(String model) {
+        return stats.computeIfAbsent(model, key -> new ModelStats(properties.getWindowSize()));
+    }
+
+    private class ModelStats {
+        private final LatencyWindow latencies;
+        private final Outcome[] outcomes;
+        private int next;
+        private int count;
+        private long unhealthySince = -1;
+
+        ModelStats(int windowSize) {
+            this.latencies = new LatencyWindow(windowSize);
+            this.outcomes = new Outcome[Math.max(1, windowSize)];
+        }
+
+        synchronized void record(long latencyMs, Outcome outcome) {
+            if (outcome != Outcome.ERROR) {
+                latencies.record(latencyMs);
+            }
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            if (count < outcomes.length) {
+                count++;
+            }
+
+            if (computeHealthy()) {
+                unhealthySince = -1;
+            } else if (unhealthySince < 0) {
+                unhealthySince = System.currentTimeMillis();
+            }
+        }
+
+        synchronized boolean isHealthy(long now) {
+            if (unhealthySince < 0) {
+                return true;
+            }
+            // Let an unhealthy model be probed again once the cooldown has passed
+            if (now - unhealthySince >= properties.getCooldownMs()) {
+                unhealthySince = now;
+                return true;
+            }
+            return false;
+        }
+
+        long rankingLatency() {
+            return latencies.size() < properties.getMinSamples() ? -1 : latencies.percentile(0.5);
+        }
+
+        synchronized Map<String, Object> snapshot(long now) {
+            return Map.of(
+                "calls", count,
+                "errorRate", errorRate(),
+                "parseRate", parseRate(),
+                "p50Ms", latencies.percentile(0.5),
+                "p95Ms", latencies.percentile(0.95),
+                "healthy", unhealthySince < 0 || now - unhealthySince >= properties.getCooldownMs()
+            );
+        }
+
+        private boolean computeHealthy() {
+            if (count < properties.getMinSamples()) {
+                return true;
+            }
+            return errorRate() <= properties.getMaxErrorRate() && parseRate() >= properties.getMinParseRate();
+        }
+
+        private double errorRate() {
+            if (count == 0) {
+                return 0.0;
+            }
+            int errors = 0;
+            for (int i = 0; i < count; i++) {
+                if (outcomes[i] == Outcome.ERROR) {
+                    errors++;
+                }
+            }
+            return (double) errors / count;
+        }
+
+        private double parseRate() {
+            int responses = 0;
+            int parsed = 0;
+            for (int i = 0; i < count; i++) {
+                if (outcomes[i] != Outcome.ERROR) {
+                    responses++;
+                    if (outcomes[i] == Outcome.PARSED) {
+                        parsed++;
+                    }
+                }
+            }
+            return responses == 0 ? 1.0 : (double) parsed / responses;
+        }
+    }
+}
@@ -7,14 +7,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,10 +39,21 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OpenRouterService {
 
+    private static final int IMAGE_STREAM_CHUNK_BYTES = 16 * 1024;
+
+    private static final String RECOGNITION_PROMPT =
+        "List the food ingredients you can see in this image. " +
+        "Use short, common, singular ingredient names (e.g. \"tomato\", \"cheddar cheese\", \"green onion\"). " +
+        "Return JSON: {\"ingredients\": [{\"name\": \"ingredient\", \"confidence\": 0.95}]}. " +
+        "No brands. No cookware. Be specific but concise.";
+
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
     private final LogService logService;
-    private final IngredientService ingredientService;
+    private final IngredientMatcherService ingredientMatcherService;
+    private final LlmHedgingService llmHedgingService;
+    private final ModelRouterService modelRouterService;
+    private final LlmMetricsService llmMetricsService;
 
     @Value("${openrouter.api-key}")
     private String apiKey;
@@ -46,24 +74,11 @@ public class OpenRouterService {
             .build();
     }
 
-    public IngredientRecognition recognizeIngredients(byte[] imageBytes, String userId) {
+    public IngredientRecognition recognizeIngredients(PreparedImage image, String userId) {
         try {
-            String base64Image = Base64.getEncoder().encodeToString(imageBytes);
-            String imageUrl = "data:image/jpeg;base64," + base64Image;
-
-            // Get master ingredients list for the prompt
-            Set<String> masterIngredients = ingredientService.getMasterIngredientsList();
-            String masterIngredientsList = String.join(", ", masterIngredients);
-
-            String promptText = String.format(
-                "Here is a list of known ingredients: [%s]. " +
-                "For each ingredient you recognize in this image: " +
-                "- If it matches an ingredient in the provided list, return exactly that ingredient name from the list " +
-                "- If it doesn't match any ingredient in the list, return the ingredient name as you recognize it " +
-                "Return JSON: [{\"name\": \"ingredient\", \"confidence\": 0.95}]. " +
-                "No brands. No cookware. Be specific but concise.",
-                masterIngredientsList
-            );
+            // Fixed prompt: names are mapped onto the master vocabulary locally afterwards,
+            // so prompt size does not grow with the recipe catalog
+            String promptText = RECOGNITION_PROMPT;
             
             log.info("=== INGREDIENT RECOGNITION LLM REQUEST ===");
             log.info("Prompt: {}", promptText);
@@ -76,7 +91,7 @@ public class OpenRouterService {
                 OpenRouterRequest.Content.builder()
                     .type("image_url")
                     .imageUrl(OpenRouterRequest.ImageUrl.builder()
-                        .url(imageUrl)
+                        .url(OpenRouterRequest.INLINE_IMAGE_PLACEHOLDER)
                         .detail("low")
                         .build())
                     .build()
@@ -95,31 +110,27 @@ public class OpenRouterService {
                 .responseFormat(OpenRouterRequest.ResponseFormat.builder()
                     .type("json_object")
                     .build())
+                .inlineImage(image)
                 .build();
                 
 
 
             Map<String, Object> metadata = Map.of(
                 "operation", "image_recognition",
-                "imageSize", imageBytes.length,
+                "imageSize", image.getSize(),
+                "originalImageSize", image.getOriginalSize(),
+                "imageMimeType", image.getMimeType(),
                 "model", model
             );
 
             logService.logLLMCall("recognizeIngredients", userId, metadata);
 
-            OpenRouterResponse response = callOpenRouter(request);
-            
-            if (response.getChoices() != null && !response.getChoices().isEmpty()) {
-                String content_response = response.getChoices().get(0).getMessage().getContent();
-                
-                log.info("=== INGREDIENT RECOGNITION LLM RESPONSE ===");
-                log.info("Response: {}", content_response);
-                
-                IngredientRecognition result = parseIngredientRecognition(content_response);
-                return result;
-            }
+            Optional<IngredientRecognition> result = callOpenRouter("image_recognition", Collections.singletonList(userId), request,
+                "INGREDIENT RECOGNITION", this::parseIngredientRecognition,
+                recognition -> recognition.getIngredients() != null && !recognition.getIngredients().isEmpty());
 
-            return getEmptyIngredientRecognition();
+            return result.map(ingredientMatcherService::mapToVocabulary)
+                .orElseGet(this::getEmptyIngredientRecognition);
 
         } catch (Exception e) {
             log.error("Error recognizing ingredients from image", e);
@@ -166,24 +177,15 @@ public class OpenRouterService {
 
             logService.logLLMCall("generateRecipes", userId, metadata);
 
-            OpenRouterResponse response = callOpenRouter(llmRequest);
-            
-            if (response.getChoices() != null && !response.getChoices().isEmpty()) {
-                String content = response.getChoices().get(0).getMessage().getContent();
-                
-                log.info("=== RECIPE GENERATION LLM RESPONSE ===");
-                log.info("Response: {}", content);
-                
-                List<Recipe> recipes = parseRecipeResponse(content);
-                return recipes;
-            }
+            Optional<List<Recipe>> recipes = callOpenRouter("recipe_generation_single", Collections.singletonList(userId), llmRequest,
+                "RECIPE GENERATION", this::parseRecipeResponse, parsed -> !parsed.isEmpty());
 
-            return Collections.emptyList();
+            return recipes.orElse(Collections.emptyList());
             
         } catch (Exception e) {
             log.error("Error generating recipes", e);
             logService.logSystemEvent("recipe_generation_error", 
-                Map.of("error", e.getMessage(), "userId", userId), 
+                Map.of("error", String.valueOf(e.getMessage()), "userId", userId != null ? userId : "anonymous"), 
                 "ERROR");
             return Collections.emptyList();
         }
@@ -197,6 +199,67 @@ public class OpenRouterService {
         return generateSingleRecipe(request, userId, java.util.Collections.emptyList());
     }
 
+    /**
+     * Generate one recipe for each of several independent requests with a single LLM call.
+     * @param requests Generation requests, one recipe is produced per request
+     * @param excludeTitles Titles to avoid, per request (same order as requests)
+     * @param userIds Requesting users, per request (same order as requests)
+     * @return Generated recipes per request (same order as requests); a request whose
+     *         section could not be parsed gets an empty list
+     */
+    public List<List<Recipe>> generateRecipeBatch(List<RecipeRequest> requests, List<List<String>> excludeTitles,
+                                                  List<String> userIds) {
+        List<List<Recipe>> empty = requests.stream().map(r -> Collections.<Recipe>emptyList()).collect(Collectors.toList());
+
+        try {
+            String prompt = buildBatchRecipeGenerationPrompt(requests, excludeTitles);
+
+            log.info("=== BATCH RECIPE GENERATION LLM REQUEST ({} requests) ===", requests.size());
+            log.info("Prompt: {}", prompt);
+
+            OpenRouterRequest llmRequest = OpenRouterRequest.builder()
+                .model(model)
+                .messages(List.of(
+                    OpenRouterRequest.Message.builder()
+                        .role("system")
+                        .content("You are a culinary assistant creating practical, detailed, safe recipes. Always return valid JSON.")
+                        .build(),
+                    OpenRouterRequest.Message.builder()
+                        .role("user")
+                        .content(prompt)
+                        .build()
+                ))
+                .maxTokens(Math.min(16384, 3072 * requests.size()))
+                .temperature(0.7)
+                .responseFormat(OpenRouterRequest.ResponseFormat.builder()
+                    .type("json_object")
+                    .build())
+                .build();
+
+            Map<String, Object> metadata = Map.of(
+                "operation", "recipe_generation_batch",
+                "batchSize", requests.size(),
+                "userIds", userIds.stream().map(id -> id != null ? id : "anonymous").collect(Collectors.toList()),
+                "model", model
+            );
+
+            logService.logLLMCall("generateRecipeBatch", null, metadata);
+
+            Optional<List<List<Recipe>>> recipes = callOpenRouter("recipe_generation_batch", userIds, llmRequest,
+                "BATCH RECIPE GENERATION", content -> parseBatchRecipeResponse(content, requests.size()),
+                parsed -> parsed.stream().anyMatch(list -> !list.isEmpty()));
+
+            return recipes.orElse(empty);
+
+        } catch (Exception e) {
+            log.error("Error generating recipe batch", e);
+            logService.logSystemEvent("recipe_generation_error",
+                Map.of("error", String.valueOf(e.getMessage()), "batchSize", requests.size()),
+                "ERROR");
+            return empty;
+        }
+    }
+
     /**
      * Modify existing DB recipes to accommodate dietary preferences
      */
@@ -235,15 +298,11 @@ public class OpenRouterService {
 
             logService.logLLMCall("modifyRecipesForDietaryPreferences", userId, metadata);
 
-            OpenRouterResponse response = callOpenRouter(llmRequest);
-            
-            if (response.getChoices() != null && !response.getChoices().isEmpty()) {
-                String content = response.getChoices().get(0).getMessage().getContent();
-                
-                log.info("=== DIETARY MODIFICATION LLM RESPONSE ===");
-                log.info("Response: {}", content);
-                
-                List<Recipe> modifiedRecipes = parseRecipeResponse(content);
+            Optional<List<Recipe>> response = callOpenRouter("dietary_modification", Collections.singletonList(userId), llmRequest,
+                "DIETARY MODIFICATION", this::parseRecipeResponse, parsed -> !parsed.isEmpty());
+
+            if (response.isPresent()) {
+                List<Recipe> modifiedRecipes = response.get();
                 
                 // Mark these as LLM-generated but based on DB recipes
                 modifiedRecipes.forEach(recipe -> {
@@ -262,53 +321,182 @@ public class OpenRouterService {
         }
     }
 
-    private OpenRouterResponse callOpenRouter(OpenRouterRequest request) {
-        try {
-            OpenRouterResponse response = getWebClient()
-                .post()
-                .uri("/chat/completions")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(OpenRouterResponse.class)
-                .timeout(Duration.ofSeconds(30))
-                .block();
-                
-            return response;
-            
-        } catch (Exception e) {
-            log.error("OpenRouter API call failed: {}", e.getMessage());
-            throw e;
-        }
-    }
+    /**
+     * Call OpenRouter and parse the first choice. The operation's candidate models are tried in
+     * routing order until one returns a valid result; each call is hedged if hedging is enabled
+     * for the operation.
+     * @param operation Operation name used for routing, latency tracking and hedging configuration
+     * @param userIds Users the call is made for, charged for its usage; null entries are anonymous
+     * @param request Request to send; its model is replaced by the routed candidate
+     * @param label Label used in request/response logging
+     * @param parser Parser for the raw message content
+     * @param isValid Whether a parsed result is usable; invalid results fall through to the next candidate
+     * @return Parsed result, or empty if no candidate returned a valid response
+     */
+    private <T> Optional<T> callOpenRouter(String operation, List<String> userIds, OpenRouterRequest request, String label,
+                                           Function<String, T> parser, Predicate<T> isValid) {
+        List<String> models = modelRouterService.route(operation);
+        RuntimeException lastError = null;
 
-    private String buildRecipeGenerationPrompt(RecipeRequest request, List<String> excludeTitles) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Generate 1 practical recipe using these ingredients: ")
-              .append(String.join(", ", request.getIngredients()));
+        for (String candidate : models) {
+            OpenRouterRequest routedRequest = request.toBuilder().model(candidate).build();
+            try {
+                Mono<T> primary = attemptCall(operation, userIds, routedRequest, label, parser, isValid);
 
-        if (request.getDietTags() != null && !request.getDietTags().isEmpty()) {
-            prompt.append(". Dietary requirements: ").append(String.join(", ", request.getDietTags()));
-            prompt.append(". Ensure all recipes strictly follow these dietary restrictions.");
+                Optional<T> result = llmHedgingService.execute(operation, primary, () -> attemptCall(operation, userIds,
+                        routedRequest.toBuilder().model(llmHedgingService.hedgeModel(candidate)).build(),
+                        label, parser, isValid))
+                    .blockOptional();
+
+                if (result.isPresent()) {
+                    return result;
+                }
+                log.warn("Model {} returned no usable response for {}", candidate, operation);
+
+            } catch (RuntimeException e) {
+                log.error("OpenRouter API call failed for model {}: {}", candidate, e.getMessage());
+                lastError = e;
+            }
         }
 
-        if (request.getCuisine() != null && !request.getCuisine().isEmpty()) {
-            prompt.append(". Preferred cuisine: ").append(request.getCuisine());
+        if (lastError != null) {
+            throw lastError;
         }
+        return Optional.empty();
+    }
 
-        if (request.getMaxTimeMinutes() != null) {
-            prompt.append(". Maximum cooking time: ").append(request.getMaxTimeMinutes()).append(" minutes");
+    private <T> Mono<T> attemptCall(String operation, List<String> userIds, OpenRouterRequest request, String label,
+                                    Function<String, T> parser, Predicate<T> isValid) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong firstByte = new AtomicLong(-1);
+
+            return sendRequest(request, firstByte)
+                .flatMap(response -> {
+                    long ttfbMs = firstByte.get() < 0 ? -1 : (firstByte.get() - start) / 1_000_000;
+
+                    if (response.getChoices() == null || response.getChoices().isEmpty()) {
+                        modelRouterService.record(request.getModel(), elapsedMillis(start), ModelRouterService.Outcome.UNPARSED);
+                        llmMetricsService.recordCall(operation, request.getModel(), userIds, elapsedMillis(start), ttfbMs,
+                            response.getUsage(), LlmMetricsService.CallOutcome.EMPTY_CHOICES);
+                        return Mono.<T>empty();
+                    }
+
+                    String content = response.getChoices().get(0).getMessage().getContent();
+
+                    log.info("=== {} LLM RESPONSE ===", label);
+                    log.info("Response: {}", content);
+
+                    T parsed = parser.apply(content);
+                    boolean valid = isValid.test(parsed);
+                    long latencyMs = elapsedMillis(start);
+                    modelRouterService.record(request.getModel(), latencyMs,
+                        valid ? ModelRouterService.Outcome.PARSED : ModelRouterService.Outcome.UNPARSED);
+                    llmMetricsService.recordCall(operation, request.getModel(), userIds, latencyMs, ttfbMs, response.getUsage(),
+                        valid ? LlmMetricsService.CallOutcome.PARSED : LlmMetricsService.CallOutcome.PARSE_FAILURE);
+
+                    return valid ? Mono.just(parsed) : Mono.<T>empty();
+                })
+                .doOnError(e -> {
+                    modelRouterService.record(request.getModel(), elapsedMillis(start), ModelRouterService.Outcome.ERROR);
+                    llmMetricsService.recordCall(operation, request.getModel(), userIds, elapsedMillis(start), -1,
+                        null, LlmMetricsService.CallOutcome.ERROR);
+                });
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * @param firstByte Set to System.nanoTime() when the response headers arrive
+     */
+    private Mono<OpenRouterResponse> sendRequest(OpenRouterRequest request, AtomicLong firstByte) {
+        WebClient.RequestBodySpec post = getWebClient()
+            .post()
+            .uri("/chat/completions");
+
+        WebClient.RequestHeadersSpec<?> spec;
+        try {
+            spec = request.getInlineImage() != null ? withInlineImageBody(post, request) : post.bodyValue(request);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
         }
 
-        if (request.getDifficulty() != null) {
-            prompt.append(". Difficulty: ").append(request.getDifficulty().name().toLowerCase());
+        return spec
+            .exchangeToMono(clientResponse -> {
+                firstByte.set(System.nanoTime());
+                if (clientResponse.statusCode().isError()) {
+                    return clientResponse.createException().flatMap(error -> Mono.<OpenRouterResponse>error(error));
+                }
+                return clientResponse.bodyToMono(OpenRouterResponse.class);
+            })
+            .timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Write the request JSON with the image data URL streamed in place of the placeholder:
+     * the image is base64-encoded chunk by chunk straight into the outgoing body, so neither
+     * the raw bytes nor the base64 text are ever held in memory as a whole.
+     */
+    private WebClient.RequestHeadersSpec<?> withInlineImageBody(WebClient.RequestBodySpec post, OpenRouterRequest request)
+            throws JsonProcessingException {
+        PreparedImage image = request.getInlineImage();
+        String json = objectMapper.writeValueAsString(request);
+        int placeholder = json.indexOf(OpenRouterRequest.INLINE_IMAGE_PLACEHOLDER);
+
+        byte[] prefix = (json.substring(0, placeholder) + "data:" + image.getMimeType() + ";base64,")
+            .getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = json.substring(placeholder + OpenRouterRequest.INLINE_IMAGE_PLACEHOLDER.length())
+            .getBytes(StandardCharsets.UTF_8);
+
+        DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> imageData = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+            try (InputStream input = image.getSource().open();
+                 OutputStream base64 = Base64.getEncoder().wrap(new NonClosingOutputStream(outputStream))) {
+                input.transferTo(base64);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, bufferFactory, Schedulers.boundedElastic()::schedule, IMAGE_STREAM_CHUNK_BYTES));
+
+        Flux<DataBuffer> body = Flux.concat(
+            Mono.fromSupplier(() -> bufferFactory.wrap(prefix)),
+            imageData,
+            Mono.fromSupplier(() -> bufferFactory.wrap(suffix)));
+
+        long contentLength = prefix.length + 4 * ((image.getSize() + 2) / 3) + suffix.length;
+
+        return post
+            .contentLength(contentLength)
+            .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    /**
+     * Lets the base64 encoder write its final padding on close without closing the body stream.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
         }
 
-        prompt.append(". Number of people: ").append(request.getServings());
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
 
-        if (excludeTitles != null && !excludeTitles.isEmpty()) {
-            prompt.append(". Do NOT create a recipe with these titles: ")
-                  .append(String.join(", ", excludeTitles));
+        @Override
+        public void close() throws IOException {
+            flush();
         }
+    }
+
+    private String buildRecipeGenerationPrompt(RecipeRequest request, List<String> excludeTitles) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Generate 1 practical recipe ");
+        appendRecipeConstraints(prompt, request, excludeTitles);
 
         prompt.append("\n\nIMPORTANT: Return ONLY valid JSON in this exact format:\n");
         prompt.append("{\n");
@@ -339,6 +527,81 @@ public class OpenRouterService {
         return prompt.toString();
     }
 
+    private String buildBatchRecipeGenerationPrompt(List<RecipeRequest> requests, List<List<String>> excludeTitles) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Generate exactly one practical recipe for each of the following ").append(requests.size())
+              .append(" independent requests. Apply each request's requirements only to its own recipe.\n");
+
+        for (int i = 0; i < requests.size(); i++) {
+            prompt.append("\nRequest ").append(i + 1).append(": a recipe ");
+            appendRecipeConstraints(prompt, requests.get(i), excludeTitles.get(i));
+            prompt.append("\n");
+        }
+
+        prompt.append("\nIMPORTANT: Return ONLY valid JSON in this exact format, with one recipe per request ");
+        prompt.append("and \"request\" set to the request number:\n");
+        prompt.append("{\n");
+        prompt.append("  \"recipes\": [\n");
+        prompt.append("    {\n");
+        prompt.append("      \"request\": 1,\n");
+        prompt.append("      \"title\": \"Recipe Title\",\n");
+        prompt.append("      \"timeMinutes\": 30,\n");
+        prompt.append("      \"difficulty\": \"EASY\",\n");
+        prompt.append("      \"cuisine\": \"Cuisine Name\",\n");
+        prompt.append("      \"ingredients\": [\n");
+        prompt.append("        {\n");
+        prompt.append("          \"name\": \"Ingredient Name\",\n");
+        prompt.append("          \"quantity\": \"2\",\n");
+        prompt.append("          \"unit\": \"cups\"\n");
+        prompt.append("        }\n");
+        prompt.append("      ],\n");
+        prompt.append("      \"steps\": [\n");
+        prompt.append("        \"Step 1 description\",\n");
+        prompt.append("        \"Step 2 description\"\n");
+        prompt.append("      ],\n");
+        prompt.append("      \"nutrition\": {\n");
+        prompt.append("        \"kcal\": 400,\n");
+        prompt.append("        \"protein\": 20.0,\n");
+        prompt.append("        \"carbs\": 45.0,\n");
+        prompt.append("        \"fat\": 15.0\n");
+        prompt.append("      }\n");
+        prompt.append("    }\n");
+        prompt.append("  ]\n");
+        prompt.append("}\n");
+        prompt.append("\nDo not include any text before or after the JSON. Only return the JSON object.");
+
+        return prompt.toString();
+    }
+
+    private void appendRecipeConstraints(StringBuilder prompt, RecipeRequest request, List<String> excludeTitles) {
+        prompt.append("using these ingredients: ")
+              .append(String.join(", ", request.getIngredients()));
+
+        if (request.getDietTags() != null && !request.getDietTags().isEmpty()) {
+            prompt.append(". Dietary requirements: ").append(String.join(", ", request.getDietTags()));
+            prompt.append(". Ensure all recipes strictly follow these dietary restrictions.");
+        }
+
+        if (request.getCuisine() != null && !request.getCuisine().isEmpty()) {
+            prompt.append(". Preferred cuisine: ").append(request.getCuisine());
+        }
+
+        if (request.getMaxTimeMinutes() != null) {
+            prompt.append(". Maximum cooking time: ").append(request.getMaxTimeMinutes()).append(" minutes");
+        }
+
+        if (request.getDifficulty() != null) {
+            prompt.append(". Difficulty: ").append(request.getDifficulty().name().toLowerCase());
+        }
+
+        prompt.append(". Number of people: ").append(request.getServings());
+
+        if (excludeTitles != null && !excludeTitles.isEmpty()) {
+            prompt.append(". Do NOT create a recipe with these titles: ")
+                  .append(String.join(", ", excludeTitles));
+        }
+    }
+
     private String buildDietaryModificationPrompt(List<Recipe> dbRecipes, RecipeRequest request) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are a culinary expert who modifies existing recipes to accommodate dietary restrictions while maintaining the original flavor and structure. Given the following DB recipes:\n");
@@ -493,6 +756,42 @@ public class OpenRouterService {
         }
     }
 
+    /**
+     * Split a batch generation response back into per-request recipes. Recipes are assigned by
+     * their "request" number, falling back to their position when the number is missing.
+     */
+    private List<List<Recipe>> parseBatchRecipeResponse(String jsonResponse, int requestCount) {
+        List<List<Recipe>> result = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            result.add(new ArrayList<>());
+        }
+
+        try {
+            String cleanedResponse = cleanJsonResponse(jsonResponse);
+            Map<String, Object> response = objectMapper.readValue(cleanedResponse, Map.class);
+            List<Map<String, Object>> recipesData = (List<Map<String, Object>>) response.get("recipes");
+            if (recipesData == null) {
+                return result;
+            }
+
+            for (int i = 0; i < recipesData.size(); i++) {
+                Map<String, Object> recipeData = recipesData.get(i);
+                Object requestNumber = recipeData.get("request");
+                int index = requestNumber instanceof Number ? ((Number) requestNumber).intValue() - 1 : i;
+
+                Recipe recipe = parseRecipeFromMap(recipeData);
+                if (recipe != null && index >= 0 && index < requestCount && result.get(index).isEmpty()) {
+                    result.get(index).add(recipe);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error parsing batch recipe response: {}", e.getMessage());
+            log.error("Raw response: {}", jsonResponse);
+        }
+
+        return result;
+    }
+
     /**
      * Clean JSON response to remove malformed characters and fix common issues
      */
@@ -0,0 +1,291 @@
+package Assignment.Recipe_Generator.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory autocomplete index over weighted entries (e.g. ingredient names weighted by
+ * how many recipes use them).
+ *
+ * Two tries answer prefix queries: one keyed on the whole text, one keyed on every word
+ * start within the text ("onion" finds "green onion"). Each trie node keeps its top-K
+ * entries by weight, so a prefix lookup is a walk of |query| nodes with no subtree scan.
+ * A trigram index answers substring queries of 3+ characters. Results are ranked by match
+ * type (whole-text prefix, then word prefix, then substring) and then by weight.
+ *
+ * Entries can be added, re-weighted and removed at any time. Thread-safe.
+ */
+public class PrefixSuggestIndex {
+
+    private final int topK;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Trie fullTextTrie = new Trie();
+    private final Trie wordStartTrie = new Trie();
+    private final Map<String, Set<Entry>> trigramPostings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Suggestion(String id, String text, double weight) {
+    }
+
+    /**
+     * @param topK Entries kept per trie node; upper bound for the number of prefix results
+     */
+    public PrefixSuggestIndex(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Add an entry or replace an existing entry with the same id.
+     */
+    public void put(String id, String text, double weight) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+
+            Entry entry = new Entry(id, text, normalize(text), weight);
+            entries.put(id, entry);
+
+            fullTextTrie.insert(entry.key, entry);
+            for (String wordStart : wordStarts(entry.key)) {
+                wordStartTrie.insert(wordStart, entry);
+            }
+            for (String gram : trigrams(entry.key)) {
+                trigramPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Text typed so far
+     * @param limit Maximum number of suggestions
+     * @return Best matches, prefix matches first
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Entry> seen = new HashSet<>();
+            List<Suggestion> results = new ArrayList<>();
+
+            collect(fullTextTrie.top(key), seen, results, limit);
+            collect(wordStartTrie.top(key), seen, results, limit);
+            if (results.size() < limit && key.length() >= 3) {
+                collect(substringMatches(key), seen, results, limit);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+
+    private void collect(List<Entry> candidates, Set<Entry> seen, List<Suggestion> results, int limit) {
+        for (Entry entry : candidates) {
+            if (results.size() >= limit) {
+                return;
+            }
+            if (seen.add(entry)) {
+                results.add(new Suggestion(entry.id, entry.text, entry.weight));
+            }
+        }
+    }
+
+    private List<Entry> substringMatches(String key) {
+        // Intersect the postings of the query's trigrams, starting from the rarest
+        List<Set<Entry>> postings = new ArrayList<>();
+        for (String gram : trigrams(key)) {
+            Set<Entry> posting = trigramPostings.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : postings.get(0)) {
+            if (entry.key.contains(key)) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(BY_RANK);
+        return matches;
+    }
+
+    // Caller must hold the write lock
+    private void removeEntry(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+
+        fullTextTrie.delete(entry.key, entry);
+        for (String wordStart : wordStarts(entry.key)) {
+            wordStartTrie.delete(wordStart, entry);
+        }
+        for (String gram : trigrams(entry.key)) {
+            Set<Entry> posting = trigramPostings.get(gram);
+            if (posting != null) {
+                posting.remove(entry);
+                if (posting.isEmpty()) {
+                    trigramPostings.remove(gram);
+                }
+            }
+        }
+    }
+
+    // Suffixes of the key starting at each word after the first
+    private static List<String> wordStarts(String key) {
+        List<String> starts = new ArrayList<>();
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            if (i + 1 < key.length()) {
+                starts.add(key.substring(i + 1));
+            }
+        }
+        return starts;
+    }
+
+    private static Set<String> trigrams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            grams.add(key.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Heavier first, then shorter, then alphabetical
+    private static final Comparator<Entry> BY_RANK = Comparator
+        .comparingDouble((Entry entry) -> -entry.weight)
+        .thenComparingInt(entry -> entry.key.length())
+        .thenComparing(entry -> entry.key);
+
+    private static class Entry {
+        private final String id;
+        private final String text;
+        private final String key;
+        private final double weight;
+
+        Entry(String id, String text, String key, double weight) {
+            this.id = id;
+            this.text = text;
+            this.key = key;
+            this.weight = weight;
+        }
+    }
+
+    private class Trie {
+        private final Node root = new Node();
+
+        List<Entry> top(String prefix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node == null ? Collections.emptyList() : node.top;
+        }
+
+        void insert(String key, Entry entry) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                path.add(node);
+            }
+            node.terminals.add(entry);
+
+            for (Node pathNode : path) {
+                pathNode.offer(entry);
+            }
+        }
+
+        void delete(String key, Entry entry) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null) {
+                return;
+            }
+            node.terminals.remove(entry);
+
+            // Recompute top-K bottom-up where the entry was listed; prune empty leaves
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node pathNode = path.get(depth);
+                if (depth > 0 && pathNode.children.isEmpty() && pathNode.terminals.isEmpty()) {
+                    path.get(depth - 1).children.remove(key.charAt(depth - 1));
+                    continue;
+                }
+                if (pathNode.top.contains(entry)) {
+                    pathNode.recompute();
+                }
+            }
+        }
+    }
+
+    private class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Entry> terminals = new ArrayList<>();
+        private List<Entry> top = new ArrayList<>();
+
+        void offer(Entry entry) {
+            if (top.contains(entry)) {
+                return;
+            }
+            if (top.size() >= topK && BY_RANK.compare(entry, top.get(top.size() - 1)) >= 0) {
+                return;
+            }
+            List<Entry> updated = new ArrayList<>(top);
+            updated.add(entry);
+            updated.sort(BY_RANK);
+            if (updated.size() > topK) {
+                updated.remove(updated.size() - 1);
+            }
+            // Replace rather than mutate so readers of the old list are unaffected
+            top = updated;
+        }
+
+        void recompute() {
+            Set<Entry> candidates = new HashSet<>(terminals);
+            for (Node child : children.values()) {
+                candidates.addAll(child.top);
+            }
+            List<Entry> updated = new ArrayList<>(candidates);
+            updated.sort(BY_RANK);
+            top = updated.size() > topK ? new ArrayList<>(updated.subList(0, topK)) : updated;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package Assignment.Recipe_Generator.service;
 
+import Assignment.Recipe_Generator.dto.RatingSummary;
 import Assignment.Recipe_Generator.model.Rating;
 import Assignment.Recipe_Generator.repository.RatingRepository;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +8,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -71,6 +75,21 @@ public class RatingService {
             .orElse(0.0);
     }
 
+    /**
+     * Average rating and rating count of several recipes in one aggregation
+     * @return Summaries by recipe id; recipes without ratings are absent
+     */
+    public Map<String, RatingSummary> getRatingSummaries(Collection<String> recipeIds) {
+        Map<String, RatingSummary> summaries = new HashMap<>();
+        if (recipeIds.isEmpty()) {
+            return summaries;
+        }
+        for (RatingSummary summary : ratingRepository.summarizeByRecipeIds(recipeIds)) {
+            summaries.put(summary.getRecipeId(), summary);
+        }
+        return summaries;
+    }
+
     public int getRatingCount(String recipeId) {
         return ratingRepository.findByRecipeId(recipeId).size();
     }
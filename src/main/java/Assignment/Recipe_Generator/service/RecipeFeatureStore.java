@@ -0,0 +1,812 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.FacetCounts;
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory copy of the recipe fields used to filter and rank recipes for
+ * generation: primitive arrays for time, difficulty ordinal and interned cuisine id, plus
+ * each recipe's diet tags and normalized ingredients as interned ids.
+ *
+ * A query compiles the user's ingredients into a bitset over ingredient ids and the cuisine
+ * filter into an interned cuisine id (exact match on the normalized cuisine, as everywhere
+ * else), then filters and scores every row in one pass
+ * without touching Recipe objects or allocating per row. Catalogs of parallel-threshold rows
+ * or more are split across the common ForkJoin pool. Only the ids of the best rows are
+ * returned; callers load those documents.
+ *
+ * With recipe.retrieval.mode=lsh, a {@link MinHashLshIndex} over the ingredient sets is
+ * maintained alongside and queries only rescore the rows it proposes, falling back to the
+ * full scan when fewer than the requested number of candidates pass the filters.
+ * {@link #benchmark} compares the two modes on the current catalog.
+ *
+ * {@link #cookableWith} answers containment queries (recipe ingredients ⊆ pantry) against
+ * a pantry bitset, rejecting each row at its first missing ingredient.
+ *
+ * {@link #facetCounts} answers facet queries from one bitmap per facet value, built from the
+ * columns once per store version and intersected per query.
+ *
+ * Loaded on first use and kept current from {@link RecipeCatalogChangedEvent}s, like
+ * {@link MasterIngredientIndex}. Thread-safe.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeFeatureStore {
+
+    private static final int NO_VALUE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int[] NO_IDS = new int[0];
+
+    // Rows scanned by one ForkJoin leaf task
+    private static final int CHUNK_ROWS = 16 * 1024;
+
+    // Time facet buckets, in minutes
+    static final int[] TIME_BUCKETS = {15, 30, 45, 60, 90, 120};
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientNormalizer ingredientNormalizer;
+
+    @Value("${recipe.feature-store.parallel-threshold:50000}")
+    private int parallelThreshold;
+
+    // exact: scan every row; lsh: rescore MinHash LSH candidates only
+    @Value("${recipe.retrieval.mode:exact}")
+    private String retrievalMode;
+
+    @Value("${recipe.retrieval.lsh.bands:32}")
+    private int lshBands;
+
+    @Value("${recipe.retrieval.lsh.rows-per-band:2}")
+    private int lshRowsPerBand;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Interned values; ids are only reassigned by a full reload
+    private final Map<String, Integer> ingredientIds = new HashMap<>();
+    private final Map<String, Integer> cuisineIds = new HashMap<>();
+    private final List<String> cuisineNames = new ArrayList<>();
+    private final Map<String, Integer> dietTagIds = new HashMap<>();
+
+    // Columns; rows [0, size) are live. A deleted row is replaced by the last row.
+    private String[] recipeIds = new String[0];
+    private int[] timeMinutes = new int[0];
+    private byte[] difficulty = new byte[0];
+    private int[] cuisine = new int[0];
+    private int[][] dietTags = new int[0][];
+    private int[][] ingredients = new int[0][];
+    private int size;
+
+    private final Map<String, Integer> rowById = new HashMap<>();
+
+    // Keyed by row; null unless retrieval mode is lsh
+    private MinHashLshIndex lshIndex;
+
+    private volatile boolean loaded;
+
+    // Incremented on every change to the rows
+    private long version;
+
+    // Facet bitmaps for one version, rebuilt on demand
+    private volatile FacetBitmaps facetBitmaps;
+
+    public record Match(String recipeId, double score) {
+    }
+
+    /**
+     * Best recipes sharing at least one ingredient with the user that pass the request's
+     * cuisine, difficulty and time filters, ranked by Jaccard similarity of normalized
+     * ingredient sets (the measure of {@link IngredientService#calculateIngredientMatchPercentage}).
+     *
+     * @param userIngredientKeys User ingredients from {@link IngredientService#normalizeUserIngredients}
+     * @return Up to limit matches, best first
+     */
+    public List<Match> topMatches(RecipeRequest request, Set<String> userIngredientKeys, int limit) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Query query = compile(request, userIngredientKeys);
+            if (query == null || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            TopK top = null;
+            if (lshIndex != null) {
+                top = scanRows(query, lshIndex.candidates(query.userIds), limit);
+            }
+            if (top == null || top.count < limit) {
+                top = scanAll(query, limit);
+            }
+
+            List<Match> matches = new ArrayList<>(top.count);
+            for (int i = 0; i < top.count; i++) {
+                matches.add(new Match(recipeIds[top.rows[i]], top.scores[i]));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes whose normalized ingredients are all in the pantry, largest recipes first (then
+     * in store order). Recipes without ingredients are not included.
+     *
+     * @param pantryKeys Pantry ingredients from {@link IngredientService#normalizeUserIngredients}
+     * @return Every matching recipe, scored by its number of distinct ingredients
+     */
+    public List<Match> cookableWith(Set<String> pantryKeys) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            long[] pantryBits = new long[(ingredientIds.size() + 63) >>> 6];
+            boolean anyKnown = false;
+            for (String key : pantryKeys) {
+                Integer id = ingredientIds.get(key);
+                if (id != null) {
+                    pantryBits[id >>> 6] |= 1L << id;
+                    anyKnown = true;
+                }
+            }
+            if (!anyKnown) {
+                return Collections.emptyList();
+            }
+
+            int[] rows = new int[16];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (containedIn(ingredients[row], pantryBits)) {
+                    if (count == rows.length) {
+                        rows = Arrays.copyOf(rows, count * 2);
+                    }
+                    rows[count++] = row;
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                matches.add(new Match(recipeIds[rows[i]], ingredients[rows[i]].length));
+            }
+            // Stable, so equal sizes keep store order
+            matches.sort(Comparator.comparingDouble(Match::score).reversed());
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compare LSH retrieval with the exact scan on the current catalog. Queries are random
+     * subsets of random recipes' ingredients plus one unrelated ingredient, without filters.
+     *
+     * @return recall@k of LSH against the exact ranking, average latencies and candidate counts
+     */
+    public Map<String, Object> benchmark(int queries, int k, int bands, int rowsPerBand, long seed) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            long buildStart = System.nanoTime();
+            MinHashLshIndex index = new MinHashLshIndex(bands, rowsPerBand, seed);
+            for (int row = 0; row < size; row++) {
+                index.put(row, ingredients[row]);
+            }
+            long buildNanos = System.nanoTime() - buildStart;
+
+            Random random = new Random(seed);
+            long exactNanos = 0;
+            long lshNanos = 0;
+            long candidateTotal = 0;
+            double recallTotal = 0;
+            int measured = 0;
+
+            for (int i = 0; i < queries && size > 0 && !ingredientIds.isEmpty(); i++) {
+                int[] source = ingredients[random.nextInt(size)];
+                if (source.length == 0) {
+                    continue;
+                }
+                Set<Integer> picked = new TreeSet<>();
+                for (int id : source) {
+                    if (random.nextBoolean()) {
+                        picked.add(id);
+                    }
+                }
+                picked.add(source[random.nextInt(source.length)]);
+                picked.add(random.nextInt(ingredientIds.size()));
+                Query query = queryFor(picked.stream().mapToInt(Integer::intValue).toArray());
+
+                long start = System.nanoTime();
+                TopK exact = scanAll(query, k);
+                exactNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int[] candidates = index.candidates(query.userIds);
+                TopK approximate = scanRows(query, candidates, k);
+                lshNanos += System.nanoTime() - start;
+                candidateTotal += candidates.length;
+
+                if (exact.count > 0) {
+                    int found = 0;
+                    for (int a = 0; a < approximate.count; a++) {
+                        for (int e = 0; e < exact.count; e++) {
+                            if (approximate.rows[a] == exact.rows[e]) {
+                                found++;
+                                break;
+                            }
+                        }
+                    }
+                    recallTotal += (double) found / exact.count;
+                    measured++;
+                }
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("recipes", size);
+            result.put("queries", measured);
+            result.put("k", k);
+            result.put("bands", bands);
+            result.put("rowsPerBand", rowsPerBand);
+            result.put("recallAtK", measured > 0 ? recallTotal / measured : 0.0);
+            result.put("exactAvgMicros", measured > 0 ? exactNanos / 1000 / measured : 0);
+            result.put("lshAvgMicros", measured > 0 ? lshNanos / 1000 / measured : 0);
+            result.put("lshAvgCandidates", measured > 0 ? candidateTotal / measured : 0);
+            result.put("lshIndexBuildMs", buildNanos / 1_000_000);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts for a search filter selection, with the semantics of the database filter
+     * query: diet tags match any of the given tags, cuisine matches its normalized form, and
+     * a time limit excludes recipes without a time.
+     */
+    public FacetCounts facetCounts(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        FacetBitmaps bitmaps = currentFacetBitmaps();
+
+        BitSet dietFilter = null;
+        if (dietTags != null && !dietTags.isEmpty()) {
+            dietFilter = new BitSet(bitmaps.rows);
+            for (String tag : dietTags) {
+                Integer id = tag != null ? bitmaps.dietTagIds.get(tag.toLowerCase()) : null;
+                if (id != null) {
+                    dietFilter.or(bitmaps.byDietTag[id]);
+                }
+            }
+        }
+
+        BitSet cuisineFilter = null;
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+        if (cuisineNorm != null) {
+            int cuisineId = bitmaps.cuisineNames.indexOf(cuisineNorm);
+            cuisineFilter = cuisineId >= 0 ? bitmaps.byCuisine[cuisineId] : new BitSet();
+        }
+
+        BitSet difficultyFilter = difficulty != null ? bitmaps.byDifficulty[difficulty.ordinal()] : null;
+        BitSet timeFilter = maxTime != null ? bitmaps.withinTime(maxTime) : null;
+
+        Map<String, Long> cuisineCounts = new HashMap<>();
+        BitSet base = bitmaps.all(dietFilter, null, difficultyFilter, timeFilter);
+        for (int id = 0; id < bitmaps.byCuisine.length; id++) {
+            cuisineCounts.put(bitmaps.cuisineNames.get(id), intersectionCount(base, bitmaps.byCuisine[id]));
+        }
+
+        Map<String, Long> difficultyCounts = new HashMap<>();
+        base = bitmaps.all(dietFilter, cuisineFilter, null, timeFilter);
+        for (Recipe.Difficulty value : Recipe.Difficulty.values()) {
+            difficultyCounts.put(value.name(), intersectionCount(base, bitmaps.byDifficulty[value.ordinal()]));
+        }
+
+        Map<String, Long> dietCounts = new HashMap<>();
+        base = bitmaps.all(null, cuisineFilter, difficultyFilter, timeFilter);
+        for (Map.Entry<String, Integer> tag : bitmaps.dietTagIds.entrySet()) {
+            dietCounts.put(tag.getKey(), intersectionCount(base, bitmaps.byDietTag[tag.getValue()]));
+        }
+
+        // Buckets are cumulative, so they keep their natural order
+        Map<String, Long> timeCounts = new LinkedHashMap<>();
+        base = bitmaps.all(dietFilter, cuisineFilter, difficultyFilter, null);
+        for (int bucket = 0; bucket < TIME_BUCKETS.length; bucket++) {
+            timeCounts.put(String.valueOf(TIME_BUCKETS[bucket]), intersectionCount(base, bitmaps.byTimeBucket[bucket]));
+        }
+
+        return FacetCounts.builder()
+            .total(bitmaps.all(dietFilter, cuisineFilter, difficultyFilter, timeFilter).cardinality())
+            .cuisine(byCountDescending(cuisineCounts))
+            .difficulty(byCountDescending(difficultyCounts))
+            .dietTags(byCountDescending(dietCounts))
+            .maxTime(timeCounts)
+            .build();
+    }
+
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(RecipeCatalogChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                // Nothing to maintain yet; the next load reads the current state
+                return;
+            }
+            switch (event.getType()) {
+                case SAVED -> upsert(event.getRecipe());
+                case DELETED -> delete(event.getRecipeId());
+                case RESET -> loaded = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+
+            List<Recipe> recipes = recipeRepository.findAllFeatures();
+
+            ingredientIds.clear();
+            cuisineIds.clear();
+            cuisineNames.clear();
+            dietTagIds.clear();
+            rowById.clear();
+            size = 0;
+            version++;
+            lshIndex = "lsh".equalsIgnoreCase(retrievalMode) ? new MinHashLshIndex(lshBands, lshRowsPerBand, 1) : null;
+            resize(Math.max(INITIAL_CAPACITY, recipes.size()));
+
+            for (Recipe recipe : recipes) {
+                upsert(recipe);
+            }
+
+            loaded = true;
+            log.info("Loaded recipe feature store: {} recipes, {} ingredients, {} cuisines",
+                size, ingredientIds.size(), cuisineNames.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void upsert(Recipe recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        version++;
+
+        Integer existing = rowById.get(recipe.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            if (size == recipeIds.length) {
+                resize(recipeIds.length * 2);
+            }
+            row = size++;
+            rowById.put(recipe.getId(), row);
+        }
+
+        recipeIds[row] = recipe.getId();
+        timeMinutes[row] = recipe.getTimeMinutes() != null ? recipe.getTimeMinutes() : NO_VALUE;
+        difficulty[row] = recipe.getDifficulty() != null ? (byte) recipe.getDifficulty().ordinal() : NO_VALUE;
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(recipe.getCuisine());
+        cuisine[row] = cuisineNorm != null ? internCuisine(cuisineNorm) : NO_VALUE;
+        dietTags[row] = dietTagIdsOf(recipe.getDietTags());
+        ingredients[row] = ingredientIdsOf(recipe);
+        if (lshIndex != null) {
+            lshIndex.put(row, ingredients[row]);
+        }
+    }
+
+    // Caller must hold the write lock
+    private void delete(String recipeId) {
+        Integer row = rowById.remove(recipeId);
+        if (row == null) {
+            return;
+        }
+        version++;
+
+        int last = --size;
+        if (lshIndex != null) {
+            lshIndex.remove(row);
+            lshIndex.move(last, row);
+        }
+        if (row != last) {
+            recipeIds[row] = recipeIds[last];
+            timeMinutes[row] = timeMinutes[last];
+            difficulty[row] = difficulty[last];
+            cuisine[row] = cuisine[last];
+            dietTags[row] = dietTags[last];
+            ingredients[row] = ingredients[last];
+            rowById.put(recipeIds[row], row);
+        }
+        recipeIds[last] = null;
+        dietTags[last] = null;
+        ingredients[last] = null;
+    }
+
+    private void resize(int capacity) {
+        recipeIds = Arrays.copyOf(recipeIds, capacity);
+        timeMinutes = Arrays.copyOf(timeMinutes, capacity);
+        difficulty = Arrays.copyOf(difficulty, capacity);
+        cuisine = Arrays.copyOf(cuisine, capacity);
+        dietTags = Arrays.copyOf(dietTags, capacity);
+        ingredients = Arrays.copyOf(ingredients, capacity);
+    }
+
+    private int internCuisine(String name) {
+        Integer id = cuisineIds.get(name);
+        if (id == null) {
+            id = cuisineNames.size();
+            cuisineIds.put(name, id);
+            cuisineNames.add(name);
+        }
+        return id;
+    }
+
+    // Any number of distinct tags; most recipes have a handful
+    private int[] dietTagIdsOf(Set<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return NO_IDS;
+        }
+        Set<Integer> ids = new TreeSet<>();
+        for (String tag : tags) {
+            if (tag != null) {
+                ids.add(dietTagIds.computeIfAbsent(tag.toLowerCase(), k -> dietTagIds.size()));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] ingredientIdsOf(Recipe recipe) {
+        if (recipe.getIngredients() == null) {
+            return new int[0];
+        }
+        Set<Integer> ids = new TreeSet<>();
+        for (Recipe.Ingredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getName() == null) {
+                continue;
+            }
+            String key = ingredientNormalizer.normalize(ingredient.getName());
+            if (!key.isEmpty()) {
+                ids.add(ingredientIds.computeIfAbsent(key, k -> ingredientIds.size()));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private FacetBitmaps currentFacetBitmaps() {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            FacetBitmaps bitmaps = facetBitmaps;
+            if (bitmaps != null && bitmaps.version == version) {
+                return bitmaps;
+            }
+            // Concurrent readers may build the same version twice; either result is correct
+            bitmaps = buildFacetBitmaps();
+            facetBitmaps = bitmaps;
+            return bitmaps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the read lock
+    private FacetBitmaps buildFacetBitmaps() {
+        BitSet[] byCuisine = new BitSet[cuisineNames.size()];
+        for (int i = 0; i < byCuisine.length; i++) {
+            byCuisine[i] = new BitSet(size);
+        }
+        BitSet[] byDifficulty = new BitSet[Recipe.Difficulty.values().length];
+        for (int i = 0; i < byDifficulty.length; i++) {
+            byDifficulty[i] = new BitSet(size);
+        }
+        BitSet[] byDietTag = new BitSet[dietTagIds.size()];
+        for (int i = 0; i < byDietTag.length; i++) {
+            byDietTag[i] = new BitSet(size);
+        }
+        BitSet[] byTimeBucket = new BitSet[TIME_BUCKETS.length];
+        for (int i = 0; i < byTimeBucket.length; i++) {
+            byTimeBucket[i] = new BitSet(size);
+        }
+
+        for (int row = 0; row < size; row++) {
+            if (cuisine[row] != NO_VALUE) {
+                byCuisine[cuisine[row]].set(row);
+            }
+            if (difficulty[row] != NO_VALUE) {
+                byDifficulty[difficulty[row]].set(row);
+            }
+            for (int tag : dietTags[row]) {
+                byDietTag[tag].set(row);
+            }
+            if (timeMinutes[row] != NO_VALUE) {
+                for (int bucket = 0; bucket < TIME_BUCKETS.length; bucket++) {
+                    if (timeMinutes[row] <= TIME_BUCKETS[bucket]) {
+                        byTimeBucket[bucket].set(row);
+                    }
+                }
+            }
+        }
+
+        return new FacetBitmaps(version, size, List.copyOf(cuisineNames), Map.copyOf(dietTagIds),
+            byCuisine, byDifficulty, byDietTag, byTimeBucket, Arrays.copyOf(timeMinutes, size));
+    }
+
+    private static long intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    // Non-zero counts, most common first, then alphabetical
+    private static Map<String, Long> byCountDescending(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.<String, Long>comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    // Caller must hold the read lock; null if no row can match
+    private Query compile(RecipeRequest request, Set<String> userIngredientKeys) {
+        long[] userBits = new long[(ingredientIds.size() + 63) >>> 6];
+        int[] userIds = new int[userIngredientKeys.size()];
+        int known = 0;
+        for (String key : userIngredientKeys) {
+            Integer id = ingredientIds.get(key);
+            if (id != null) {
+                userBits[id >>> 6] |= 1L << id;
+                userIds[known++] = id;
+            }
+        }
+        if (known == 0) {
+            return null;
+        }
+
+        // Diet tags are intentionally not filtered: recipes that do not yet match the
+        // requested diet are adapted downstream by the LLM
+
+        // Exact match on the normalized cuisine, the rule of the Mongo filter, facets and Lucene
+        int cuisineId = NO_VALUE;
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(request.getCuisine());
+        if (cuisineNorm != null) {
+            Integer id = cuisineIds.get(cuisineNorm);
+            if (id == null) {
+                return null;
+            }
+            cuisineId = id;
+        }
+
+        return new Query(
+            userBits,
+            Arrays.copyOf(userIds, known),
+            userIngredientKeys.size(),
+            cuisineId,
+            request.getDifficulty() != null ? request.getDifficulty().ordinal() : NO_VALUE,
+            request.getMaxTimeMinutes() != null ? request.getMaxTimeMinutes() : Integer.MAX_VALUE
+        );
+    }
+
+    // Query without filters over ingredient ids, for benchmarking
+    private Query queryFor(int[] ids) {
+        long[] userBits = new long[(ingredientIds.size() + 63) >>> 6];
+        for (int id : ids) {
+            userBits[id >>> 6] |= 1L << id;
+        }
+        return new Query(userBits, ids, ids.length, NO_VALUE, NO_VALUE, Integer.MAX_VALUE);
+    }
+
+    // Caller must hold the read lock
+    private TopK scanAll(Query query, int limit) {
+        return size >= parallelThreshold
+            ? ForkJoinPool.commonPool().invoke(new ScanTask(query, 0, size, limit))
+            : scan(query, 0, size, limit);
+    }
+
+    // Caller must hold the read lock (or run on behalf of a thread that does)
+    private TopK scan(Query query, int from, int to, int limit) {
+        TopK top = new TopK(limit);
+        for (int row = from; row < to; row++) {
+            double score = score(query, row);
+            if (score > 0) {
+                top.offer(row, score);
+            }
+        }
+        return top;
+    }
+
+    // Caller must hold the read lock; rows ascending
+    private TopK scanRows(Query query, int[] rows, int limit) {
+        TopK top = new TopK(limit);
+        for (int row : rows) {
+            double score = score(query, row);
+            if (score > 0) {
+                top.offer(row, score);
+            }
+        }
+        return top;
+    }
+
+    private static boolean containedIn(int[] ids, long[] pantryBits) {
+        if (ids.length == 0) {
+            return false;
+        }
+        for (int id : ids) {
+            if ((pantryBits[id >>> 6] & (1L << id)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Jaccard similarity of the row's ingredients with the user's, or 0 if the row
+     *         fails a filter or shares no ingredient
+     */
+    private double score(Query query, int row) {
+        if (query.cuisine != NO_VALUE && cuisine[row] != query.cuisine) {
+            return 0;
+        }
+        if (query.difficulty != NO_VALUE && difficulty[row] != query.difficulty) {
+            return 0;
+        }
+        // Recipes without a time pass the time filter
+        if (timeMinutes[row] > query.maxTimeMinutes) {
+            return 0;
+        }
+
+        long[] userBits = query.userBits;
+        int[] ids = ingredients[row];
+        int shared = 0;
+        for (int id : ids) {
+            if ((userBits[id >>> 6] & (1L << id)) != 0) {
+                shared++;
+            }
+        }
+        if (shared == 0) {
+            return 0;
+        }
+
+        // Jaccard: |R ∩ U| / |R ∪ U|
+        return (double) shared / (ids.length + query.userCount - shared);
+    }
+
+    // userIds: the user's ingredients known to the store; userCount also counts unknown ones
+    private record Query(long[] userBits, int[] userIds, int userCount, int cuisine, int difficulty, int maxTimeMinutes) {
+    }
+
+    /**
+     * Immutable bitmaps over the rows of one store version: one per cuisine, difficulty,
+     * diet tag and time bucket.
+     */
+    private record FacetBitmaps(long version, int rows, List<String> cuisineNames, Map<String, Integer> dietTagIds,
+                                BitSet[] byCuisine, BitSet[] byDifficulty, BitSet[] byDietTag,
+                                BitSet[] byTimeBucket, int[] timeMinutes) {
+
+        // Rows passing every non-null filter
+        BitSet all(BitSet... filters) {
+            BitSet result = new BitSet(rows);
+            result.set(0, rows);
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        BitSet withinTime(int maxTime) {
+            BitSet result = new BitSet(rows);
+            for (int row = 0; row < rows; row++) {
+                if (timeMinutes[row] != NO_VALUE && timeMinutes[row] <= maxTime) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Best rows seen so far, ordered by score descending, then row ascending.
+     */
+    static class TopK {
+        final int[] rows;
+        final double[] scores;
+        int count;
+
+        TopK(int limit) {
+            rows = new int[limit];
+            scores = new double[limit];
+        }
+
+        void offer(int row, double score) {
+            int position = count;
+            while (position > 0 && (score > scores[position - 1]
+                    || (score == scores[position - 1] && row < rows[position - 1]))) {
+                position--;
+            }
+            if (position >= rows.length) {
+                return;
+            }
+
+            int end = Math.min(count, rows.length - 1);
+            System.arraycopy(rows, position, rows, position + 1, end - position);
+            System.arraycopy(scores, position, scores, position + 1, end - position);
+            rows[position] = row;
+            scores[position] = score;
+            count = Math.min(count + 1, rows.length);
+        }
+
+        TopK merge(TopK other) {
+            for (int i = 0; i < other.count; i++) {
+                offer(other.rows[i], other.scores[i]);
+            }
+            return this;
+        }
+    }
+
+    private class ScanTask extends RecursiveTask<TopK> {
+        private final Query query;
+        private final int from;
+        private final int to;
+        private final int limit;
+
+        ScanTask(Query query, int from, int to, int limit) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= CHUNK_ROWS) {
+                return scan(query, from, to, limit);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(query, from, middle, limit);
+            left.fork();
+            TopK right = new ScanTask(query, middle, to, limit).compute();
+            return left.join().merge(right);
+        }
+    }
+}
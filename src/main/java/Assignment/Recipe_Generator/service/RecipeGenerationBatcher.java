@@ -0,0 +1,242 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-batching dispatcher for single-recipe LLM generation. Compatible requests (same
+ * cuisine, diet tags, difficulty, time limit and servings) arriving within a short window are
+ * gathered (bounded by batch size and wait time) and sent as one multi-recipe LLM call; the
+ * parsed recipes are handed back to each waiting caller. Requests the batch call did not
+ * produce a recipe for fall back to an individual call.
+ *
+ * A caller whose generation has not been picked up by a batch within result-timeout-ms takes
+ * it back and calls directly; once a batch has picked it up the caller waits for that result
+ * instead, so no request is ever generated twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeGenerationBatcher {
+
+    private final OpenRouterService openRouterService;
+
+    @Value("${openrouter.batching.enabled:false}")
+    private boolean enabled;
+
+    @Value("${openrouter.batching.max-size:6}")
+    private int maxBatchSize;
+
+    @Value("${openrouter.batching.max-wait-ms:25}")
+    private long maxWaitMs;
+
+    @Value("${openrouter.batching.workers:4}")
+    private int workers;
+
+    @Value("${openrouter.batching.result-timeout-ms:60000}")
+    private long resultTimeoutMs;
+
+    // Compatibility key -> requests waiting to be batched, oldest group first
+    private final Map<BatchKey, List<PendingGeneration>> pending = new LinkedHashMap<>();
+
+    private ScheduledExecutorService timer;
+    private ExecutorService dispatcher;
+
+    /**
+     * Generate a single recipe, possibly as part of a batch with other concurrent requests.
+     * Same contract as {@link OpenRouterService#generateSingleRecipe}.
+     */
+    public List<Recipe> generate(RecipeRequest request, String userId, List<String> excludeTitles) {
+        if (!enabled) {
+            return openRouterService.generateSingleRecipe(request, userId, excludeTitles);
+        }
+
+        PendingGeneration generation = new PendingGeneration(request, userId, excludeTitles);
+        enqueue(generation);
+
+        try {
+            try {
+                return generation.result.get(resultTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (withdraw(generation)) {
+                    // Never reached a batch call, so nothing else will generate it
+                    log.warn("Batched recipe generation not started within {} ms, generating directly", resultTimeoutMs);
+                    return openRouterService.generateSingleRecipe(request, userId, excludeTitles);
+                }
+                // A batch call is already generating it and always completes the result
+                return generation.result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            log.error("Batched recipe generation failed", e.getCause());
+            return Collections.emptyList();
+        }
+    }
+
+    private void enqueue(PendingGeneration generation) {
+        List<PendingGeneration> ready = null;
+        BatchKey key = BatchKey.of(generation.request);
+
+        synchronized (pending) {
+            List<PendingGeneration> group = pending.computeIfAbsent(key, k -> new ArrayList<>());
+            group.add(generation);
+            if (group.size() >= maxBatchSize) {
+                ready = pending.remove(key);
+            } else if (group.size() == 1) {
+                timer.schedule(() -> flushPending(key, group), maxWaitMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    private void flushPending(BatchKey key, List<PendingGeneration> group) {
+        synchronized (pending) {
+            // Skip if the group was already dispatched when it filled up
+            if (!pending.remove(key, group)) {
+                return;
+            }
+        }
+        dispatch(group);
+    }
+
+    // Takes a generation back from the batcher; false if a batch has already started on it
+    private boolean withdraw(PendingGeneration generation) {
+        if (!generation.claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        synchronized (pending) {
+            BatchKey key = BatchKey.of(generation.request);
+            List<PendingGeneration> group = pending.get(key);
+            if (group != null) {
+                group.remove(generation);
+            }
+        }
+        return true;
+    }
+
+    private void dispatch(List<PendingGeneration> batch) {
+        dispatcher.execute(() -> {
+            // Generations withdrawn by their timed-out callers are left out
+            List<PendingGeneration> claimed = batch.stream()
+                .filter(generation -> generation.claimed.compareAndSet(false, true))
+                .collect(Collectors.toList());
+            if (claimed.isEmpty()) {
+                return;
+            }
+            try {
+                runBatch(claimed);
+            } catch (Throwable e) {
+                claimed.forEach(generation -> generation.result.completeExceptionally(e));
+            }
+        });
+    }
+
+    private void runBatch(List<PendingGeneration> batch) {
+        if (batch.size() == 1) {
+            generateIndividually(batch.get(0));
+            return;
+        }
+
+        log.info("Dispatching batch of {} recipe generation requests", batch.size());
+
+        List<List<Recipe>> results = openRouterService.generateRecipeBatch(
+            batch.stream().map(generation -> generation.request).collect(Collectors.toList()),
+            batch.stream().map(generation -> generation.excludeTitles).collect(Collectors.toList()),
+            batch.stream().map(generation -> generation.userId).collect(Collectors.toList()));
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingGeneration generation = batch.get(i);
+            List<Recipe> recipes = results.get(i);
+            if (!recipes.isEmpty()) {
+                generation.result.complete(recipes);
+            } else {
+                // The batch response had no usable section for this request
+                dispatcher.execute(() -> generateIndividually(generation));
+            }
+        }
+    }
+
+    // Always completes the generation's future, so its caller never waits on a lost result
+    private void generateIndividually(PendingGeneration generation) {
+        try {
+            generation.result.complete(
+                openRouterService.generateSingleRecipe(generation.request, generation.userId, generation.excludeTitles));
+        } catch (Throwable e) {
+            generation.result.completeExceptionally(e);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recipe-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "recipe-batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Requests that can share one batch prompt: everything but the ingredients must agree.
+     */
+    private record BatchKey(String cuisine, Set<String> dietTags, Recipe.Difficulty difficulty,
+                            Integer maxTimeMinutes, Integer servings) {
+
+        static BatchKey of(RecipeRequest request) {
+            Set<String> dietTags = request.getDietTags() == null ? Set.of() : request.getDietTags().stream()
+                .filter(Objects::nonNull)
+                .map(tag -> tag.trim().toLowerCase())
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+            return new BatchKey(RecipeCatalogListener.normalizeCuisine(request.getCuisine()), dietTags,
+                request.getDifficulty(), request.getMaxTimeMinutes(), request.getServings());
+        }
+    }
+
+    private static class PendingGeneration {
+        private final RecipeRequest request;
+        private final String userId;
+        private final List<String> excludeTitles;
+        private final CompletableFuture<List<Recipe>> result = new CompletableFuture<>();
+        // Set by the batch that generates it, or by its caller taking it back after a timeout
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingGeneration(RecipeRequest request, String userId, List<String> excludeTitles) {
+            this.request = request;
+            this.userId = userId;
+            this.excludeTitles = excludeTitles;
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package Assignment.Recipe_Generator.service;
 
+import Assignment.Recipe_Generator.dto.CookNowRequest;
+import Assignment.Recipe_Generator.dto.CursorPage;
+import Assignment.Recipe_Generator.dto.FacetCounts;
+import Assignment.Recipe_Generator.dto.RatingSummary;
 import Assignment.Recipe_Generator.dto.RecipeRequest;
 import Assignment.Recipe_Generator.dto.RecipeResponse;
+import Assignment.Recipe_Generator.dto.RecipeSuggestion;
+import Assignment.Recipe_Generator.dto.ValueCount;
 import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
 import Assignment.Recipe_Generator.repository.RecipeRepository;
 import Assignment.Recipe_Generator.service.IngredientService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +35,12 @@ public class RecipeService {
 
     private final LogService logService;
     private final IngredientService ingredientService;
+    private final RecipeGenerationBatcher recipeGenerationBatcher;
+    private final RecipeCatalogListener recipeCatalogListener;
+    private final RecipeFeatureStore recipeFeatureStore;
+    private final RecipeTitleIndex recipeTitleIndex;
+    private final RatingService ratingService;
+    private final LuceneRecipeIndex luceneRecipeIndex;
 
     @Value("${recipe.score.min:0.60}")
     private double scoreMin;
@@ -49,33 +64,13 @@ public class RecipeService {
 
         log.info("Ingredient analysis - Matched: {}, Unmatched: {}", matchedIngredients.size(), unmatchedIngredients.size());
 
-        // Step 1: Find DB recipes with at least one ingredient match AND apply filters
-        List<Recipe> allDbRecipes = recipeRepository.findAll();
-        List<Recipe> dbRecipesWithMatch = allDbRecipes.stream()
-            .filter(recipe -> {
-                // Check if at least one ingredient matches
-                Set<String> recipeIngredients = recipe.getIngredients().stream()
-                    .map(ing -> ing.getName().toLowerCase())
-                    .collect(Collectors.toSet());
-                
-                Set<String> userIngredientsLower = request.getIngredients().stream()
-                    .map(String::toLowerCase)
-                    .collect(Collectors.toSet());
-                
-                // Check for intersection (at least one match)
-                Set<String> intersection = new HashSet<>(recipeIngredients);
-                intersection.retainAll(userIngredientsLower);
-                return !intersection.isEmpty();
-            })
-            .filter(recipe -> applyFilters(recipe, request)) // Apply user filters
-            .sorted((r1, r2) -> {
-                // Sort by ingredient match percentage (highest first)
-                double match1 = ingredientService.calculateIngredientMatchPercentage(request.getIngredients(), r1);
-                double match2 = ingredientService.calculateIngredientMatchPercentage(request.getIngredients(), r2);
-                return Double.compare(match2, match1);
-            })
-            .limit(3) // Take top 3 DB recipes
-            .collect(Collectors.toList());
+        // Step 1: Find DB recipes with at least one ingredient match AND apply filters,
+        // ranked by ingredient match percentage (highest first) over the feature store
+        Set<String> userIngredientKeys = ingredientService.normalizeUserIngredients(request.getIngredients());
+        List<RecipeFeatureStore.Match> topMatches = recipeFeatureStore.topMatches(request, userIngredientKeys, 3); // Take top 3 DB recipes
+        List<Recipe> dbRecipesWithMatch = findAllByIdInOrder(topMatches.stream()
+            .map(RecipeFeatureStore.Match::recipeId)
+            .collect(Collectors.toList()));
         
         log.info("Step 1 - Found {} DB recipes with at least one ingredient match", dbRecipesWithMatch.size());
 
@@ -111,7 +106,7 @@ public class RecipeService {
             llmRecipes.forEach(r -> excludeTitles.add(r.getTitle()));
 
             for (int i = 0; i < needed; i++) {
-                List<Recipe> generated = openRouterService.generateSingleRecipe(request, userId, new ArrayList<>(excludeTitles));
+                List<Recipe> generated = recipeGenerationBatcher.generate(request, userId, new ArrayList<>(excludeTitles));
                 if (!generated.isEmpty()) {
                     Recipe recipe = generated.get(0);
                     recipe = scaleRecipeForServings(recipe, request.getServings());
@@ -198,7 +193,7 @@ public class RecipeService {
 
     private List<ScoredRecipe> findMatchingRecipesFromDB(RecipeRequest request) {
         List<Recipe> allRecipes = recipeRepository.findAll();
-        Set<String> availableIngredients = new HashSet<>(request.getIngredients());
+        Set<String> availableIngredients = ingredientService.normalizeUserIngredients(request.getIngredients());
         
         return allRecipes.stream()
             .map(recipe -> new ScoredRecipe(recipe, calculateMatchScore(recipe, request, availableIngredients)))
@@ -209,13 +204,10 @@ public class RecipeService {
 
     private double calculateMatchScore(Recipe recipe, RecipeRequest request, Set<String> availableIngredients) {
         // Get recipe ingredients names
-        Set<String> recipeIngredients = recipe.getIngredients().stream()
-            .map(ing -> ing.getName().toLowerCase())
-            .collect(Collectors.toSet());
+        Set<String> recipeIngredients = ingredientService.recipeIngredientKeys(recipe);
         
-        Set<String> normalizedAvailable = availableIngredients.stream()
-            .map(String::toLowerCase)
-            .collect(Collectors.toSet());
+        // Already normalized by the caller
+        Set<String> normalizedAvailable = availableIngredients;
         
         // Calculate Jaccard similarity
         Set<String> intersection = new HashSet<>(recipeIngredients);
@@ -315,72 +307,208 @@ public class RecipeService {
 
     public Page<Recipe> searchRecipes(String query, Set<String> dietTags, String cuisine, 
                                     Recipe.Difficulty difficulty, Integer maxTime, Pageable pageable) {
+        if (luceneRecipeIndex.isEnabled()) {
+            // Embedded index: ranked text match and filters, then load the page's documents
+            LuceneRecipeIndex.SearchHits hits = luceneRecipeIndex.search(query, dietTags, cuisine, difficulty, maxTime, pageable);
+            return new PageImpl<>(findAllByIdInOrder(hits.recipeIds()), pageable, hits.total());
+        }
         if (query != null && !query.isEmpty()) {
-            return recipeRepository.findByTextSearch(query, pageable);
+            // Text match and filters in one query, by relevance
+            return recipeRepository.searchByText(query, dietTags, cuisine, difficulty, maxTime, pageable);
         } else {
-            // Use filter-based search
-            List<Recipe> filtered = recipeRepository.findByFilters(dietTags, cuisine, difficulty, maxTime);
-            // Convert to Page (simplified implementation)
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), filtered.size());
-            List<Recipe> pageContent = start < filtered.size() ? filtered.subList(start, end) : Collections.emptyList();
-            
-            return new org.springframework.data.domain.PageImpl<>(pageContent, pageable, filtered.size());
+            // Use filter-based search (skip/limit and count run in the database)
+            return recipeRepository.findByFilters(dietTags, cuisine, difficulty, maxTime, pageable);
         }
     }
 
-    public Recipe saveRecipe(Recipe recipe) {
-        return recipeRepository.save(recipe);
+    /**
+     * Filter-based search with keyset pagination, for deep paging: each page continues
+     * after the last id of the previous one instead of skipping over it.
+     * @param cursor nextCursor of the previous page, or null/empty for the first page
+     * @throws IllegalArgumentException if the cursor is not a valid recipe id
+     */
+    public CursorPage<Recipe> searchRecipesAfter(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty,
+                                                 Integer maxTime, String cursor, int size) {
+        String afterId = cursor != null && !cursor.isEmpty() ? cursor : null;
+        // Validated here only: recipe ids are ObjectIds, and anything else would compare by BSON
+        // type order in the repository (every ObjectId sorts after every string)
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            throw new IllegalArgumentException("Invalid cursor: " + afterId);
+        }
+
+        // Fetch one extra to know whether another page exists
+        List<Recipe> recipes = recipeRepository.findByFiltersAfter(dietTags, cuisine, difficulty, maxTime, afterId, size + 1);
+        boolean hasMore = recipes.size() > size;
+        List<Recipe> content = hasMore ? new ArrayList<>(recipes.subList(0, size)) : recipes;
+
+        return CursorPage.<Recipe>builder()
+            .content(content)
+            .size(content.size())
+            .nextCursor(hasMore ? content.get(content.size() - 1).getId() : null)
+            .build();
     }
 
-    public Optional<Recipe> findById(String id) {
-        return recipeRepository.findById(id);
+    /**
+     * Explain the filter query and summarize its winning plan
+     * @return Plan stages in execution order (leaf first), index names used and whether the collection is scanned
+     */
+    public Map<String, Object> explainSearchFilters(Set<String> dietTags, String cuisine,
+                                                    Recipe.Difficulty difficulty, Integer maxTime) {
+        org.bson.Document explain = recipeRepository.explainFilters(dietTags, cuisine, difficulty, maxTime);
+        Object queryPlanner = explain.get("queryPlanner");
+        Object winningPlan = queryPlanner instanceof org.bson.Document planner ? planner.get("winningPlan") : null;
+
+        List<String> stages = new ArrayList<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collectPlanStages(winningPlan, stages, indexes);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("stages", stages);
+        summary.put("indexes", indexes);
+        summary.put("collectionScan", stages.contains("COLLSCAN"));
+        summary.put("winningPlan", winningPlan);
+        return summary;
     }
 
-    public List<Recipe> findAll() {
-        return recipeRepository.findAll();
+    // Walks nested plan documents (inputStage, inputStages, queryPlan), leaves first
+    static void collectPlanStages(Object node, List<String> stages, Set<String> indexes) {
+        if (node instanceof org.bson.Document document) {
+            for (Object child : document.values()) {
+                collectPlanStages(child, stages, indexes);
+            }
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+                if (document.get("indexName") instanceof String indexName) {
+                    indexes.add(indexName);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object child : list) {
+                collectPlanStages(child, stages, indexes);
+            }
+        }
     }
 
-    public void deleteById(String id) {
-        recipeRepository.deleteById(id);
+    /**
+     * Facet counts for a search filter selection, from the in-memory feature store
+     * (or the search index when the Lucene engine is enabled)
+     */
+    public FacetCounts getSearchFacets(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        if (luceneRecipeIndex.isEnabled()) {
+            return luceneRecipeIndex.facetCounts(dietTags, cuisine, difficulty, maxTime);
+        }
+        return recipeFeatureStore.facetCounts(dietTags, cuisine, difficulty, maxTime);
     }
 
     /**
-     * Apply user filters to a recipe
-     * @param recipe Recipe to check
-     * @param request User's request with filters
-     * @return true if recipe passes all filters
+     * Search-as-you-type title suggestions from memory, most popular first; with the Lucene
+     * engine, typo-tolerant word matches from the search index, best match first
      */
-    private boolean applyFilters(Recipe recipe, RecipeRequest request) {
-        // We intentionally do NOT filter by diet tags here.
-        // Any dietary adaptation will be handled downstream by the LLM so that
-        // recipes that do not yet match the requested diet can still be
-        // considered and modified. This prevents valid recipes from being
-        // excluded prematurely.
-
-        // Cuisine filter
-        if (request.getCuisine() != null && !request.getCuisine().isEmpty()) {
-            if (recipe.getCuisine() == null || 
-                !recipe.getCuisine().toLowerCase().contains(request.getCuisine().toLowerCase())) {
-                return false;
-            }
+    public List<RecipeSuggestion> suggestTitles(String query, int limit) {
+        if (luceneRecipeIndex.isEnabled()) {
+            return luceneRecipeIndex.suggest(query, limit);
         }
+        return recipeTitleIndex.suggest(query, limit);
+    }
 
-        // Difficulty filter
-        if (request.getDifficulty() != null) {
-            if (recipe.getDifficulty() == null || recipe.getDifficulty() != request.getDifficulty()) {
-                return false;
-            }
+    /**
+     * Recipes that can be made with only the given pantry ingredients, answered from the
+     * feature store's ingredient bitsets
+     * @return Up to request.limit recipes, largest first or (sort=rating) best rated first,
+     *         unrated recipes last
+     */
+    public List<Recipe> findCookableRecipes(CookNowRequest request) {
+        Set<String> pantryKeys = ingredientService.normalizeUserIngredients(request.getIngredients());
+        List<RecipeFeatureStore.Match> matches = recipeFeatureStore.cookableWith(pantryKeys);
+        int limit = request.getLimit() != null ? request.getLimit() : 20;
+
+        List<String> ids;
+        if ("rating".equalsIgnoreCase(request.getSort())) {
+            Map<String, RatingSummary> ratings = ratingService.getRatingSummaries(matches.stream()
+                .map(RecipeFeatureStore.Match::recipeId)
+                .collect(Collectors.toList()));
+            Comparator<String> byRating = Comparator.comparingDouble(
+                (String id) -> ratings.containsKey(id) ? ratings.get(id).getAverageRating() : -1.0)
+                .thenComparingLong(id -> ratings.containsKey(id) ? ratings.get(id).getRatingCount() : 0L)
+                .reversed();
+            // Stable sort: equally rated recipes stay largest first
+            ids = matches.stream()
+                .map(RecipeFeatureStore.Match::recipeId)
+                .sorted(byRating)
+                .limit(limit)
+                .collect(Collectors.toList());
+        } else {
+            ids = matches.stream()
+                .limit(limit)
+                .map(RecipeFeatureStore.Match::recipeId)
+                .collect(Collectors.toList());
         }
 
-        // Max time filter
-        if (request.getMaxTimeMinutes() != null && recipe.getTimeMinutes() != null) {
-            if (recipe.getTimeMinutes() > request.getMaxTimeMinutes()) {
-                return false;
-            }
+        log.info("Cook now: {} pantry ingredients, {} cookable recipes", pantryKeys.size(), matches.size());
+        return findAllByIdInOrder(ids);
+    }
+
+    public Recipe saveRecipe(Recipe recipe) {
+        return recipeRepository.save(recipe);
+    }
+
+    /**
+     * @return Counter that increases whenever a recipe is saved or deleted
+     */
+    public long getCatalogVersion() {
+        return recipeCatalogListener.getCatalogVersion();
+    }
+
+    /**
+     * @return Counter that changes whenever this recipe is saved or deleted
+     */
+    public long getRecipeVersion(String recipeId) {
+        return recipeCatalogListener.getRecipeVersion(recipeId);
+    }
+
+    /**
+     * @return Distinct cuisines with recipe counts, most common first (computed in MongoDB)
+     */
+    public List<ValueCount> getCuisineCounts() {
+        return recipeRepository.countCuisines();
+    }
+
+    /**
+     * @return Distinct ingredient names with recipe counts, most common first (computed in MongoDB)
+     */
+    public List<ValueCount> getIngredientCounts() {
+        return recipeRepository.countIngredientNames();
+    }
+
+    public long countRecipes() {
+        return recipeRepository.count();
+    }
+
+    public Optional<Recipe> findById(String id) {
+        return recipeRepository.findById(id);
+    }
+
+    /**
+     * Load recipes by id, keeping the order of the ids and skipping ids no longer present
+     */
+    private List<Recipe> findAllByIdInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
+        Map<String, Recipe> byId = new HashMap<>();
+        recipeRepository.findAllById(ids).forEach(recipe -> byId.put(recipe.getId(), recipe));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    public List<Recipe> findAll() {
+        return recipeRepository.findAll();
+    }
 
-        return true;
+    public void deleteById(String id) {
+        recipeRepository.deleteById(id);
     }
 
     /**
@@ -522,20 +650,16 @@ public class RecipeService {
             return 0.0;
         }
 
-        Set<String> userIngredientsSet = userIngredients.stream()
-            .map(String::toLowerCase)
-            .collect(Collectors.toSet());
+        Set<String> userIngredientsSet = ingredientService.normalizeUserIngredients(userIngredients);
 
-        Set<String> recipeIngredientsSet = recipe.getIngredients().stream()
-            .map(ingredient -> ingredient.getName().toLowerCase())
-            .collect(Collectors.toSet());
+        Set<String> recipeIngredientsSet = ingredientService.recipeIngredientKeys(recipe);
 
         // Calculate how many recipe ingredients the user has
         Set<String> intersection = new HashSet<>(userIngredientsSet);
         intersection.retainAll(recipeIngredientsSet);
 
         // Coverage = user's ingredients that match recipe / total recipe ingredients
-        return (double) intersection.size() / recipeIngredientsSet.size();
+        return recipeIngredientsSet.isEmpty() ? 0.0 : (double) intersection.size() / recipeIngredientsSet.size();
     }
 
     // Helper class for scored recipes
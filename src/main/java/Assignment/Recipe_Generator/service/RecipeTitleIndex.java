@@ -0,0 +1,135 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.RecipeSuggestion;
+import Assignment.Recipe_Generator.dto.ValueCount;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.FavoriteRepository;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory search-as-you-type index over recipe titles, weighted by popularity (number of
+ * users who saved the recipe). Matches title prefixes, word prefixes within titles and, for
+ * 3+ characters, substrings; see {@link PrefixSuggestIndex}.
+ *
+ * Loaded on first use from titles and favorite counts only, then kept in sync from
+ * {@link RecipeCatalogChangedEvent}s and from {@link FavoriteService} as favorites change.
+ * A reload builds a new index and swaps it in when complete, so suggestions never come
+ * from a partly loaded one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeTitleIndex {
+
+    // Maximum suggestions per query
+    private static final int SUGGEST_TOP_K = 20;
+
+    private final RecipeRepository recipeRepository;
+    private final FavoriteRepository favoriteRepository;
+
+    // Replaced as a whole on load; only accessed under the lock
+    private Map<String, String> titles = new HashMap<>();
+    private Map<String, Long> popularity = new HashMap<>();
+
+    private volatile PrefixSuggestIndex index = new PrefixSuggestIndex(SUGGEST_TOP_K);
+
+    private volatile boolean loaded;
+
+    public List<RecipeSuggestion> suggest(String query, int limit) {
+        ensureLoaded();
+        return index.suggest(query, Math.min(limit, SUGGEST_TOP_K)).stream()
+            .map(suggestion -> new RecipeSuggestion(suggestion.id(), suggestion.text()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Record that a recipe gained (+1) or lost (-1) a favorite.
+     */
+    public synchronized void adjustPopularity(String recipeId, int delta) {
+        if (!loaded) {
+            return;
+        }
+        long count = popularity.merge(recipeId, (long) delta, Long::sum);
+        if (count <= 0) {
+            popularity.remove(recipeId);
+        }
+        String title = titles.get(recipeId);
+        if (title != null) {
+            index.put(recipeId, title, Math.max(count, 0));
+        }
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(RecipeCatalogChangedEvent event) {
+        if (!loaded) {
+            // Nothing to maintain yet; the next load reads the current state
+            return;
+        }
+
+        switch (event.getType()) {
+            case SAVED -> put(event.getRecipe());
+            case DELETED -> {
+                titles.remove(event.getRecipeId());
+                index.remove(event.getRecipeId());
+            }
+            case RESET -> loaded = false;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        Map<String, Long> loadedPopularity = new HashMap<>();
+        for (ValueCount count : favoriteRepository.countByRecipe()) {
+            loadedPopularity.put(count.getValue(), count.getCount());
+        }
+
+        // Built aside and swapped in, so suggestions keep using the previous index until this one is complete
+        Map<String, String> loadedTitles = new HashMap<>();
+        PrefixSuggestIndex loadedIndex = new PrefixSuggestIndex(SUGGEST_TOP_K);
+        for (Recipe recipe : recipeRepository.findAllTitles()) {
+            put(recipe, loadedTitles, loadedPopularity, loadedIndex);
+        }
+
+        popularity = loadedPopularity;
+        titles = loadedTitles;
+        index = loadedIndex;
+        loaded = true;
+        log.info("Loaded recipe title index: {} titles", loadedTitles.size());
+    }
+
+    // Caller must hold the lock
+    private void put(Recipe recipe) {
+        put(recipe, titles, popularity, index);
+    }
+
+    private static void put(Recipe recipe, Map<String, String> titles, Map<String, Long> popularity,
+                            PrefixSuggestIndex index) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        if (recipe.getTitle() == null || recipe.getTitle().isBlank()) {
+            titles.remove(recipe.getId());
+            index.remove(recipe.getId());
+            return;
+        }
+        titles.put(recipe.getId(), recipe.getTitle());
+        index.put(recipe.getId(), recipe.getTitle(), popularity.getOrDefault(recipe.getId(), 0L));
+    }
+}
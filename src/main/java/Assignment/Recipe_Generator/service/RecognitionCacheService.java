@@ -0,0 +1,231 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Result cache in front of {@link OpenRouterService#recognizeIngredients}, keyed on the
+ * image's perceptual hash. A new upload within max-distance bits (Hamming distance) of a
+ * cached image reuses that image's recognition instead of making another multimodal call.
+ *
+ * Lookups use a multi-index over the four 16-bit bands of the hash: any hash within 3 bits
+ * of a cached one must match it exactly in at least one band, so only those candidates are
+ * compared. Larger thresholds fall back to a linear scan. Entries expire after the TTL and
+ * the least recently used entry is evicted when the cache is full.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecognitionCacheService {
+
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = 16;
+
+    private final OpenRouterService openRouterService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${openrouter.recognition-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openrouter.recognition-cache.max-distance:3}")
+    private int maxDistance;
+
+    @Value("${openrouter.recognition-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${openrouter.recognition-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    // Insertion/access ordered for LRU eviction
+    private final LinkedHashMap<Long, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, Set<Long>>[] bandIndex = new Map[BANDS];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong latencySavedMs = new AtomicLong();
+
+    {
+        for (int band = 0; band < BANDS; band++) {
+            bandIndex[band] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Recognize ingredients, reusing the result for a near-identical earlier image if cached.
+     */
+    public IngredientRecognition recognizeIngredients(PreparedImage image, String userId) {
+        Long hash = image.getPerceptualHash();
+        if (!enabled || hash == null) {
+            return openRouterService.recognizeIngredients(image, userId);
+        }
+
+        CacheEntry cached = lookup(hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            latencySavedMs.addAndGet(cached.latencyMs);
+            countRequest("hit");
+            log.info("Recognition cache hit (distance {}), saved ~{}ms", Long.bitCount(cached.hash ^ hash), cached.latencyMs);
+            return copy(cached.recognition);
+        }
+
+        misses.incrementAndGet();
+        countRequest("miss");
+
+        long start = System.currentTimeMillis();
+        IngredientRecognition recognition = openRouterService.recognizeIngredients(image, userId);
+        long latencyMs = System.currentTimeMillis() - start;
+
+        // Failed recognitions come back empty; don't pin those
+        if (recognition.getIngredients() != null && !recognition.getIngredients().isEmpty()) {
+            store(new CacheEntry(hash, copy(recognition), latencyMs, System.currentTimeMillis()));
+        }
+        return recognition;
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return Map.of(
+            "enabled", enabled,
+            "entries", size,
+            "hits", hitCount,
+            "misses", misses.get(),
+            "hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups,
+            "latencySavedMs", latencySavedMs.get(),
+            "maxDistance", maxDistance
+        );
+    }
+
+    private CacheEntry lookup(long hash) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Collection<Long> candidates = maxDistance <= BANDS - 1 ? bandCandidates(hash) : new ArrayList<>(entries.keySet());
+
+            CacheEntry best = null;
+            int bestDistance = Integer.MAX_VALUE;
+            for (Long candidate : candidates) {
+                int distance = Long.bitCount(candidate ^ hash);
+                if (distance > maxDistance || distance >= bestDistance) {
+                    continue;
+                }
+                CacheEntry entry = entries.get(candidate);
+                if (entry == null) {
+                    continue;
+                }
+                if (isExpired(entry, now)) {
+                    remove(candidate);
+                    continue;
+                }
+                best = entry;
+                bestDistance = distance;
+            }
+
+            if (best != null) {
+                // Refresh LRU position
+                entries.get(best.hash);
+            }
+            return best;
+        }
+    }
+
+    private Set<Long> bandCandidates(long hash) {
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> bucket = bandIndex[band].get(bandValue(hash, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        return candidates;
+    }
+
+    private void store(CacheEntry entry) {
+        synchronized (entries) {
+            if (entries.containsKey(entry.hash)) {
+                remove(entry.hash);
+            }
+            entries.put(entry.hash, entry);
+            for (int band = 0; band < BANDS; band++) {
+                bandIndex[band].computeIfAbsent(bandValue(entry.hash, band), key -> new HashSet<>()).add(entry.hash);
+            }
+
+            while (entries.size() > maxEntries) {
+                remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    // Caller must hold the entries lock
+    private void remove(long hash) {
+        entries.remove(hash);
+        for (int band = 0; band < BANDS; band++) {
+            int value = bandValue(hash, band);
+            Set<Long> bucket = bandIndex[band].get(value);
+            if (bucket != null) {
+                bucket.remove(hash);
+                if (bucket.isEmpty()) {
+                    bandIndex[band].remove(value);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(CacheEntry entry, long now) {
+        return now - entry.createdAt > ttlMinutes * 60_000;
+    }
+
+    private static int bandValue(long hash, int band) {
+        return (int) ((hash >>> (band * BAND_BITS)) & 0xFFFF);
+    }
+
+    private void countRequest(String result) {
+        Counter.builder("llm.recognition.cache")
+            .description("Ingredient recognition cache lookups")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    // Callers get their own copy so the cached result can't be modified through them
+    private static IngredientRecognition copy(IngredientRecognition recognition) {
+        List<IngredientRecognition.RecognizedIngredient> ingredients = recognition.getIngredients() == null
+            ? new ArrayList<>()
+            : recognition.getIngredients().stream()
+                .map(ingredient -> IngredientRecognition.RecognizedIngredient.builder()
+                    .name(ingredient.getName())
+                    .confidence(ingredient.getConfidence())
+                    .build())
+                .collect(Collectors.toList());
+        return IngredientRecognition.builder().ingredients(ingredients).build();
+    }
+
+    private static class CacheEntry {
+        private final long hash;
+        private final IngredientRecognition recognition;
+        private final long latencyMs;
+        private final long createdAt;
+
+        CacheEntry(long hash, IngredientRecognition recognition, long latencyMs, long createdAt) {
+            this.hash = hash;
+            this.recognition = recognition;
+            this.latencyMs = latencyMs;
+            this.createdAt = createdAt;
+        }
+    }
+}
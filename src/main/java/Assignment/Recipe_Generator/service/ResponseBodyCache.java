@@ -0,0 +1,148 @@
+package Assignment.Recipe_Generator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON bodies for read endpoints whose data only changes with a known version
+ * (catalog change counter, master ingredient version).
+ *
+ * Each body is serialized once per version, and gzipped once if large enough, and served
+ * as bytes with an ETag hashed from the JSON (as Spring's ShallowEtagHeaderFilter does), so
+ * every instance serving the same data hands out the same ETag, also across restarts.
+ * Conditional requests for a cached version whose If-None-Match matches get 304 Not Modified
+ * without touching the data at all; versions only decide when a body is rebuilt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseBodyCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${http.response-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${http.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    // Access ordered for LRU eviction
+    private final LinkedHashMap<String, CachedBody> bodies = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param key     Identifies the resource (e.g. "recipe:42")
+     * @param version Version of the data behind the resource; a new version replaces the cached body
+     * @param body    Produces the response object on a cache miss; null means 404
+     * @param request Current request, for If-None-Match and Accept-Encoding
+     * @return 304, 404, or 200 with the (possibly gzipped) JSON body
+     */
+    public ResponseEntity<byte[]> respond(String key, long version, Supplier<Object> body, WebRequest request) {
+        CachedBody cached = get(key, version);
+        if (cached == null) {
+            Object value = body.get();
+            if (value == null) {
+                return ResponseEntity.notFound().build();
+            }
+            cached = serialize(version, value);
+            put(key, cached);
+        }
+
+        if (request.checkNotModified(cached.etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(cached.etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(cached.etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (cached.gzipped != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(cached.gzipped);
+        }
+        return response.body(cached.json);
+    }
+
+    /**
+     * Drop the cached body for a resource, e.g. after it was deleted.
+     */
+    public synchronized void evict(String key) {
+        bodies.remove(key);
+    }
+
+    private synchronized CachedBody get(String key, long version) {
+        CachedBody cached = bodies.get(key);
+        return cached != null && cached.version == version ? cached : null;
+    }
+
+    private synchronized void put(String key, CachedBody body) {
+        bodies.put(key, body);
+        while (bodies.size() > maxEntries) {
+            bodies.remove(bodies.keySet().iterator().next());
+        }
+    }
+
+    private CachedBody serialize(long version, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzipped = json.length >= gzipMinBytes ? gzip(json) : null;
+            // Weak: the gzipped and identity bodies are the same representation, not the same bytes
+            String etag = "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new CachedBody(version, etag, json, gzipped);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                // "gzip;q=0" explicitly refuses it
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record CachedBody(long version, String etag, byte[] json, byte[] gzipped) {
+    }
+}
@@ -4,6 +4,8 @@ import Assignment.Recipe_Generator.model.User;
 import Assignment.Recipe_Generator.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -25,6 +27,17 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
+    /**
+     * @return Id of the authenticated user of the current request, or null if anonymous
+     */
+    public String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return findByUsername(authentication.getName()).map(User::getId).orElse(null);
+        }
+        return null;
+    }
+
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -61,6 +61,10 @@ export const publicApi = {
       request(`/recipes?${new URLSearchParams(params)}`),
     getById: (id: string): Promise<Recipe> => 
       request<Recipe>(`/recipes/${id}`),
+    suggest: (query: string, limit = 10): Promise<{ id: string; title: string }[]> =>
+      request<{ id: string; title: string }[]>(`/recipes/suggest?${new URLSearchParams({ q: query, limit: String(limit) })}`),
+    cookNow: (ingredients: string[], sort: 'size' | 'rating' = 'size', limit = 20): Promise<any[]> =>
+      request<any[]>('/recipes/cook-now', { method: 'POST', body: JSON.stringify({ ingredients, sort, limit }) }),
     getRating: (id: string): Promise<any> => 
       request(`/recipes/${id}/rating`),
     getFavorite: (id: string): Promise<any> => 
@@ -72,6 +76,8 @@ export const publicApi = {
     },
     getMasterList: (): Promise<string[]> => 
       request<string[]>('/ingredients/master-list'),
+    suggest: (query: string, limit = 10): Promise<string[]> =>
+      request<string[]>(`/ingredients/suggest?${new URLSearchParams({ q: query, limit: String(limit) })}`),
     getSupportedFormats: (): Promise<any> => 
       request('/ingredients/supported-formats'),
   },
@@ -0,0 +1,17 @@
+package Assignment.Recipe_Generator;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Runs the application from the test classpath against the local OpenRouter simulator
+ * (openrouter-sim profile): ./mvnw spring-boot:test-run
+ */
+public class TestRecipeGeneratorApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.from(RecipeGeneratorApplication::main)
+			.withAdditionalProfiles("openrouter-sim")
+			.run(args);
+	}
+
+}
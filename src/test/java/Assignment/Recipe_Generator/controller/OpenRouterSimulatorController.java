@@ -0,0 +1,92 @@
+package Assignment.Recipe_Generator.controller;
+
+import Assignment.Recipe_Generator.service.OpenRouterSimulatorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local OpenRouter stand-in for load and performance testing. Enabled with the
+ * "openrouter-sim" profile, which also points openrouter.base-url at this controller.
+ */
+@RestController
+@RequestMapping("/sim/openrouter")
+@Profile("openrouter-sim")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "OpenRouter Simulator", description = "Deterministic local OpenRouter API for performance testing")
+public class OpenRouterSimulatorController {
+
+    private final OpenRouterSimulatorService simulatorService;
+    private final ObjectMapper objectMapper;
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @PostMapping("/chat/completions")
+    @Operation(summary = "Simulated chat completion (JSON or server-sent event stream)")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> chatCompletions(@RequestBody Map<String, Object> request) {
+        OpenRouterSimulatorService.SimulatedCall call = simulatorService.simulate(request);
+        CompletableFuture<ResponseEntity<StreamingResponseBody>> response = new CompletableFuture<>();
+
+        // Complete asynchronously so simulated latency does not hold a servlet thread
+        scheduler.schedule(() -> response.complete(toResponse(call)), call.latencyMs(), TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Every response is written as a stream so JSON and event-stream bodies share one return type
+    private ResponseEntity<StreamingResponseBody> toResponse(OpenRouterSimulatorService.SimulatedCall call) {
+        if (call.status() != 200) {
+            ResponseEntity.BodyBuilder error = ResponseEntity.status(call.status()).contentType(MediaType.APPLICATION_JSON);
+            if (call.status() == 429) {
+                error.header(HttpHeaders.RETRY_AFTER, "1");
+            }
+            Map<String, Object> errorBody = simulatorService.errorBody(call.status());
+            return error.body(outputStream -> objectMapper.writeValue(outputStream, errorBody));
+        }
+
+        if (!call.stream()) {
+            Map<String, Object> completion = simulatorService.completionBody(call);
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, completion));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            for (String chunk : simulatorService.streamChunks(call)) {
+                outputStream.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+                try {
+                    Thread.sleep(simulatorService.getStreamChunkDelayMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(body);
+    }
+}
@@ -0,0 +1,198 @@
+package Assignment.Recipe_Generator.controller;
+
+import Assignment.Recipe_Generator.dto.CursorPage;
+import Assignment.Recipe_Generator.dto.FacetCounts;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.service.FavoriteService;
+import Assignment.Recipe_Generator.service.RatingService;
+import Assignment.Recipe_Generator.service.RecipeService;
+import Assignment.Recipe_Generator.service.ResponseBodyCache;
+import Assignment.Recipe_Generator.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Handlers called directly, with a real {@link ResponseBodyCache} and no web context.
+ */
+@ExtendWith(MockitoExtension.class)
+class RecipeControllerUnitTest {
+
+    @Mock
+    private RecipeService recipeService;
+
+    @Mock
+    private RatingService ratingService;
+
+    @Mock
+    private FavoriteService favoriteService;
+
+    @Mock
+    private UserService userService;
+
+    private RecipeController recipeController;
+
+    @BeforeEach
+    void setUp() {
+        recipeController = newController();
+
+        lenient().when(recipeService.getCatalogVersion()).thenReturn(1L);
+        lenient().when(recipeService.getSearchFacets(any(), any(), any(), any())).thenReturn(FacetCounts.builder().total(3).build());
+    }
+
+    @Test
+    void testGetFacets_EquivalentSelectionsShareOneBody() {
+        // When
+        ResponseEntity<byte[]> first = getFacets(Set.of("Vegan", "Gluten-Free"), "Italian");
+        ResponseEntity<byte[]> second = getFacets(Set.of("gluten-free", "vegan"), "  italian ");
+
+        // Then
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertArrayEquals(first.getBody(), second.getBody());
+        verify(recipeService, times(1)).getSearchFacets(Set.of("gluten-free", "vegan"), "italian", Recipe.Difficulty.EASY, 30);
+    }
+
+    @Test
+    void testGetFacets_BlankFiltersAreNoFilters() {
+        // When
+        getFacets(null, null);
+        getFacets(Set.of(" "), "  ");
+
+        // Then
+        verify(recipeService, times(1)).getSearchFacets(isNull(), isNull(), eq(Recipe.Difficulty.EASY), eq(30));
+    }
+
+    @Test
+    void testGetRecipe_OtherRecipeChanges_KeepBodyAndETag() {
+        // Given: the recipe's own version stays put while the catalog moves on
+        when(recipeService.getRecipeVersion("r1")).thenReturn(3L);
+        when(recipeService.findById("r1")).thenReturn(Optional.of(recipe("r1", "Soup")));
+
+        // When
+        ResponseEntity<byte[]> first = getRecipe(recipeController, "r1", null);
+        ResponseEntity<byte[]> revalidated = getRecipe(recipeController, "r1", first.getHeaders().getETag());
+
+        // Then
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), revalidated.getHeaders().getETag());
+        verify(recipeService, times(1)).findById("r1");
+    }
+
+    @Test
+    void testGetRecipe_RecipeChanged_NewETag() {
+        // Given
+        when(recipeService.getRecipeVersion("r1")).thenReturn(3L, 4L);
+        when(recipeService.findById("r1")).thenReturn(Optional.of(recipe("r1", "Soup")), Optional.of(recipe("r1", "Stew")));
+
+        // When
+        ResponseEntity<byte[]> first = getRecipe(recipeController, "r1", null);
+        ResponseEntity<byte[]> second = getRecipe(recipeController, "r1", first.getHeaders().getETag());
+
+        // Then
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertNotEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetRecipe_ETagIsTheSameOnEveryInstance() {
+        // Given: two instances whose version counters disagree
+        RecipeController otherInstance = newController();
+        when(recipeService.getRecipeVersion("r1")).thenReturn(3L, 250L);
+        when(recipeService.findById("r1")).thenReturn(Optional.of(recipe("r1", "Soup")));
+
+        // When
+        ResponseEntity<byte[]> first = getRecipe(recipeController, "r1", null);
+        ResponseEntity<byte[]> fromOther = getRecipe(otherInstance, "r1", first.getHeaders().getETag());
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, fromOther.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), fromOther.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetRecipe_Missing_NotFound() {
+        // Given
+        when(recipeService.findById("gone")).thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<byte[]> response = getRecipe(recipeController, "gone", "W/\"stale\"");
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private RecipeController newController() {
+        ResponseBodyCache responseBodyCache = new ResponseBodyCache(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(responseBodyCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(responseBodyCache, "gzipMinBytes", 1024);
+        return new RecipeController(recipeService, ratingService, favoriteService, userService, responseBodyCache);
+    }
+
+    private static ResponseEntity<byte[]> getRecipe(RecipeController controller, String id, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/" + id);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return controller.getRecipe(id, new ServletWebRequest(request));
+    }
+
+    private static Recipe recipe(String id, String title) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        return recipe;
+    }
+
+    private ResponseEntity<byte[]> getFacets(Set<String> diet, String cuisine) {
+        return recipeController.getFacets(diet, 30, Recipe.Difficulty.EASY, cuisine,
+            new ServletWebRequest(new MockHttpServletRequest()));
+    }
+
+    @Test
+    void testSearchRecipesByCursor_MalformedCursor_BadRequest() {
+        // Given
+        when(recipeService.searchRecipesAfter(any(), any(), any(), any(), eq("not-an-id"), anyInt()))
+            .thenThrow(new IllegalArgumentException("Invalid cursor: not-an-id"));
+
+        // When
+        ResponseEntity<CursorPage<Recipe>> response = recipeController.searchRecipesByCursor("not-an-id", null, null, null, null, 20);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testSearchRecipesByCursor_ValidOrEmptyCursor() {
+        // Given
+        CursorPage<Recipe> page = CursorPage.<Recipe>builder().content(List.of()).size(0).build();
+        when(recipeService.searchRecipesAfter(any(), any(), any(), any(), any(), anyInt())).thenReturn(page);
+
+        // When
+        ResponseEntity<CursorPage<Recipe>> first = recipeController.searchRecipesByCursor("", null, null, null, null, 20);
+        ResponseEntity<CursorPage<Recipe>> next = recipeController.searchRecipesByCursor("650f1c2e9b1d4a3f8c7e6d5a", null, null, null, null, 20);
+
+        // Then
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.OK, next.getStatusCode());
+        verify(recipeService).searchRecipesAfter(null, null, null, null, "650f1c2e9b1d4a3f8c7e6d5a", 20);
+    }
+}
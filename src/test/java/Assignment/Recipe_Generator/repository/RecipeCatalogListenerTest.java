@@ -0,0 +1,62 @@
+package Assignment.Recipe_Generator.repository;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RecipeCatalogListenerTest {
+
+    private final RecipeCatalogListener listener = new RecipeCatalogListener(mock(ApplicationEventPublisher.class));
+
+    @Test
+    void testGetRecipeVersion_OnlyChangesWithThatRecipe() {
+        // Given
+        save("r1");
+        long r1Version = listener.getRecipeVersion("r1");
+        long r2Version = listener.getRecipeVersion("r2");
+
+        // When
+        save("r2");
+        delete("r3");
+
+        // Then
+        assertEquals(r1Version, listener.getRecipeVersion("r1"));
+        assertNotEquals(r2Version, listener.getRecipeVersion("r2"));
+        assertNotEquals(r2Version, listener.getRecipeVersion("r3"));
+        assertEquals(3, listener.getCatalogVersion());
+    }
+
+    @Test
+    void testGetRecipeVersion_ResetChangesEveryRecipe() {
+        // Given
+        save("r1");
+        long r1Version = listener.getRecipeVersion("r1");
+        long unknownVersion = listener.getRecipeVersion("r2");
+
+        // When
+        listener.onAfterDelete(new AfterDeleteEvent<>(new Document("source", "seed"), Recipe.class, "recipes"));
+        long afterReset = listener.getRecipeVersion("r1");
+        save("r1");
+
+        // Then
+        assertNotEquals(r1Version, afterReset);
+        assertNotEquals(unknownVersion, listener.getRecipeVersion("r2"));
+        assertNotEquals(afterReset, listener.getRecipeVersion("r1"));
+    }
+
+    private void save(String id) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        listener.onAfterSave(new AfterSaveEvent<>(recipe, new Document("_id", id), "recipes"));
+    }
+
+    private void delete(String id) {
+        listener.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", id), Recipe.class, "recipes"));
+    }
+}
@@ -0,0 +1,130 @@
+package Assignment.Recipe_Generator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BkTreeTest {
+
+    private static final List<String> VOCABULARY = List.of(
+        "tomato", "potato", "onion", "green onion", "garlic", "ginger", "chicken", "chickpea", "chili",
+        "chili powder", "cilantro", "carrot", "parrot", "rice", "mice", "basil", "bell pepper", "pepper",
+        "shrimp", "salmon", "lemon", "lime", "milk", "mint", "butter", "flour", "sugar", "zucchini"
+    );
+
+    @Test
+    void testClosest_ExactTermAtDistanceZero() {
+        BkTree tree = tree(VOCABULARY);
+
+        assertEquals(Optional.of(new BkTree.Match("tomato", 0)), tree.closest("tomato", 0));
+        assertEquals(Optional.empty(), tree.closest("tomatoe", 0));
+    }
+
+    @Test
+    void testClosest_WithinTypoTolerance() {
+        BkTree tree = tree(VOCABULARY);
+
+        // Medium-length names tolerate one edit, long names two
+        assertEquals(Optional.of(new BkTree.Match("tomato", 1)), closestWithinTolerance(tree, "tomatoe"));
+        assertEquals(Optional.of(new BkTree.Match("chicken", 1)), closestWithinTolerance(tree, "chiken"));
+        assertEquals(Optional.of(new BkTree.Match("bell pepper", 2)), closestWithinTolerance(tree, "bel peper"));
+        assertEquals(Optional.of(new BkTree.Match("zucchini", 1)), closestWithinTolerance(tree, "zuchini"));
+
+        // Beyond the tolerance for the length
+        assertEquals(Optional.empty(), closestWithinTolerance(tree, "tomatooes"));
+        assertEquals(Optional.empty(), closestWithinTolerance(tree, "cilantrooooo"));
+    }
+
+    @Test
+    void testClosest_TiesBrokenAlphabetically() {
+        BkTree tree = tree(List.of("parrot", "carrot"));
+
+        // "barrot" is one edit from both
+        assertEquals(Optional.of(new BkTree.Match("carrot", 1)), tree.closest("barrot", 1));
+    }
+
+    @Test
+    void testClosest_SameAsBruteForce() {
+        // Given
+        Random random = new Random(13);
+        List<String> vocabulary = new ArrayList<>(VOCABULARY);
+        for (int i = 0; i < 500; i++) {
+            vocabulary.add(randomWord(random, 3 + random.nextInt(8)));
+        }
+        BkTree tree = tree(vocabulary);
+
+        for (int i = 0; i < 2000; i++) {
+            // Queries near vocabulary terms and unrelated ones
+            String query = random.nextBoolean()
+                ? mutate(random, vocabulary.get(random.nextInt(vocabulary.size())))
+                : randomWord(random, 3 + random.nextInt(8));
+            int maxDistance = random.nextInt(3);
+
+            // When / Then
+            assertEquals(bruteForce(vocabulary, query, maxDistance), tree.closest(query, maxDistance), query);
+        }
+    }
+
+    @Test
+    void testAdd_IgnoresDuplicates() {
+        BkTree tree = tree(List.of("rice", "rice", "lime", "rice"));
+
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    void testClosest_EmptyTree() {
+        assertEquals(Optional.empty(), new BkTree().closest("rice", 2));
+    }
+
+    @Test
+    void testDistance() {
+        assertEquals(0, BkTree.distance("basil", "basil"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(5, BkTree.distance("", "onion"));
+        assertEquals(1, BkTree.distance("chili", "chile"));
+    }
+
+    private static BkTree tree(List<String> terms) {
+        BkTree tree = new BkTree();
+        terms.forEach(tree::add);
+        return tree;
+    }
+
+    private static Optional<BkTree.Match> closestWithinTolerance(BkTree tree, String query) {
+        return tree.closest(query, IngredientNormalizer.typoTolerance(query));
+    }
+
+    private static Optional<BkTree.Match> bruteForce(List<String> vocabulary, String query, int maxDistance) {
+        return vocabulary.stream()
+            .distinct()
+            .map(term -> new BkTree.Match(term, BkTree.distance(query, term)))
+            .filter(match -> match.distance() <= maxDistance)
+            .min(Comparator.comparingInt(BkTree.Match::distance).thenComparing(BkTree.Match::term));
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    // One or two random insertions, deletions or substitutions
+    private static String mutate(Random random, String term) {
+        StringBuilder word = new StringBuilder(term);
+        int edits = 1 + random.nextInt(2);
+        for (int i = 0; i < edits && word.length() > 1; i++) {
+            int position = random.nextInt(word.length());
+            switch (random.nextInt(3)) {
+                case 0 -> word.insert(position, (char) ('a' + random.nextInt(26)));
+                case 1 -> word.deleteCharAt(position);
+                default -> word.setCharAt(position, (char) ('a' + random.nextInt(26)));
+            }
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientMatcherServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeCatalogListener recipeCatalogListener;
+
+    private MasterIngredientIndex masterIngredientIndex;
+
+    private IngredientMatcherService ingredientMatcherService;
+
+    @BeforeEach
+    void setUp() {
+        when(recipeRepository.findAllIngredientNames()).thenReturn(List.of(
+            recipe("1", "Tomatoes", "Spring Onions", "Bell Pepper"),
+            recipe("2", "Chicken Breast", "Jalapeños")));
+        masterIngredientIndex = new MasterIngredientIndex(recipeRepository, recipeCatalogListener, new IngredientNormalizer());
+        ingredientMatcherService = new IngredientMatcherService(masterIngredientIndex);
+    }
+
+    @Test
+    void testMatch_SameAsMasterIndex() {
+        for (String name : List.of("Fresh Tomato", "scallions", "chiken brest", "jalapeno", "Bell Peppers", "lemon")) {
+            assertEquals(masterIngredientIndex.canonicalName(name), ingredientMatcherService.match(name), name);
+        }
+        assertEquals(Optional.of("green onion"), ingredientMatcherService.match("Scallions"));
+        assertEquals(Optional.empty(), ingredientMatcherService.match(" "));
+    }
+
+    @Test
+    void testMapToVocabulary_MergesOntoMasterNames() {
+        // Given
+        IngredientRecognition recognition = IngredientRecognition.builder()
+            .ingredients(List.of(
+                ingredient("Tomatoes", 0.6),
+                ingredient("tomato", 0.9),
+                ingredient("spring onion", 0.7),
+                ingredient("Saffron", 0.5),
+                ingredient("", 1.0)))
+            .build();
+
+        // When
+        IngredientRecognition mapped = ingredientMatcherService.mapToVocabulary(recognition);
+
+        // Then - unknown names are kept as recognized
+        assertEquals(List.of(ingredient("tomato", 0.9), ingredient("green onion", 0.7), ingredient("Saffron", 0.5)),
+            mapped.getIngredients());
+    }
+
+    private static IngredientRecognition.RecognizedIngredient ingredient(String name, double confidence) {
+        return IngredientRecognition.RecognizedIngredient.builder().name(name).confidence(confidence).build();
+    }
+
+    private static Recipe recipe(String id, String... ingredients) {
+        return Recipe.builder()
+            .id(id)
+            .ingredients(Arrays.stream(ingredients)
+                .map(name -> Recipe.Ingredient.builder().name(name).build())
+                .toList())
+            .build();
+    }
+}
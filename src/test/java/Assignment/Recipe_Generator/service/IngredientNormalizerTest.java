@@ -0,0 +1,152 @@
+package Assignment.Recipe_Generator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientNormalizerTest {
+
+    private final IngredientNormalizer ingredientNormalizer = new IngredientNormalizer();
+
+    @ParameterizedTest
+    @CsvSource({
+        // Regular plurals
+        "carrots, carrot",
+        "tomatoes, tomato",
+        "potatoes, potato",
+        "berries, berry",
+        "peaches, peach",
+        "radishes, radish",
+        "boxes, box",
+        "peas, pea",
+        "chillies, chilli",
+        "chilies, chili",
+        // Irregular plurals
+        "leaves, leaf",
+        "halves, half",
+        "cookies, cookie",
+        // Words that only look plural
+        "hummus, hummus",
+        "couscous, couscous",
+        "asparagus, asparagus",
+        "molasses, molasses",
+        "swiss, swiss",
+        "watercress, watercress",
+        "citrus, citrus",
+        "quinoa, quinoa",
+        // Singulars are left alone
+        "egg, egg",
+        "rice, rice"
+    })
+    void testSingularize(String word, String expected) {
+        assertEquals(expected, IngredientNormalizer.singularize(word));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "Scallions, green onion",
+        "spring onions, green onion",
+        "Fresh Coriander, cilantro",
+        "coriander leaves, cilantro",
+        "King Prawns, king shrimp",
+        "prawns, shrimp",
+        "Courgettes, zucchini",
+        "aubergine, eggplant",
+        "garbanzo beans, chickpea",
+        "chilli powder, chili powder",
+        "red chillies, red chili",
+        "dried chilies, chili",
+        "Heavy Cream, cream",
+        "icing sugar, powdered sugar"
+    })
+    void testNormalize_MapsSynonyms(String name, String expected) {
+        assertEquals(expected, ingredientNormalizer.normalize(name));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'Tomatoes', tomato",
+        "'2 fresh, chopped tomatoes', tomato",
+        "'  Large  Eggs ', egg",
+        "'Red Bell Peppers', red bell pepper",
+        "'dried oregano!', oregano"
+    })
+    void testNormalize_StripsDescriptorsAndPunctuation(String name, String expected) {
+        assertEquals(expected, ingredientNormalizer.normalize(name));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "jalapeño, jalapeno",
+        "Jalapeños, jalapeno",
+        "crème fraîche, creme fraiche",
+        "Crème Fraîche, creme fraiche",
+        "purée de tomate, puree de tomate",
+        "Gruyère, gruyere",
+        "açaí berries, acai berry",
+        "piña colada mix, pina colada mix",
+        "Bœuf bourguignon, boeuf bourguignon",
+        "Weißwurst, weisswurst"
+    })
+    void testNormalize_FoldsAccents(String name, String expected) {
+        assertEquals(expected, ingredientNormalizer.normalize(name));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'7up', 7up",
+        "'V8 juice', v8 juice",
+        "'2 cups flour', cup flour",
+        "'3 eggs', egg"
+    })
+    void testNormalize_KeepsDigitsInsideWordsOnly(String name, String expected) {
+        assertEquals(expected, ingredientNormalizer.normalize(name));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'Tomatoes', tomato",
+        "'tomatoes ', tomato",
+        "'Crème', creme",
+        "'crème fr', creme fr",
+        "'fresh bas', bas",
+        "'a', a",
+        "'2 eg', eg",
+        "'2 eggs ', egg",
+        "'scallions', green onion",
+        "'Red Chillies', red chili",
+        "'  ', ''"
+    })
+    void testNormalizeQuery_KeepsTrailingPartialWord(String query, String expected) {
+        assertEquals(expected, ingredientNormalizer.normalizeQuery(query));
+    }
+
+    @Test
+    void testNormalize_NothingLeft() {
+        assertEquals("", ingredientNormalizer.normalize("fresh chopped"));
+        assertEquals("", ingredientNormalizer.normalize("500"));
+        assertEquals("", ingredientNormalizer.normalize(null));
+    }
+
+    @Test
+    void testSynonyms_PreferredNamesAreCanonical() {
+        // Preferred names must not be synonyms themselves, and must be stable under normalization
+        for (Map.Entry<String, String> synonym : IngredientNormalizer.synonyms().entrySet()) {
+            assertFalse(IngredientNormalizer.synonyms().containsKey(synonym.getValue()), synonym.toString());
+            assertEquals(synonym.getValue(), ingredientNormalizer.normalize(synonym.getValue()), synonym.toString());
+            assertEquals(synonym.getValue(), ingredientNormalizer.normalize(synonym.getKey()), synonym.toString());
+        }
+    }
+
+    @Test
+    void testTypoTolerance() {
+        assertEquals(0, IngredientNormalizer.typoTolerance("rice"));
+        assertEquals(1, IngredientNormalizer.typoTolerance("tomato"));
+        assertEquals(1, IngredientNormalizer.typoTolerance("cilantro"));
+        assertEquals(2, IngredientNormalizer.typoTolerance("green onion"));
+    }
+}
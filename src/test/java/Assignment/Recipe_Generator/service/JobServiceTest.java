@@ -0,0 +1,169 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.dto.JobStatus;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.dto.RecipeResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+    @Mock
+    private RecognitionCacheService recognitionCacheService;
+
+    @Mock
+    private RecipeService recipeService;
+
+    private JobService jobService;
+
+    private final RecipeRequest request = RecipeRequest.builder()
+        .ingredients(List.of("chicken", "rice"))
+        .build();
+
+    @BeforeEach
+    void setUp() {
+        jobService = new JobService(recognitionCacheService, recipeService);
+        ReflectionTestUtils.setField(jobService, "workers", 2);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(jobService, "resultTtlMinutes", 10L);
+        ReflectionTestUtils.setField(jobService, "maxQueuedImageBytes", 3_000L);
+        jobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_SameIdempotencyKeyReturnsSameJob() {
+        // Given
+        when(recipeService.generateRecipes(any(), any())).thenReturn(RecipeResponse.builder().build());
+
+        // When
+        JobStatus first = jobService.submitGeneration(request, "user", "key-1");
+        JobStatus retry = jobService.submitGeneration(request, "user", "key-1");
+        JobStatus otherUser = jobService.submitGeneration(request, "other", "key-1");
+        JobStatus noKey = jobService.submitGeneration(request, "user", null);
+
+        // Then
+        assertEquals(first.getId(), retry.getId());
+        assertNotEquals(first.getId(), otherUser.getId());
+        assertNotEquals(first.getId(), noKey.getId());
+    }
+
+    @Test
+    void testSubmit_ConcurrentRetriesStartOneJob() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        when(recipeService.generateRecipes(any(), any())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            return RecipeResponse.builder().build();
+        });
+        int rounds = 200;
+        int retries = 8;
+        ExecutorService submitters = Executors.newFixedThreadPool(retries);
+
+        try {
+            for (int round = 0; round < rounds; round++) {
+                String key = "key-" + round;
+                CyclicBarrier start = new CyclicBarrier(retries);
+                List<Future<JobStatus>> submissions = new ArrayList<>();
+                for (int i = 0; i < retries; i++) {
+                    submissions.add(submitters.submit(() -> {
+                        start.await();
+                        return jobService.submitGeneration(request, "user", key);
+                    }));
+                }
+
+                // When
+                Set<String> ids = new HashSet<>();
+                for (Future<JobStatus> submission : submissions) {
+                    ids.add(submission.get(10, TimeUnit.SECONDS).getId());
+                }
+
+                // Then
+                assertEquals(1, ids.size(), "round " + round);
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+
+        assertEquals(rounds, ((Number) jobService.getStats().get("jobs")).intValue());
+        verify(recipeService, timeout(10_000).times(rounds)).generateRecipes(any(), any());
+        assertEquals(rounds, calls.get());
+    }
+
+    @Test
+    void testSubmitRecognition_RejectedWhileQueuedImagesHoldTooManyBytes() throws Exception {
+        // Given - recognition blocks until released
+        CountDownLatch release = new CountDownLatch(1);
+        when(recognitionCacheService.recognizeIngredients(any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return IngredientRecognition.builder().build();
+        });
+        jobService.submitRecognition(image(1_000), "user", "key-1");
+        // A retry holds nothing extra
+        jobService.submitRecognition(image(1_000), "user", "key-1");
+        jobService.submitRecognition(image(1_000), "user", null);
+        jobService.submitRecognition(image(1_000), "user", null);
+
+        // When / Then
+        assertThrows(JobService.QueueFullException.class, () -> jobService.submitRecognition(image(1_000), "user", null));
+        assertEquals(3_000L, jobService.getStats().get("queuedImageBytes"));
+
+        // Bytes are released once the jobs finish
+        release.countDown();
+        verify(recognitionCacheService, timeout(10_000).times(3)).recognizeIngredients(any(), any());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((long) jobService.getStats().get("queuedImageBytes") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0L, jobService.getStats().get("queuedImageBytes"));
+        assertNotNull(jobService.submitRecognition(image(3_000), "user", null));
+    }
+
+    @Test
+    void testGetJob_OnlyVisibleToOwner() {
+        // Given
+        when(recipeService.generateRecipes(any(), any())).thenReturn(RecipeResponse.builder().build());
+        JobStatus job = jobService.submitGeneration(request, "user", null);
+
+        // Then
+        assertTrue(jobService.getJob(job.getId(), "user").isPresent());
+        assertTrue(jobService.getJob(job.getId(), "other").isEmpty());
+    }
+
+    // Pass-through upload, readable only once like a multipart part
+    private static PreparedImage image(int size) {
+        AtomicInteger opens = new AtomicInteger();
+        return PreparedImage.builder()
+            .source(() -> {
+                if (opens.getAndIncrement() > 0) {
+                    throw new IllegalStateException("upload already consumed");
+                }
+                return new ByteArrayInputStream(new byte[size]);
+            })
+            .size(size)
+            .mimeType("image/webp")
+            .reencoded(false)
+            .build();
+    }
+}
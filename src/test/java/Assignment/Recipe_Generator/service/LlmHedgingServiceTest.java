@@ -0,0 +1,109 @@
+package Assignment.Recipe_Generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmHedgingServiceTest {
+
+    private static final String OPERATION = "recipe_generation_single";
+
+    private LlmHedgingService hedgingService;
+
+    private final AtomicInteger hedgesStarted = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        hedgingService = new LlmHedgingService();
+        ReflectionTestUtils.setField(hedgingService, "enabled", true);
+        ReflectionTestUtils.setField(hedgingService, "operations", Set.of(OPERATION));
+        ReflectionTestUtils.setField(hedgingService, "percentile", 0.95);
+        ReflectionTestUtils.setField(hedgingService, "minSamples", 1);
+        ReflectionTestUtils.setField(hedgingService, "minDelayMs", 300L);
+        ReflectionTestUtils.setField(hedgingService, "windowSize", 10);
+        ReflectionTestUtils.setField(hedgingService, "budgetRatio", 1.0);
+    }
+
+    @Test
+    void testPrimaryFailsFast_HedgeIsNotSent() {
+        // Given
+        hedgingService.execute(OPERATION, Mono.just("warm-up"), this::hedge).block();
+
+        // When
+        long start = System.nanoTime();
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> hedgingService
+            .execute(OPERATION, Mono.<String>error(new IllegalStateException("429 Too Many Requests")), this::hedge)
+            .block(Duration.ofSeconds(5)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then - the error surfaces without waiting for the hedge delay
+        assertEquals("429 Too Many Requests", error.getMessage());
+        assertTrue(elapsedMs < 300, "took " + elapsedMs + " ms");
+        sleep(400);
+        assertEquals(0, hedgesStarted.get());
+        assertEquals(0L, hedgingService.getStats().get("hedgesSent"));
+    }
+
+    @Test
+    void testPrimaryFailsAfterHedgeSent_HedgeStillWins() {
+        // Given
+        hedgingService.execute(OPERATION, Mono.just("warm-up"), this::hedge).block();
+
+        // When
+        String result = hedgingService.execute(OPERATION,
+            Mono.<String>error(new IllegalStateException("503")).delaySubscription(Duration.ofMillis(500)),
+            () -> {
+                hedgesStarted.incrementAndGet();
+                return Mono.just("hedge").delayElement(Duration.ofMillis(400));
+            }).block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals("hedge", result);
+        assertEquals(1, hedgesStarted.get());
+        assertEquals(1L, hedgingService.getStats().get("hedgeWins"));
+    }
+
+    @Test
+    void testSlowFailure_RecordedInLatencyWindow() {
+        // Given
+        ReflectionTestUtils.setField(hedgingService, "minDelayMs", 0L);
+
+        // When - a failure and an empty (unparsed) completion, both slow
+        assertThrows(IllegalStateException.class, () -> hedgingService.execute(OPERATION,
+            Mono.<String>error(new IllegalStateException("timeout")).delaySubscription(Duration.ofMillis(200)),
+            this::hedge).block());
+        hedgingService.execute(OPERATION, Mono.<String>empty().delaySubscription(Duration.ofMillis(200)), this::hedge)
+            .block();
+
+        // Then
+        Optional<Duration> delay = ReflectionTestUtils.invokeMethod(hedgingService, "hedgeDelay", OPERATION);
+        assertNotNull(delay);
+        assertTrue(delay.isPresent());
+        assertTrue(delay.get().toMillis() >= 200, "delay " + delay.get());
+        @SuppressWarnings("unchecked")
+        Map<String, LatencyWindow> latencies = (Map<String, LatencyWindow>) ReflectionTestUtils.getField(hedgingService, "latencies");
+        assertEquals(2, latencies.get(OPERATION).size());
+    }
+
+    private Mono<String> hedge() {
+        hedgesStarted.incrementAndGet();
+        return Mono.just("hedge");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.OpenRouterResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmMetricsServiceTest {
+
+    private final LlmMetricsService llmMetricsService = new LlmMetricsService(new SimpleMeterRegistry());
+
+    @Test
+    void testRecordCall_BatchSplitsTokensAcrossUsers() {
+        // Given
+        OpenRouterResponse.Usage usage = new OpenRouterResponse.Usage();
+        usage.setPromptTokens(100);
+        usage.setCompletionTokens(50);
+        usage.setTotalTokens(150);
+
+        // When
+        llmMetricsService.recordCall("recipe_generation_batch", "model", Arrays.asList("alice", "bob", null),
+            900, 100, usage, LlmMetricsService.CallOutcome.PARSED);
+
+        // Then - every user is charged the call and its latency, and the shares add up
+        Map<String, Object> stats = llmMetricsService.getUserStats();
+        assertEquals(Map.of("calls", 1L, "promptTokens", 34L, "completionTokens", 17L, "totalTokens", 50L, "avgLatencyMs", 900L),
+            stats.get("alice"));
+        assertEquals(Map.of("calls", 1L, "promptTokens", 33L, "completionTokens", 17L, "totalTokens", 50L, "avgLatencyMs", 900L),
+            stats.get("bob"));
+        assertEquals(Map.of("calls", 1L, "promptTokens", 33L, "completionTokens", 16L, "totalTokens", 50L, "avgLatencyMs", 900L),
+            stats.get("anonymous"));
+    }
+
+    @Test
+    void testRecordCall_SingleUserGetsAllTokens() {
+        // Given
+        OpenRouterResponse.Usage usage = new OpenRouterResponse.Usage();
+        usage.setPromptTokens(10);
+        usage.setCompletionTokens(5);
+
+        // When
+        llmMetricsService.recordCall("recipe_generation_single", "model", "alice", 200, -1, usage,
+            LlmMetricsService.CallOutcome.PARSED);
+
+        // Then
+        assertEquals(Map.of("calls", 1L, "promptTokens", 10L, "completionTokens", 5L, "totalTokens", 15L, "avgLatencyMs", 200L),
+            llmMetricsService.getUserStats().get("alice"));
+    }
+}
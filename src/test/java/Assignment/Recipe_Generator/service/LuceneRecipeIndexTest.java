@@ -0,0 +1,271 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs against a real mmap'd index in a temporary directory, built from a mocked repository.
+ */
+@ExtendWith(MockitoExtension.class)
+class LuceneRecipeIndexTest {
+
+    private static final String[] CUISINES = {"Italian", " italian", "Mexican", "Indian", "Indo-Chinese", null};
+    private static final String[] DIET_TAGS = {"vegan", "Vegetarian", "gluten-free", "keto"};
+
+    @TempDir
+    Path indexDir;
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    private LuceneRecipeIndex luceneRecipeIndex;
+
+    private List<Recipe> catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ArrayList<>(List.of(
+            recipe("title", "Tomato Soup", List.of("water", "salt"), "Italian", null, Recipe.Difficulty.EASY, 20),
+            recipe("ingredient", "Summer Pasta", List.of("tomatoes", "basil"), "Italian", null, Recipe.Difficulty.EASY, 25),
+            recipe("prawns", "Garlic Prawns", List.of("shrimp", "garlic"), "Thai", null, Recipe.Difficulty.MEDIUM, 15),
+            recipe("zucchini", "Zucchini Fritters", List.of("zucchini", "egg"), "Greek", null, Recipe.Difficulty.EASY, 30),
+            recipe("vegan", "Lentil Stew", List.of("lentils", "carrot"), "Indian", Set.of("Vegan"), Recipe.Difficulty.HARD, null)));
+        lenient().when(recipeRepository.findAllSearchFields()).thenAnswer(invocation -> new ArrayList<>(catalog));
+        luceneRecipeIndex = newIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        luceneRecipeIndex.close();
+    }
+
+    @Test
+    void testSearch_TitleMatchesRankAboveIngredientMatches() {
+        // When
+        List<String> ids = search("tomato");
+
+        // Then
+        assertEquals(List.of("title", "ingredient"), ids);
+    }
+
+    @Test
+    void testSearch_TypoMatchesWithinTolerance() {
+        assertEquals(List.of("title", "ingredient"), search("tomatto"));
+        assertEquals(List.of("zucchini"), search("zuchini"));
+    }
+
+    @Test
+    void testSearch_SynonymsExpandedBothWays() {
+        assertEquals(List.of("prawns"), search("shrimp"));
+        assertEquals(List.of("zucchini"), search("courgettes"));
+    }
+
+    @Test
+    void testSearch_DietTagsCaseInsensitive() {
+        // When
+        LuceneRecipeIndex.SearchHits lower = luceneRecipeIndex.search(null, Set.of("vegan"), null, null, null, PageRequest.of(0, 10));
+        LuceneRecipeIndex.SearchHits upper = luceneRecipeIndex.search(null, Set.of("VEGAN"), null, null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("vegan"), lower.recipeIds());
+        assertEquals(List.of("vegan"), upper.recipeIds());
+        assertEquals(Map.of("vegan", 1L), luceneRecipeIndex.facetCounts(Set.of("Vegan"), null, null, null).getDietTags());
+    }
+
+    @Test
+    void testSearch_FiltersSameAsDatabaseQuery() {
+        // Given
+        replaceCatalog(generateCatalog(200, 5));
+
+        // When / Then
+        for (Set<String> diet : Arrays.asList(null, Set.of("vegan"), Set.of("vegetarian", "keto"))) {
+            for (String cuisine : Arrays.asList(null, "Italian", "indo-chinese", "Klingon")) {
+                for (Recipe.Difficulty difficulty : Arrays.asList(null, Recipe.Difficulty.MEDIUM)) {
+                    for (Integer maxTime : Arrays.asList(null, 45)) {
+                        LuceneRecipeIndex.SearchHits hits = luceneRecipeIndex.search(null, diet, cuisine, difficulty, maxTime,
+                            PageRequest.of(0, 1000));
+                        List<String> expected = catalog.stream()
+                            .filter(recipe -> passesDatabaseFilter(recipe, diet, cuisine, difficulty, maxTime))
+                            .map(Recipe::getId)
+                            .sorted()
+                            .collect(Collectors.toList());
+
+                        String selection = diet + " " + cuisine + " " + difficulty + " " + maxTime;
+                        assertEquals(expected, hits.recipeIds(), selection);
+                        assertEquals(expected.size(), hits.total(), selection);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFacetCounts_SameAsFeatureStore() {
+        // Given
+        replaceCatalog(generateCatalog(200, 9));
+        when(recipeRepository.findAllFeatures()).thenAnswer(invocation -> new ArrayList<>(catalog));
+        RecipeFeatureStore featureStore = new RecipeFeatureStore(recipeRepository, new IngredientNormalizer());
+
+        // When / Then
+        for (Set<String> diet : Arrays.asList(null, Set.of("Vegan"), Set.of("vegetarian", "keto"))) {
+            for (String cuisine : Arrays.asList(null, " ITALIAN ", "Klingon")) {
+                for (Recipe.Difficulty difficulty : Arrays.asList(null, Recipe.Difficulty.EASY)) {
+                    for (Integer maxTime : Arrays.asList(null, 30)) {
+                        assertEquals(featureStore.facetCounts(diet, cuisine, difficulty, maxTime),
+                            luceneRecipeIndex.facetCounts(diet, cuisine, difficulty, maxTime),
+                            diet + " " + cuisine + " " + difficulty + " " + maxTime);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCatalogChanged_SavedAndDeletedBecomeVisible() {
+        // Given
+        search("tomato");
+        Recipe added = recipe("added", "Tomato Salad", List.of("tomato", "onion"), "Greek", null, Recipe.Difficulty.EASY, 10);
+
+        // When
+        luceneRecipeIndex.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.SAVED, "added", added, 2));
+        luceneRecipeIndex.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.DELETED, "title", null, 3));
+
+        // Then - facet counts wait for the writes, searches see them afterwards
+        assertEquals(5, luceneRecipeIndex.facetCounts(null, null, null, null).getTotal());
+        assertEquals(List.of("added", "ingredient"), search("tomato"));
+        verify(recipeRepository, times(1)).findAllSearchFields();
+    }
+
+    @Test
+    void testReset_RebuildsWhileServingPreviousIndex() throws Exception {
+        // Given
+        search("tomato");
+        CountDownLatch indexing = new CountDownLatch(1);
+        CountDownLatch finishIndexing = new CountDownLatch(1);
+        // The second recipe blocks while it is being indexed, after the first was written
+        Recipe blocking = spy(recipe("new-2", "Rice Pudding", List.of("rice", "milk"), "French", null, Recipe.Difficulty.EASY, 40));
+        doAnswer(invocation -> {
+            indexing.countDown();
+            finishIndexing.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(blocking).getTitle();
+        when(recipeRepository.findAllSearchFields()).thenReturn(List.of(
+            recipe("new", "Tomato Tart", List.of("tomato", "pastry"), "French", null, Recipe.Difficulty.HARD, 60), blocking));
+        luceneRecipeIndex.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.RESET, null, null, 2));
+
+        // When - a rebuild is in progress, for longer than the refresh interval
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<String>> rebuilt = executor.submit(() -> search("tomato"));
+            assertTrue(indexing.await(10, TimeUnit.SECONDS));
+            Thread.sleep(300);
+
+            // Then - a search that got past the loaded check still sees the complete old index
+            IndexSearcher searcher = ReflectionTestUtils.invokeMethod(luceneRecipeIndex, "acquire");
+            try {
+                assertEquals(catalog.size(), searcher.count(new MatchAllDocsQuery()));
+            } finally {
+                ReflectionTestUtils.invokeMethod(luceneRecipeIndex, "release", searcher);
+            }
+
+            finishIndexing.countDown();
+            assertEquals(List.of("new"), rebuilt.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        try (Stream<Path> generations = Files.list(indexDir)) {
+            assertEquals(1, generations.count());
+        }
+    }
+
+    private LuceneRecipeIndex newIndex() {
+        LuceneRecipeIndex index = new LuceneRecipeIndex(recipeRepository);
+        ReflectionTestUtils.setField(index, "engine", "lucene");
+        ReflectionTestUtils.setField(index, "indexPath", indexDir.toString());
+        ReflectionTestUtils.setField(index, "maxStalenessMs", 100L);
+        return index;
+    }
+
+    private void replaceCatalog(List<Recipe> recipes) {
+        catalog = recipes;
+    }
+
+    private List<String> search(String text) {
+        return luceneRecipeIndex.search(text, null, null, null, null, PageRequest.of(0, 10)).recipeIds();
+    }
+
+    // The MongoDB filter query: diet tags $in (lowercased tags, as the controllers pass them),
+    // cuisine_norm equality, difficulty equality, timeMinutes $lte
+    private static boolean passesDatabaseFilter(Recipe recipe, Set<String> diet, String cuisine,
+                                                Recipe.Difficulty difficulty, Integer maxTime) {
+        if (diet != null && recipe.getDietTags().stream().noneMatch(tag -> diet.contains(tag.toLowerCase()))) {
+            return false;
+        }
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+        if (cuisineNorm != null && !cuisineNorm.equals(RecipeCatalogListener.normalizeCuisine(recipe.getCuisine()))) {
+            return false;
+        }
+        if (difficulty != null && recipe.getDifficulty() != difficulty) {
+            return false;
+        }
+        return maxTime == null || (recipe.getTimeMinutes() != null && recipe.getTimeMinutes() <= maxTime);
+    }
+
+    private static List<Recipe> generateCatalog(int count, long seed) {
+        Random random = new Random(seed);
+        Recipe.Difficulty[] difficulties = Recipe.Difficulty.values();
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Set<String> tags = new HashSet<>();
+            for (String tag : DIET_TAGS) {
+                if (random.nextInt(3) == 0) {
+                    tags.add(tag);
+                }
+            }
+            recipes.add(recipe(String.format("recipe-%03d", i), "Recipe " + i, List.of("rice"),
+                CUISINES[random.nextInt(CUISINES.length)], tags,
+                random.nextInt(5) == 0 ? null : difficulties[random.nextInt(difficulties.length)],
+                random.nextInt(8) == 0 ? null : 5 + random.nextInt(100)));
+        }
+        return recipes;
+    }
+
+    private static Recipe recipe(String id, String title, List<String> ingredients, String cuisine, Set<String> dietTags,
+                                 Recipe.Difficulty difficulty, Integer timeMinutes) {
+        return Recipe.builder()
+            .id(id)
+            .title(title)
+            .ingredients(ingredients.stream()
+                .map(name -> Recipe.Ingredient.builder().name(name).build())
+                .collect(Collectors.toList()))
+            .cuisine(cuisine)
+            .dietTags(dietTags != null ? dietTags : Set.of())
+            .difficulty(difficulty)
+            .timeMinutes(timeMinutes)
+            .source(Recipe.Source.DB)
+            .build();
+    }
+}
@@ -0,0 +1,171 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MasterIngredientIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeCatalogListener recipeCatalogListener;
+
+    private MasterIngredientIndex masterIngredientIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(recipeRepository.findAllIngredientNames()).thenReturn(List.of(
+            recipe("1", "Tomatoes", "Spring Onions", "Basil"),
+            recipe("2", "Chicken Breast", "Rice", "Red Chillies"),
+            recipe("3", "Cilantro", "Lime", "Rice", "Jalapeños", "Crème Fraîche")));
+        masterIngredientIndex = new MasterIngredientIndex(recipeRepository, recipeCatalogListener, new IngredientNormalizer());
+    }
+
+    @Test
+    void testCanonicalName_ExactAfterNormalization() {
+        assertEquals(Optional.of("tomato"), masterIngredientIndex.canonicalName("fresh tomato"));
+        assertEquals(Optional.of("green onion"), masterIngredientIndex.canonicalName("scallions"));
+        assertEquals(Optional.of("cilantro"), masterIngredientIndex.canonicalName("Coriander"));
+        assertEquals(Optional.of("red chili"), masterIngredientIndex.canonicalName("red chilli"));
+    }
+
+    @Test
+    void testCanonicalName_TypoWithinTolerance() {
+        assertEquals(Optional.of("tomato"), masterIngredientIndex.canonicalName("tomatto"));
+        assertEquals(Optional.of("chicken breast"), masterIngredientIndex.canonicalName("chiken brest"));
+        assertEquals(Optional.of("basil"), masterIngredientIndex.canonicalName("basill"));
+    }
+
+    @Test
+    void testCanonicalName_NoMatch() {
+        // Short names get no typo tolerance
+        assertEquals(Optional.empty(), masterIngredientIndex.canonicalName("rize"));
+        assertEquals(Optional.empty(), masterIngredientIndex.canonicalName("lemon"));
+        assertEquals(Optional.empty(), masterIngredientIndex.canonicalName("chopped"));
+    }
+
+    @Test
+    void testCanonicalName_FoldsAccents() {
+        assertEquals(Optional.of("jalapeno"), masterIngredientIndex.canonicalName("jalapeño"));
+        assertEquals(Optional.of("jalapeno"), masterIngredientIndex.canonicalName("Jalapenos"));
+    }
+
+    @Test
+    void testGetDisplayNames_KeepsStoredNames() {
+        // Lowercased and trimmed like the stored names, not reduced to canonical keys
+        assertEquals(Set.of("tomatoes", "spring onions", "basil", "chicken breast", "rice", "red chillies",
+            "cilantro", "lime", "jalapeños", "crème fraîche"), masterIngredientIndex.getDisplayNames());
+        assertTrue(masterIngredientIndex.getNames().contains("green onion"));
+    }
+
+    @Test
+    void testGetDisplayNames_RemovedWithLastRecipe() {
+        // Given
+        masterIngredientIndex.getNames();
+
+        // When
+        masterIngredientIndex.onCatalogChanged(new RecipeCatalogChangedEvent(
+            RecipeCatalogChangedEvent.Type.DELETED, "3", null, 2));
+
+        // Then - rice is still used by recipe 2
+        assertFalse(masterIngredientIndex.getDisplayNames().contains("lime"));
+        assertFalse(masterIngredientIndex.getDisplayNames().contains("jalapeños"));
+        assertTrue(masterIngredientIndex.getDisplayNames().contains("rice"));
+    }
+
+    @Test
+    void testSuggest_NormalizesQueryLikeVocabulary() {
+        assertEquals(List.of("tomato"), suggestions("Tomatoes"));
+        assertEquals(List.of("creme fraiche"), suggestions("Crème"));
+        assertEquals(List.of("creme fraiche"), suggestions("crème fr"));
+        assertEquals(List.of("jalapeno"), suggestions("Jalapeño"));
+        assertEquals(List.of("green onion"), suggestions("Scallions"));
+        assertEquals(List.of("red chili"), suggestions("red chilli"));
+    }
+
+    @Test
+    void testReload_EarlierViewStaysCompleteUntilSwap() throws Exception {
+        // Given
+        Set<String> before = masterIngredientIndex.getNames();
+        Set<String> expected = Set.copyOf(before);
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch finishScan = new CountDownLatch(1);
+        when(recipeRepository.findAllIngredientNames()).thenAnswer(invocation -> {
+            scanning.countDown();
+            finishScan.await(10, TimeUnit.SECONDS);
+            return List.of(recipe("4", "Quinoa"));
+        });
+        masterIngredientIndex.onCatalogChanged(new RecipeCatalogChangedEvent(
+            RecipeCatalogChangedEvent.Type.RESET, null, null, 2));
+
+        // When - a reload is in progress
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Set<String>> reloaded = executor.submit(() -> masterIngredientIndex.getNames());
+            assertTrue(scanning.await(10, TimeUnit.SECONDS));
+
+            // Then
+            assertEquals(expected, before);
+            finishScan.countDown();
+            assertEquals(Set.of("quinoa"), reloaded.get(10, TimeUnit.SECONDS));
+            assertEquals(expected, before);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCatalogChanged_AddedNameExtendsTypoIndex() {
+        // Given
+        assertEquals(Optional.of("tomato"), masterIngredientIndex.canonicalName("tomatto"));
+        Object tree = ReflectionTestUtils.getField(masterIngredientIndex, "bkTree");
+        assertNotNull(tree);
+
+        // When
+        masterIngredientIndex.onCatalogChanged(new RecipeCatalogChangedEvent(
+            RecipeCatalogChangedEvent.Type.SAVED, "4", recipe("4", "Mozzarella", "Tomatoes"), 2));
+
+        // Then - same tree, now with the new name
+        assertSame(tree, ReflectionTestUtils.getField(masterIngredientIndex, "bkTree"));
+        assertEquals(Optional.of("mozzarella"), masterIngredientIndex.canonicalName("mozarella"));
+
+        // Removing a name discards the tree; it is rebuilt without it
+        masterIngredientIndex.onCatalogChanged(new RecipeCatalogChangedEvent(
+            RecipeCatalogChangedEvent.Type.DELETED, "4", null, 3));
+        assertNull(ReflectionTestUtils.getField(masterIngredientIndex, "bkTree"));
+        assertEquals(Optional.empty(), masterIngredientIndex.canonicalName("mozarella"));
+        assertEquals(Optional.of("tomato"), masterIngredientIndex.canonicalName("tomatto"));
+    }
+
+    private List<String> suggestions(String query) {
+        return masterIngredientIndex.suggest(query, 10).stream().map(PrefixSuggestIndex.Suggestion::text).toList();
+    }
+
+    private static Recipe recipe(String id, String... ingredients) {
+        return Recipe.builder()
+            .id(id)
+            .ingredients(Arrays.stream(ingredients)
+                .map(name -> Recipe.Ingredient.builder().name(name).build())
+                .toList())
+            .build();
+    }
+}
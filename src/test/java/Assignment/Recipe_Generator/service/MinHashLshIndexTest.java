@@ -0,0 +1,260 @@
+package Assignment.Recipe_Generator.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashLshIndexTest {
+
+    private static final int VOCABULARY = 400;
+
+    @Test
+    void testPut_IdenticalSetsAreAlwaysCandidates() {
+        Random random = new Random(1);
+        for (int seed = 0; seed < 20; seed++) {
+            // Given - one row per band is the loosest setting, four the strictest used here
+            MinHashLshIndex index = new MinHashLshIndex(4, 1 + seed % 4, seed);
+            List<int[]> sets = generateSets(random, 100);
+            for (int key = 0; key < sets.size(); key++) {
+                index.put(key, sets.get(key));
+            }
+
+            // When / Then
+            for (int key = 0; key < sets.size(); key++) {
+                int[] candidates = index.candidates(sets.get(key).clone());
+                assertTrue(Arrays.binarySearch(candidates, key) >= 0, "seed " + seed + " key " + key);
+            }
+        }
+    }
+
+    @Test
+    void testCandidates_DistinctAndAscending() {
+        // Given
+        MinHashLshIndex index = new MinHashLshIndex(16, 1, 7);
+        int[] set = {1, 2, 3, 4};
+        for (int key = 30; key >= 0; key--) {
+            index.put(key, set);
+        }
+
+        // When
+        int[] candidates = index.candidates(set);
+
+        // Then
+        int[] expected = new int[31];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, candidates);
+    }
+
+    @Test
+    void testPut_ReplacesSetUnderSameKey() {
+        // Given
+        MinHashLshIndex index = new MinHashLshIndex(8, 2, 3);
+        int[] first = {1, 2, 3};
+        int[] second = {100, 200, 300};
+        index.put(5, first);
+
+        // When
+        index.put(5, second);
+
+        // Then
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[0], index.candidates(first));
+        assertArrayEquals(new int[]{5}, index.candidates(second));
+    }
+
+    @Test
+    void testPut_EmptySetIsNotIndexed() {
+        MinHashLshIndex index = new MinHashLshIndex(8, 2, 3);
+
+        index.put(1, new int[0]);
+
+        assertEquals(0, index.size());
+        assertArrayEquals(new int[0], index.candidates(new int[0]));
+    }
+
+    @Test
+    void testRemove_DropsKeyFromEveryBand() {
+        // Given
+        MinHashLshIndex index = new MinHashLshIndex(8, 2, 3);
+        int[] set = {4, 8, 15, 16, 23, 42};
+        index.put(1, set);
+        index.put(2, set);
+
+        // When
+        index.remove(1);
+        index.remove(99);
+
+        // Then
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[]{2}, index.candidates(set));
+        for (List<Integer> keys : keysPerBand(index)) {
+            assertEquals(List.of(2), keys);
+        }
+
+        index.remove(2);
+        for (List<Integer> keys : keysPerBand(index)) {
+            assertTrue(keys.isEmpty());
+        }
+    }
+
+    @Test
+    void testMove_RekeysEveryBand() {
+        // Given
+        MinHashLshIndex index = new MinHashLshIndex(16, 2, 11);
+        int[] moved = {3, 5, 7, 11};
+        int[] other = {2, 4, 6, 8};
+        index.put(9, moved);
+        index.put(1, other);
+
+        // When - like a swap-with-last delete of key 0
+        index.move(9, 0);
+
+        // Then
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[]{0}, index.candidates(moved));
+        assertArrayEquals(new int[]{1}, index.candidates(other));
+        for (List<Integer> keys : keysPerBand(index)) {
+            assertEquals(List.of(0, 1), keys);
+        }
+
+        // Moving a key that is not indexed does nothing
+        index.move(9, 5);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testCandidates_SameSeedIsDeterministic() {
+        // Given
+        List<int[]> sets = generateSets(new Random(5), 2000);
+        List<int[]> queries = generateQueries(new Random(6), sets, 200);
+
+        // When
+        MinHashLshIndex first = index(sets, 32, 2, 42);
+        MinHashLshIndex second = index(sets, 32, 2, 42);
+
+        // Then
+        for (int[] query : queries) {
+            assertArrayEquals(first.candidates(query), second.candidates(query));
+        }
+        assertEquals(recallAt3(first, sets, queries), recallAt3(second, sets, queries));
+    }
+
+    @Test
+    void testRecallAt3_AgainstExactScan() {
+        // Given - the default recipe.retrieval.lsh settings; this catalog and seed give 0.91
+        List<int[]> sets = generateSets(new Random(8), 5000);
+        List<int[]> queries = generateQueries(new Random(9), sets, 300);
+        MinHashLshIndex index = index(sets, 32, 2, 1);
+
+        // When
+        double recall = recallAt3(index, sets, queries);
+
+        // Then
+        assertTrue(recall >= 0.85, "recall@3 " + recall);
+    }
+
+    private static MinHashLshIndex index(List<int[]> sets, int bands, int rowsPerBand, long seed) {
+        MinHashLshIndex index = new MinHashLshIndex(bands, rowsPerBand, seed);
+        for (int key = 0; key < sets.size(); key++) {
+            index.put(key, sets.get(key));
+        }
+        return index;
+    }
+
+    /**
+     * Share of the exact top 3 by Jaccard similarity that are also in the top 3 of the
+     * candidates, averaged over queries.
+     */
+    private static double recallAt3(MinHashLshIndex index, List<int[]> sets, List<int[]> queries) {
+        double total = 0;
+        for (int[] query : queries) {
+            int[] all = new int[sets.size()];
+            Arrays.setAll(all, i -> i);
+            List<Integer> exact = top3(query, all, sets);
+            List<Integer> approximate = top3(query, index.candidates(query), sets);
+            long found = approximate.stream().filter(exact::contains).count();
+            total += (double) found / exact.size();
+        }
+        return total / queries.size();
+    }
+
+    // Keys of the 3 most similar sets sharing a value with the query, ties by key
+    private static List<Integer> top3(int[] query, int[] keys, List<int[]> sets) {
+        Set<Integer> querySet = new HashSet<>();
+        for (int value : query) {
+            querySet.add(value);
+        }
+        List<double[]> scored = new ArrayList<>();
+        for (int key : keys) {
+            int shared = 0;
+            for (int value : sets.get(key)) {
+                if (querySet.contains(value)) {
+                    shared++;
+                }
+            }
+            if (shared > 0) {
+                scored.add(new double[]{key, (double) shared / (sets.get(key).length + query.length - shared)});
+            }
+        }
+        scored.sort(Comparator.<double[]>comparingDouble(entry -> -entry[1]).thenComparingDouble(entry -> entry[0]));
+        List<Integer> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(3, scored.size()); i++) {
+            top.add((int) scored.get(i)[0]);
+        }
+        return top;
+    }
+
+    // Recipe-like sets: 3 to 12 distinct values, skewed towards common ones
+    private static List<int[]> generateSets(Random random, int count) {
+        List<int[]> sets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Set<Integer> values = new TreeSet<>();
+            int size = 3 + random.nextInt(10);
+            while (values.size() < size) {
+                double u = random.nextDouble();
+                values.add((int) (u * u * VOCABULARY));
+            }
+            sets.add(values.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return sets;
+    }
+
+    // Random subsets of catalog sets plus one unrelated value, like RecipeFeatureStore.benchmark
+    private static List<int[]> generateQueries(Random random, List<int[]> sets, int count) {
+        List<int[]> queries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int[] source = sets.get(random.nextInt(sets.size()));
+            Set<Integer> picked = new TreeSet<>();
+            for (int value : source) {
+                if (random.nextBoolean()) {
+                    picked.add(value);
+                }
+            }
+            picked.add(source[random.nextInt(source.length)]);
+            picked.add(random.nextInt(VOCABULARY));
+            queries.add(picked.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return queries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<List<Integer>> keysPerBand(MinHashLshIndex index) {
+        List<List<Integer>> result = new ArrayList<>();
+        for (Map<Long, Object> table : (List<Map<Long, Object>>) ReflectionTestUtils.getField(index, "tables")) {
+            List<Integer> keys = new ArrayList<>();
+            for (Object bucket : table.values()) {
+                int[] bucketKeys = (int[]) ReflectionTestUtils.getField(bucket, "keys");
+                int size = (int) ReflectionTestUtils.getField(bucket, "size");
+                for (int i = 0; i < size; i++) {
+                    keys.add(bucketKeys[i]);
+                }
+            }
+            Collections.sort(keys);
+            result.add(keys);
+        }
+        return result;
+    }
+}
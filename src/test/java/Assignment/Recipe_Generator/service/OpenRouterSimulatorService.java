@@ -0,0 +1,349 @@
+package Assignment.Recipe_Generator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic stand-in for the OpenRouter chat completions API, active with the
+ * "openrouter-sim" profile. Responses are derived from the prompt so the same prompt always
+ * yields the same recipe or recognition JSON, while latency, error and truncation injection
+ * are drawn from a seeded random sequence.
+ */
+@Service
+@Profile("openrouter-sim")
+@RequiredArgsConstructor
+@Slf4j
+public class OpenRouterSimulatorService {
+
+    private static final Pattern INGREDIENTS_PATTERN = Pattern.compile("using these ingredients: ([^.\\n]*)");
+    private static final Pattern CUISINE_PATTERN = Pattern.compile("Preferred cuisine: ([^.\\n]*)");
+    private static final Pattern MAX_TIME_PATTERN = Pattern.compile("Maximum cooking time: (\\d+)");
+    private static final Pattern DIFFICULTY_PATTERN = Pattern.compile("Difficulty: (easy|medium|hard)");
+    private static final Pattern REQUEST_SECTION_PATTERN = Pattern.compile("(?m)^Request (\\d+): ");
+    private static final Pattern RECIPE_SECTION_PATTERN = Pattern.compile("(?m)^Recipe (\\d+): ([^\\n(]*)[^\\n]*\\nIngredients: ([^\\n]*)");
+
+    private static final List<String> PANTRY = List.of(
+        "tomato", "onion", "garlic", "carrot", "potato", "egg", "milk", "cheese", "chicken breast",
+        "bell pepper", "spinach", "mushroom", "lemon", "butter", "rice", "broccoli", "apple", "yogurt"
+    );
+
+    private static final List<String> CUISINES = List.of("Italian", "Mexican", "Indian", "Thai", "American", "French");
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${simulator.seed:42}")
+    private long seed;
+
+    // fixed | uniform | lognormal
+    @Value("${simulator.latency.distribution:lognormal}")
+    private String latencyDistribution;
+
+    @Value("${simulator.latency.median-ms:800}")
+    private long medianLatencyMs;
+
+    @Value("${simulator.latency.sigma:0.5}")
+    private double latencySigma;
+
+    @Value("${simulator.latency.min-ms:200}")
+    private long minLatencyMs;
+
+    @Value("${simulator.latency.max-ms:5000}")
+    private long maxLatencyMs;
+
+    @Value("${simulator.stream.chunk-size:64}")
+    private int streamChunkSize;
+
+    @Value("${simulator.stream.chunk-delay-ms:15}")
+    private long streamChunkDelayMs;
+
+    @Value("${simulator.errors.rate-429:0.0}")
+    private double rateLimitRate;
+
+    @Value("${simulator.errors.rate-5xx:0.0}")
+    private double serverErrorRate;
+
+    @Value("${simulator.truncation-rate:0.0}")
+    private double truncationRate;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Outcome of one simulated call: either an HTTP error status or a completion to return
+     * after the given latency.
+     */
+    public record SimulatedCall(int status, long latencyMs, String model, String content,
+                                int promptTokens, int completionTokens, boolean stream) {
+    }
+
+    public SimulatedCall simulate(Map<String, Object> request) {
+        Random random = new Random(seed * 31 + sequence.getAndIncrement());
+        long latencyMs = sampleLatency(random);
+        String model = String.valueOf(request.getOrDefault("model", "simulator"));
+        boolean stream = Boolean.TRUE.equals(request.get("stream"));
+
+        double roll = random.nextDouble();
+        if (roll < rateLimitRate) {
+            return new SimulatedCall(429, latencyMs / 4, model, null, 0, 0, stream);
+        }
+        if (roll < rateLimitRate + serverErrorRate) {
+            int[] statuses = {500, 502, 503};
+            return new SimulatedCall(statuses[random.nextInt(statuses.length)], latencyMs, model, null, 0, 0, stream);
+        }
+
+        String prompt = extractPrompt(request);
+        String content = buildContent(request, prompt);
+
+        if (random.nextDouble() < truncationRate && content.length() > 10) {
+            content = content.substring(0, content.length() / 2 + random.nextInt(content.length() / 3));
+        }
+
+        return new SimulatedCall(200, latencyMs, model, content, estimateTokens(prompt), estimateTokens(content), stream);
+    }
+
+    public Map<String, Object> completionBody(SimulatedCall call) {
+        return Map.of(
+            "id", "sim-" + UUID.randomUUID(),
+            "object", "chat.completion",
+            "created", System.currentTimeMillis() / 1000,
+            "model", call.model(),
+            "choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", call.content()),
+                "finish_reason", "stop"
+            )),
+            "usage", Map.of(
+                "prompt_tokens", call.promptTokens(),
+                "completion_tokens", call.completionTokens(),
+                "total_tokens", call.promptTokens() + call.completionTokens()
+            )
+        );
+    }
+
+    public Map<String, Object> errorBody(int status) {
+        return Map.of("error", Map.of(
+            "code", status,
+            "message", status == 429 ? "Rate limit exceeded (simulated)" : "Upstream error (simulated)"
+        ));
+    }
+
+    /**
+     * Split the completion into server-sent event payloads in the OpenAI streaming format.
+     */
+    public List<String> streamChunks(SimulatedCall call) {
+        List<String> chunks = new ArrayList<>();
+        String content = call.content();
+        for (int start = 0; start < content.length(); start += streamChunkSize) {
+            String piece = content.substring(start, Math.min(content.length(), start + streamChunkSize));
+            chunks.add(toJson(Map.of(
+                "id", "sim-stream",
+                "object", "chat.completion.chunk",
+                "model", call.model(),
+                "choices", List.of(Map.of("index", 0, "delta", Map.of("content", piece)))
+            )));
+        }
+        chunks.add(toJson(Map.of(
+            "id", "sim-stream",
+            "object", "chat.completion.chunk",
+            "model", call.model(),
+            "choices", List.of(Map.of("index", 0, "delta", Map.of(), "finish_reason", "stop")),
+            "usage", Map.of(
+                "prompt_tokens", call.promptTokens(),
+                "completion_tokens", call.completionTokens(),
+                "total_tokens", call.promptTokens() + call.completionTokens()
+            )
+        )));
+        chunks.add("[DONE]");
+        return chunks;
+    }
+
+    public long getStreamChunkDelayMs() {
+        return streamChunkDelayMs;
+    }
+
+    private long sampleLatency(Random random) {
+        long latency = switch (latencyDistribution) {
+            case "fixed" -> medianLatencyMs;
+            case "uniform" -> minLatencyMs + (long) (random.nextDouble() * (maxLatencyMs - minLatencyMs));
+            default -> (long) (medianLatencyMs * Math.exp(latencySigma * random.nextGaussian()));
+        };
+        return Math.max(minLatencyMs, Math.min(maxLatencyMs, latency));
+    }
+
+    private String buildContent(Map<String, Object> request, String prompt) {
+        Random contentRandom = new Random(seed ^ prompt.hashCode());
+
+        if (hasImage(request)) {
+            return recognitionJson(contentRandom, imageFingerprint(request));
+        }
+
+        Matcher sections = REQUEST_SECTION_PATTERN.matcher(prompt);
+        List<Integer> requestNumbers = new ArrayList<>();
+        while (sections.find()) {
+            requestNumbers.add(Integer.parseInt(sections.group(1)));
+        }
+        if (!requestNumbers.isEmpty()) {
+            String[] parts = REQUEST_SECTION_PATTERN.split(prompt);
+            List<Map<String, Object>> recipes = new ArrayList<>();
+            for (int i = 0; i < requestNumbers.size(); i++) {
+                Map<String, Object> recipe = recipeFor(parts[Math.min(i + 1, parts.length - 1)], contentRandom);
+                recipe.put("request", requestNumbers.get(i));
+                recipes.add(recipe);
+            }
+            return toJson(Map.of("recipes", recipes));
+        }
+
+        Matcher recipeSections = RECIPE_SECTION_PATTERN.matcher(prompt);
+        List<Map<String, Object>> modified = new ArrayList<>();
+        while (recipeSections.find()) {
+            Map<String, Object> recipe = recipeFor("using these ingredients: " + recipeSections.group(3) + ".", contentRandom);
+            recipe.put("title", recipeSections.group(2).trim() + " (Adapted)");
+            recipe.remove("nutrition");
+            modified.add(recipe);
+        }
+        if (!modified.isEmpty()) {
+            return toJson(Map.of("recipes", modified));
+        }
+
+        return toJson(recipeFor(prompt, contentRandom));
+    }
+
+    private Map<String, Object> recipeFor(String prompt, Random random) {
+        List<String> ingredients = new ArrayList<>();
+        Matcher ingredientMatcher = INGREDIENTS_PATTERN.matcher(prompt);
+        if (ingredientMatcher.find()) {
+            for (String name : ingredientMatcher.group(1).split(",")) {
+                if (!name.isBlank()) {
+                    ingredients.add(name.trim());
+                }
+            }
+        }
+        if (ingredients.isEmpty()) {
+            ingredients.add(PANTRY.get(random.nextInt(PANTRY.size())));
+        }
+        ingredients.add(random.nextBoolean() ? "olive oil" : "salt");
+
+        Matcher cuisineMatcher = CUISINE_PATTERN.matcher(prompt);
+        String cuisine = cuisineMatcher.find() ? cuisineMatcher.group(1).trim() : CUISINES.get(random.nextInt(CUISINES.size()));
+
+        Matcher timeMatcher = MAX_TIME_PATTERN.matcher(prompt);
+        int maxTime = timeMatcher.find() ? Integer.parseInt(timeMatcher.group(1)) : 60;
+        int timeMinutes = Math.max(5, Math.min(maxTime, 10 + random.nextInt(50)));
+
+        Matcher difficultyMatcher = DIFFICULTY_PATTERN.matcher(prompt);
+        String difficulty = difficultyMatcher.find()
+            ? difficultyMatcher.group(1).toUpperCase()
+            : List.of("EASY", "MEDIUM", "HARD").get(random.nextInt(3));
+
+        List<Map<String, Object>> ingredientList = new ArrayList<>();
+        for (String name : ingredients) {
+            ingredientList.add(Map.of("name", name, "quantity", String.valueOf(1 + random.nextInt(3)), "unit", "cups"));
+        }
+
+        List<String> steps = new ArrayList<>();
+        steps.add("Prepare the " + String.join(", ", ingredients) + ".");
+        steps.add("Cook over medium heat for " + timeMinutes / 2 + " minutes.");
+        steps.add("Season to taste and serve.");
+
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("title", "Simulated " + cuisine + " " + capitalize(ingredients.get(0)) + " Dish " + (100 + random.nextInt(900)));
+        recipe.put("timeMinutes", timeMinutes);
+        recipe.put("difficulty", difficulty);
+        recipe.put("cuisine", cuisine);
+        recipe.put("ingredients", ingredientList);
+        recipe.put("steps", steps);
+        recipe.put("nutrition", Map.of(
+            "kcal", 250 + random.nextInt(500),
+            "protein", 5.0 + random.nextInt(30),
+            "carbs", 10.0 + random.nextInt(60),
+            "fat", 5.0 + random.nextInt(25)
+        ));
+        return recipe;
+    }
+
+    private String recognitionJson(Random random, int fingerprint) {
+        Random imageRandom = new Random(random.nextLong() ^ fingerprint);
+        List<String> shuffled = new ArrayList<>(PANTRY);
+        Collections.shuffle(shuffled, imageRandom);
+
+        List<Map<String, Object>> ingredients = new ArrayList<>();
+        int count = 2 + imageRandom.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            ingredients.add(Map.of(
+                "name", shuffled.get(i),
+                "confidence", Math.round((0.6 + imageRandom.nextDouble() * 0.4) * 100) / 100.0
+            ));
+        }
+        return toJson(Map.of("ingredients", ingredients));
+    }
+
+    private String extractPrompt(Map<String, Object> request) {
+        StringBuilder prompt = new StringBuilder();
+        Object messages = request.get("messages");
+        if (messages instanceof List<?> messageList) {
+            for (Object message : messageList) {
+                if (!(message instanceof Map<?, ?> messageMap)) {
+                    continue;
+                }
+                Object content = messageMap.get("content");
+                if (content instanceof String text) {
+                    prompt.append(text).append('\n');
+                } else if (content instanceof List<?> parts) {
+                    for (Object part : parts) {
+                        if (part instanceof Map<?, ?> partMap && "text".equals(partMap.get("type"))) {
+                            prompt.append(partMap.get("text")).append('\n');
+                        }
+                    }
+                }
+            }
+        }
+        return prompt.toString();
+    }
+
+    private boolean hasImage(Map<String, Object> request) {
+        return imageFingerprint(request) != 0;
+    }
+
+    private int imageFingerprint(Map<String, Object> request) {
+        Object messages = request.get("messages");
+        if (messages instanceof List<?> messageList) {
+            for (Object message : messageList) {
+                if (message instanceof Map<?, ?> messageMap && messageMap.get("content") instanceof List<?> parts) {
+                    for (Object part : parts) {
+                        if (part instanceof Map<?, ?> partMap && partMap.get("image_url") instanceof Map<?, ?> imageUrl) {
+                            String url = String.valueOf(imageUrl.get("url"));
+                            // Hash a bounded slice so huge data URLs stay cheap; never 0 for an image
+                            return url.substring(0, Math.min(url.length(), 4096)).hashCode() | 1;
+                        }
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int estimateTokens(String text) {
+        return text == null ? 0 : Math.max(1, text.length() / 4);
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize simulated response", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Assignment.Recipe_Generator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenRouterSimulatorServiceTest {
+
+    private final Map<String, Object> request = Map.of(
+        "model", "sim-model",
+        "messages", List.of(Map.of("role", "user", "content", "Create a recipe using these ingredients: rice, egg.")));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fixed", "uniform", "lognormal"})
+    void testLatency_StaysWithinBounds(String distribution) {
+        OpenRouterSimulatorService simulator = simulator(distribution, 100, 300, 2000);
+
+        for (int i = 0; i < 500; i++) {
+            long latencyMs = simulator.simulate(request).latencyMs();
+            assertTrue(latencyMs >= 300 && latencyMs <= 2000, distribution + " latency " + latencyMs);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fixed", "uniform", "lognormal"})
+    void testSameSeed_ReplaysSameSequence(String distribution) {
+        OpenRouterSimulatorService first = simulator(distribution, 800, 200, 5000);
+        OpenRouterSimulatorService second = simulator(distribution, 800, 200, 5000);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first.simulate(request), second.simulate(request));
+        }
+    }
+
+    private static OpenRouterSimulatorService simulator(String distribution, long medianMs, long minMs, long maxMs) {
+        OpenRouterSimulatorService simulator = new OpenRouterSimulatorService(new ObjectMapper());
+        ReflectionTestUtils.setField(simulator, "seed", 42L);
+        ReflectionTestUtils.setField(simulator, "latencyDistribution", distribution);
+        ReflectionTestUtils.setField(simulator, "medianLatencyMs", medianMs);
+        ReflectionTestUtils.setField(simulator, "latencySigma", 0.5);
+        ReflectionTestUtils.setField(simulator, "minLatencyMs", minMs);
+        ReflectionTestUtils.setField(simulator, "maxLatencyMs", maxMs);
+        return simulator;
+    }
+}
@@ -0,0 +1,121 @@
+package Assignment.Recipe_Generator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixSuggestIndexTest {
+
+    @Test
+    void testSuggest_PrefixBeforeWordStartBeforeSubstring() {
+        // Given - the substring and word-start matches outweigh the prefix match
+        PrefixSuggestIndex index = new PrefixSuggestIndex(10);
+        index.put("onion", "onion", 1);
+        index.put("green onion", "green onion", 50);
+        index.put("scallion", "scallion", 100);
+
+        // When / Then
+        assertEquals(List.of("onion", "green onion"), texts(index.suggest("oni", 10)));
+        assertEquals(List.of("scallion"), texts(index.suggest("lio", 10)));
+        // Substring matches need at least 3 characters
+        assertEquals(List.of("onion", "green onion"), texts(index.suggest("on", 10)));
+        // Substring-only matches rank by weight among themselves
+        assertEquals(List.of("scallion", "green onion", "onion"), texts(index.suggest("ion", 10)));
+
+        index.put("pea", "pea", 1);
+        index.put("chickpea", "chickpea", 100);
+        assertEquals(List.of("pea", "chickpea"), texts(index.suggest("pea", 10)));
+    }
+
+    @Test
+    void testSuggest_RankedByWeightWithinMatchType() {
+        // Given
+        PrefixSuggestIndex index = new PrefixSuggestIndex(10);
+        index.put("tomato paste", "tomato paste", 3);
+        index.put("tomato", "tomato", 40);
+        index.put("tomatillo", "tomatillo", 1);
+        index.put("sun dried tomato", "sun dried tomato", 100);
+
+        // When
+        List<String> suggestions = texts(index.suggest("toma", 10));
+
+        // Then - whole-text prefixes by weight, then the heavier word-start match
+        assertEquals(List.of("tomato", "tomato paste", "tomatillo", "sun dried tomato"), suggestions);
+    }
+
+    @Test
+    void testSuggest_EqualWeightsShorterFirst() {
+        PrefixSuggestIndex index = new PrefixSuggestIndex(10);
+        index.put("rice vinegar", "rice vinegar", 2);
+        index.put("rice", "rice", 2);
+        index.put("rice noodle", "rice noodle", 2);
+
+        assertEquals(List.of("rice", "rice noodle", "rice vinegar"), texts(index.suggest("Rice", 10)));
+    }
+
+    @Test
+    void testSuggest_TopKAndLimit() {
+        // Given - only the heaviest two are kept per trie node
+        PrefixSuggestIndex index = new PrefixSuggestIndex(2);
+        index.put("basil", "basil", 5);
+        index.put("basmati rice", "basmati rice", 9);
+        index.put("bass", "bass", 1);
+
+        // When / Then - queries under 3 characters get prefix matches only
+        assertEquals(List.of("basmati rice", "basil"), texts(index.suggest("ba", 10)));
+        assertEquals(List.of("basmati rice"), texts(index.suggest("ba", 1)));
+        // Longer queries fill up with substring matches past the top K
+        assertEquals(List.of("basmati rice", "basil", "bass"), texts(index.suggest("bas", 10)));
+        assertEquals(List.of(), index.suggest("", 10));
+        assertEquals(List.of(), index.suggest("bas", 0));
+    }
+
+    @Test
+    void testPut_ReweightsExistingEntry() {
+        // Given
+        PrefixSuggestIndex index = new PrefixSuggestIndex(2);
+        index.put("carrot", "carrot", 10);
+        index.put("cardamom", "cardamom", 5);
+        index.put("caraway", "caraway", 1);
+        assertEquals(List.of("carrot", "cardamom"), texts(index.suggest("ca", 10)));
+
+        // When - caraway becomes the most used
+        index.put("caraway", "caraway", 20);
+
+        // Then
+        assertEquals(3, index.size());
+        assertEquals(List.of("caraway", "carrot"), texts(index.suggest("ca", 10)));
+        assertEquals(20.0, index.suggest("cara", 1).get(0).weight());
+    }
+
+    @Test
+    void testRemove_RefillsTopKAndDropsAllMatchTypes() {
+        // Given
+        PrefixSuggestIndex index = new PrefixSuggestIndex(2);
+        index.put("garlic", "garlic", 10);
+        index.put("garlic powder", "garlic powder", 5);
+        index.put("garam masala", "garam masala", 1);
+        index.put("wild garlic", "wild garlic", 3);
+
+        // When
+        index.remove("garlic");
+        index.remove("missing");
+
+        // Then - the third entry moves up into the node's top 2
+        assertEquals(3, index.size());
+        assertEquals(List.of("garlic powder", "garam masala", "wild garlic"), texts(index.suggest("gar", 10)));
+        assertEquals(List.of("garlic powder", "wild garlic"), texts(index.suggest("garlic", 10)));
+        assertEquals(List.of("garlic powder"), texts(index.suggest("rlic pow", 10)));
+
+        index.remove("garlic powder");
+        index.remove("wild garlic");
+        assertEquals(List.of(), index.suggest("garl", 10));
+        assertEquals(List.of(), index.suggest("rlic", 10));
+    }
+
+    private static List<String> texts(List<PrefixSuggestIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(PrefixSuggestIndex.Suggestion::text).toList();
+    }
+}
@@ -0,0 +1,542 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.FacetCounts;
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeFeatureStoreTest {
+
+    // Includes plural and synonym spellings so both sides go through the normalizer
+    private static final String[] INGREDIENTS = {
+        "chicken", "tomatoes", "tomato", "onion", "garlic", "rice", "egg", "eggs", "scallions", "green onion",
+        "prawns", "shrimp", "coriander", "cilantro", "potato", "carrot", "beef", "pork", "tofu", "spinach",
+        "mushroom", "bell pepper", "capsicum", "lemon", "ginger", "soy sauce", "butter", "milk", "flour", "cheese"
+    };
+    private static final String[] CUISINES = {"Italian", "Mexican", "Indian", "Thai", "Indo-Chinese", null};
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private MasterIngredientIndex masterIngredientIndex;
+
+    private final IngredientNormalizer ingredientNormalizer = new IngredientNormalizer();
+
+    private IngredientService ingredientService;
+
+    private Map<String, Recipe> catalog;
+
+    @BeforeEach
+    void setUp() {
+        // The master index knows no names, so user input is only normalized, like recipe names
+        ingredientService = new IngredientService(masterIngredientIndex, ingredientNormalizer);
+        catalog = new LinkedHashMap<>();
+        for (Recipe recipe : generateCatalog(300, 7)) {
+            catalog.put(recipe.getId(), recipe);
+        }
+    }
+
+    @Test
+    void testTopMatches_SameAsStreamSort() {
+        // Given
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When / Then
+        for (RecipeRequest request : requests()) {
+            assertSameRanking(request, store.topMatches(request, userKeys(request), 3));
+        }
+    }
+
+    @Test
+    void testTopMatches_SameAsStreamSortAfterDeleteAndUpsert() {
+        // Given
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+        List<String> ids = new ArrayList<>(catalog.keySet());
+
+        // When - delete from the front, middle and end, update one recipe and add a new one
+        for (String id : List.of(ids.get(0), ids.get(150), ids.get(ids.size() - 1))) {
+            catalog.remove(id);
+            store.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.DELETED, id, null, 0));
+        }
+        Recipe updated = recipe(ids.get(10), List.of("chicken", "rice", "garlic"), "Thai", Recipe.Difficulty.EASY, 20);
+        Recipe added = recipe("new-recipe", List.of("chicken", "tomato", "onion"), "Italian", Recipe.Difficulty.EASY, 15);
+        for (Recipe recipe : List.of(updated, added)) {
+            catalog.put(recipe.getId(), recipe);
+            store.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.SAVED, recipe.getId(), recipe, 0));
+        }
+
+        // Then
+        assertEquals(catalog.size(), store.size());
+        for (RecipeRequest request : requests()) {
+            assertSameRanking(request, store.topMatches(request, userKeys(request), 3));
+        }
+    }
+
+    @Test
+    void testTopMatches_ScoreIsIngredientMatchPercentage() {
+        // Given
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        for (RecipeRequest request : requests()) {
+            // When
+            List<RecipeFeatureStore.Match> matches = store.topMatches(request, userKeys(request), catalog.size());
+
+            // Then
+            assertFalse(matches.isEmpty());
+            for (RecipeFeatureStore.Match match : matches) {
+                double expected = ingredientService.calculateIngredientMatchPercentage(
+                    request.getIngredients(), catalog.get(match.recipeId()));
+                assertEquals(expected, match.score(), 1e-12, match.recipeId());
+            }
+        }
+    }
+
+    @Test
+    void testTopMatches_ParallelScanSameAsSequential() {
+        // Given - enough rows to split into several ForkJoin chunks
+        catalog.clear();
+        for (Recipe recipe : generateCatalog(40_000, 11)) {
+            catalog.put(recipe.getId(), recipe);
+        }
+        RecipeFeatureStore sequential = loadedStore("exact", Integer.MAX_VALUE);
+        RecipeFeatureStore parallel = loadedStore("exact", 1);
+
+        // When / Then
+        for (RecipeRequest request : requests()) {
+            Set<String> keys = userKeys(request);
+            assertEquals(sequential.topMatches(request, keys, 10), parallel.topMatches(request, keys, 10));
+        }
+    }
+
+    @Test
+    void testTopMatches_CuisineIsExactOnNormalizedValue() {
+        // Given
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+        List<String> ingredients = List.of("chicken", "tomato", "garlic", "onion", "rice");
+
+        // When
+        List<RecipeFeatureStore.Match> indian = store.topMatches(
+            RecipeRequest.builder().ingredients(ingredients).cuisine("Indian").build(), userKeys(ingredients), catalog.size());
+        List<RecipeFeatureStore.Match> padded = store.topMatches(
+            RecipeRequest.builder().ingredients(ingredients).cuisine("  INDIAN ").build(), userKeys(ingredients), catalog.size());
+        List<RecipeFeatureStore.Match> prefix = store.topMatches(
+            RecipeRequest.builder().ingredients(ingredients).cuisine("Ind").build(), userKeys(ingredients), catalog.size());
+
+        // Then - "Indo-Chinese" is not Indian, and a prefix is not a cuisine
+        assertFalse(indian.isEmpty());
+        assertTrue(indian.stream().allMatch(match -> "Indian".equals(catalog.get(match.recipeId()).getCuisine())));
+        assertEquals(indian, padded);
+        assertTrue(prefix.isEmpty());
+    }
+
+    @Test
+    void testFacetCounts_SameAsBruteForce() {
+        // Given
+        Random random = new Random(3);
+        String[] tags = {"vegan", "Vegetarian", "gluten-free", "dairy-free", "keto"};
+        for (Recipe recipe : catalog.values()) {
+            Set<String> recipeTags = new HashSet<>();
+            for (String tag : tags) {
+                if (random.nextInt(3) == 0) {
+                    recipeTags.add(tag);
+                }
+            }
+            recipe.setDietTags(recipeTags);
+        }
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When / Then
+        for (Set<String> diet : Arrays.asList(null, Set.of("vegan"), Set.of("VEGETARIAN", "keto"), Set.of("unknown"))) {
+            for (String cuisine : Arrays.asList(null, "Italian", "  indo-chinese ", "Klingon")) {
+                for (Recipe.Difficulty difficulty : Arrays.asList(null, Recipe.Difficulty.EASY, Recipe.Difficulty.HARD)) {
+                    for (Integer maxTime : Arrays.asList(null, 30, 90)) {
+                        String selection = diet + " " + cuisine + " " + difficulty + " " + maxTime;
+                        assertEquals(bruteForceFacets(diet, cuisine, difficulty, maxTime),
+                            store.facetCounts(diet, cuisine, difficulty, maxTime), selection);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFacetCounts_EachFacetIgnoresOnlyItsOwnFilter() {
+        // Given
+        catalog.clear();
+        addTagged(recipe("r1", List.of("rice"), "Italian", Recipe.Difficulty.EASY, 20), "vegan");
+        addTagged(recipe("r2", List.of("rice"), "Mexican", Recipe.Difficulty.EASY, 20), "vegan");
+        addTagged(recipe("r3", List.of("rice"), "Italian", Recipe.Difficulty.HARD, 50), "vegetarian");
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When
+        FacetCounts counts = store.facetCounts(Set.of("vegan"), "italian", null, null);
+
+        // Then - the cuisine facet keeps the diet filter, the diet facet keeps the cuisine filter
+        assertEquals(1, counts.getTotal());
+        assertEquals(Map.of("italian", 1L, "mexican", 1L), counts.getCuisine());
+        assertEquals(Map.of("vegan", 1L, "vegetarian", 1L), counts.getDietTags());
+        assertEquals(Map.of("EASY", 1L), counts.getDifficulty());
+        assertEquals(1L, counts.getMaxTime().get("30"));
+    }
+
+    @Test
+    void testFacetCounts_RecipesWithoutTimeExcludedByTimeLimit() {
+        // Given
+        catalog.clear();
+        addTagged(recipe("untimed", List.of("rice"), "Thai", Recipe.Difficulty.EASY, null));
+        addTagged(recipe("timed", List.of("rice"), "Thai", Recipe.Difficulty.EASY, 20));
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When
+        FacetCounts unlimited = store.facetCounts(null, null, null, null);
+        FacetCounts limited = store.facetCounts(null, null, null, 120);
+
+        // Then
+        assertEquals(2, unlimited.getTotal());
+        assertEquals(1L, unlimited.getMaxTime().get("120"));
+        assertEquals(1, limited.getTotal());
+        assertEquals(Map.of("thai", 1L), limited.getCuisine());
+    }
+
+    @Test
+    void testFacetCounts_ManyDistinctDietTagsAreAllFilterable() {
+        // Given - more distinct tags than fit in a 64-bit mask
+        catalog.clear();
+        for (int i = 0; i < 70; i++) {
+            addTagged(recipe("r" + i, List.of("rice"), "Thai", Recipe.Difficulty.EASY, 20), "tag-" + i);
+        }
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When
+        FacetCounts counts = store.facetCounts(Set.of("tag-69"), null, null, null);
+
+        // Then
+        assertEquals(1, counts.getTotal());
+        assertEquals(70, counts.getDietTags().size());
+        assertEquals(1L, counts.getDietTags().get("tag-69"));
+    }
+
+    @Test
+    void testCookableWith_OnlyRecipesContainedInPantry() {
+        // Given
+        catalog.clear();
+        addTagged(recipe("pair", List.of("rice", "Eggs"), "Thai", null, null));
+        addTagged(recipe("single", List.of("rice"), "Thai", null, null));
+        addTagged(recipe("needs-more", List.of("rice", "egg", "saffron"), "Indian", null, null));
+        addTagged(recipe("unrelated", List.of("tofu"), "Thai", null, null));
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When
+        List<RecipeFeatureStore.Match> matches = store.cookableWith(userKeys(List.of("egg", "rice", "butter")));
+
+        // Then - largest recipes first
+        assertEquals(List.of(new RecipeFeatureStore.Match("pair", 2), new RecipeFeatureStore.Match("single", 1)), matches);
+    }
+
+    @Test
+    void testCookableWith_RecipesWithoutIngredientsNotIncluded() {
+        // Given
+        catalog.clear();
+        addTagged(recipe("empty", List.of(), "Thai", null, null));
+        addTagged(recipe("blank-names", List.of("fresh", "2"), "Thai", null, null));
+        addTagged(recipe("rice", List.of("rice"), "Thai", null, null));
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When
+        List<RecipeFeatureStore.Match> matches = store.cookableWith(userKeys(List.of("rice")));
+
+        // Then
+        assertEquals(List.of(new RecipeFeatureStore.Match("rice", 1)), matches);
+    }
+
+    @Test
+    void testCookableWith_UnknownPantryItemsIgnored() {
+        // Given
+        catalog.clear();
+        addTagged(recipe("rice", List.of("rice"), "Thai", null, null));
+        RecipeFeatureStore store = loadedStore("exact", 50000);
+
+        // When / Then
+        assertEquals(List.of(new RecipeFeatureStore.Match("rice", 1)), store.cookableWith(userKeys(List.of("rice", "dragonfruit"))));
+        assertTrue(store.cookableWith(userKeys(List.of("dragonfruit"))).isEmpty());
+        assertTrue(store.cookableWith(Set.of()).isEmpty());
+    }
+
+    @Test
+    void testLshMode_FindsMovedRowAfterDelete() {
+        // Given - the last row has a unique ingredient, so it is the only exact match for its set
+        Recipe last = recipe("last", List.of("saffron", "rice", "onion"), "Indian", Recipe.Difficulty.MEDIUM, 40);
+        catalog.put(last.getId(), last);
+        RecipeFeatureStore store = loadedStore("lsh", 50000);
+        String deleted = catalog.keySet().iterator().next();
+        Recipe deletedRecipe = catalog.remove(deleted);
+
+        // When - deleting the first row moves the last row into its place
+        store.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.DELETED, deleted, null, 0));
+
+        // Then
+        RecipeRequest lastRequest = RecipeRequest.builder().ingredients(List.of("saffron", "rice", "onion")).build();
+        List<RecipeFeatureStore.Match> matches = store.topMatches(lastRequest, userKeys(lastRequest), 1);
+        assertEquals(List.of(new RecipeFeatureStore.Match("last", 1.0)), matches);
+
+        RecipeRequest deletedRequest = RecipeRequest.builder().ingredients(names(deletedRecipe)).build();
+        assertTrue(store.topMatches(deletedRequest, userKeys(deletedRequest), 3).stream()
+            .noneMatch(match -> match.recipeId().equals(deleted)));
+    }
+
+    @Test
+    void testTopK_KeepsBestInScoreThenRowOrder() {
+        // Given
+        Random random = new Random(3);
+        List<double[]> offered = new ArrayList<>();
+        RecipeFeatureStore.TopK top = new RecipeFeatureStore.TopK(5);
+
+        // When - coarse scores, so ties are common
+        for (int row = 0; row < 200; row++) {
+            double score = random.nextInt(10) / 10.0;
+            offered.add(new double[]{row, score});
+        }
+        Collections.shuffle(offered, random);
+        offered.forEach(entry -> top.offer((int) entry[0], entry[1]));
+
+        // Then
+        assertEquals(expectedTop(offered, 5), entries(top));
+    }
+
+    @Test
+    void testTopK_MergeSameAsSingleTopK() {
+        // Given
+        Random random = new Random(5);
+        RecipeFeatureStore.TopK left = new RecipeFeatureStore.TopK(4);
+        RecipeFeatureStore.TopK right = new RecipeFeatureStore.TopK(4);
+        List<double[]> offered = new ArrayList<>();
+        for (int row = 0; row < 100; row++) {
+            double score = random.nextInt(6) / 6.0;
+            offered.add(new double[]{row, score});
+            (row < 50 ? left : right).offer(row, score);
+        }
+
+        // When
+        RecipeFeatureStore.TopK merged = left.merge(right);
+
+        // Then
+        assertEquals(expectedTop(offered, 4), entries(merged));
+    }
+
+    @Test
+    void testTopK_FewerOffersThanLimit() {
+        // Given
+        RecipeFeatureStore.TopK top = new RecipeFeatureStore.TopK(3);
+
+        // When
+        top.offer(7, 0.5);
+        top.offer(2, 0.9);
+
+        // Then
+        assertEquals(List.of("2:0.9", "7:0.5"), entries(top));
+    }
+
+    private RecipeFeatureStore loadedStore(String retrievalMode, int parallelThreshold) {
+        when(recipeRepository.findAllFeatures()).thenReturn(new ArrayList<>(catalog.values()));
+        RecipeFeatureStore store = new RecipeFeatureStore(recipeRepository, ingredientNormalizer);
+        ReflectionTestUtils.setField(store, "parallelThreshold", parallelThreshold);
+        ReflectionTestUtils.setField(store, "retrievalMode", retrievalMode);
+        ReflectionTestUtils.setField(store, "lshBands", 32);
+        ReflectionTestUtils.setField(store, "lshRowsPerBand", 2);
+        store.size();
+        return store;
+    }
+
+    private Set<String> userKeys(RecipeRequest request) {
+        return userKeys(request.getIngredients());
+    }
+
+    private Set<String> userKeys(List<String> ingredients) {
+        return ingredientService.normalizeUserIngredients(ingredients);
+    }
+
+    /**
+     * Scores must equal the stream/sort ranking position by position; ids may differ only
+     * between recipes with equal scores, which the stream/sort left in catalog order.
+     */
+    private void assertSameRanking(RecipeRequest request, List<RecipeFeatureStore.Match> actual) {
+        List<Recipe> expected = streamSortTop(request, catalog.size());
+        assertEquals(Math.min(3, expected.size()), actual.size(), "matches for " + request);
+        for (int i = 0; i < actual.size(); i++) {
+            double expectedScore = ingredientService.calculateIngredientMatchPercentage(request.getIngredients(), expected.get(i));
+            RecipeFeatureStore.Match match = actual.get(i);
+            assertEquals(expectedScore, match.score(), 1e-12, "score at " + i + " for " + request);
+            assertEquals(expectedScore, ingredientService.calculateIngredientMatchPercentage(
+                request.getIngredients(), catalog.get(match.recipeId())), 1e-12, "recipe at " + i + " for " + request);
+        }
+        assertEquals(actual.size(), actual.stream().map(RecipeFeatureStore.Match::recipeId).distinct().count());
+    }
+
+    // generateRecipes step 1 before the feature store, with the exact cuisine rule of the Mongo filter
+    private List<Recipe> streamSortTop(RecipeRequest request, int limit) {
+        Set<String> userIngredientKeys = userKeys(request);
+        return catalog.values().stream()
+            .filter(recipe -> {
+                Set<String> intersection = new HashSet<>(ingredientService.recipeIngredientKeys(recipe));
+                intersection.retainAll(userIngredientKeys);
+                return !intersection.isEmpty();
+            })
+            .filter(recipe -> applyFilters(recipe, request))
+            .sorted((r1, r2) -> {
+                double match1 = ingredientService.calculateIngredientMatchPercentage(request.getIngredients(), r1);
+                double match2 = ingredientService.calculateIngredientMatchPercentage(request.getIngredients(), r2);
+                return Double.compare(match2, match1);
+            })
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean applyFilters(Recipe recipe, RecipeRequest request) {
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(request.getCuisine());
+        if (cuisineNorm != null && !cuisineNorm.equals(RecipeCatalogListener.normalizeCuisine(recipe.getCuisine()))) {
+            return false;
+        }
+        if (request.getDifficulty() != null && recipe.getDifficulty() != request.getDifficulty()) {
+            return false;
+        }
+        return request.getMaxTimeMinutes() == null || recipe.getTimeMinutes() == null
+            || recipe.getTimeMinutes() <= request.getMaxTimeMinutes();
+    }
+
+    private static List<RecipeRequest> requests() {
+        return List.of(
+            RecipeRequest.builder().ingredients(List.of("chicken", "tomato", "garlic")).build(),
+            RecipeRequest.builder().ingredients(List.of("Shrimp", "scallion", "rice", "truffle")).build(),
+            RecipeRequest.builder().ingredients(List.of("eggs", "milk", "flour", "butter")).cuisine(" indian ").build(),
+            RecipeRequest.builder().ingredients(List.of("tofu", "ginger", "soy sauce")).difficulty(Recipe.Difficulty.EASY).build(),
+            RecipeRequest.builder().ingredients(List.of("beef", "potatoes", "carrot", "onion")).maxTimeMinutes(30).build(),
+            RecipeRequest.builder().ingredients(List.of("cilantro", "lemon", "chicken")).cuisine("Thai")
+                .difficulty(Recipe.Difficulty.MEDIUM).maxTimeMinutes(60).build()
+        );
+    }
+
+    private static List<Recipe> generateCatalog(int count, long seed) {
+        Random random = new Random(seed);
+        Recipe.Difficulty[] difficulties = Recipe.Difficulty.values();
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Set<String> names = new LinkedHashSet<>();
+            int size = 2 + random.nextInt(6);
+            while (names.size() < size) {
+                names.add(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+            }
+            recipes.add(recipe("recipe-" + i, new ArrayList<>(names), CUISINES[random.nextInt(CUISINES.length)],
+                random.nextInt(5) == 0 ? null : difficulties[random.nextInt(difficulties.length)],
+                random.nextInt(8) == 0 ? null : 5 + random.nextInt(100)));
+        }
+        return recipes;
+    }
+
+    private void addTagged(Recipe recipe, String... dietTags) {
+        recipe.setDietTags(Set.of(dietTags));
+        catalog.put(recipe.getId(), recipe);
+    }
+
+    // Facet counts by filtering the catalog once per facet, with the database filter semantics
+    private FacetCounts bruteForceFacets(Set<String> diet, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        Set<String> wantedTags = diet == null ? null
+            : diet.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        String cuisineNorm = RecipeCatalogListener.normalizeCuisine(cuisine);
+
+        Map<String, Long> cuisineCounts = new HashMap<>();
+        Map<String, Long> difficultyCounts = new HashMap<>();
+        Map<String, Long> dietCounts = new HashMap<>();
+        Map<String, Long> timeCounts = new LinkedHashMap<>();
+        for (int bucket : RecipeFeatureStore.TIME_BUCKETS) {
+            timeCounts.put(String.valueOf(bucket), 0L);
+        }
+        long total = 0;
+
+        for (Recipe recipe : catalog.values()) {
+            Set<String> tags = recipe.getDietTags().stream().map(String::toLowerCase).collect(Collectors.toSet());
+            String recipeCuisine = RecipeCatalogListener.normalizeCuisine(recipe.getCuisine());
+            boolean dietOk = wantedTags == null || tags.stream().anyMatch(wantedTags::contains);
+            boolean cuisineOk = cuisineNorm == null || cuisineNorm.equals(recipeCuisine);
+            boolean difficultyOk = difficulty == null || recipe.getDifficulty() == difficulty;
+            boolean timeOk = maxTime == null || (recipe.getTimeMinutes() != null && recipe.getTimeMinutes() <= maxTime);
+
+            if (dietOk && cuisineOk && difficultyOk && timeOk) {
+                total++;
+            }
+            if (dietOk && difficultyOk && timeOk && recipeCuisine != null) {
+                cuisineCounts.merge(recipeCuisine, 1L, Long::sum);
+            }
+            if (dietOk && cuisineOk && timeOk && recipe.getDifficulty() != null) {
+                difficultyCounts.merge(recipe.getDifficulty().name(), 1L, Long::sum);
+            }
+            if (cuisineOk && difficultyOk && timeOk) {
+                tags.forEach(tag -> dietCounts.merge(tag, 1L, Long::sum));
+            }
+            if (dietOk && cuisineOk && difficultyOk && recipe.getTimeMinutes() != null) {
+                for (int bucket : RecipeFeatureStore.TIME_BUCKETS) {
+                    if (recipe.getTimeMinutes() <= bucket) {
+                        timeCounts.merge(String.valueOf(bucket), 1L, Long::sum);
+                    }
+                }
+            }
+        }
+
+        return FacetCounts.builder()
+            .total(total)
+            .cuisine(cuisineCounts)
+            .difficulty(difficultyCounts)
+            .dietTags(dietCounts)
+            .maxTime(timeCounts)
+            .build();
+    }
+
+    private static Recipe recipe(String id, List<String> ingredients, String cuisine, Recipe.Difficulty difficulty, Integer timeMinutes) {
+        return Recipe.builder()
+            .id(id)
+            .title("Recipe " + id)
+            .ingredients(ingredients.stream()
+                .map(name -> Recipe.Ingredient.builder().name(name).build())
+                .collect(Collectors.toList()))
+            .cuisine(cuisine)
+            .difficulty(difficulty)
+            .timeMinutes(timeMinutes)
+            .source(Recipe.Source.DB)
+            .build();
+    }
+
+    private static List<String> names(Recipe recipe) {
+        return recipe.getIngredients().stream().map(Recipe.Ingredient::getName).collect(Collectors.toList());
+    }
+
+    private static List<String> expectedTop(List<double[]> offered, int limit) {
+        return offered.stream()
+            .sorted(Comparator.<double[]>comparingDouble(entry -> -entry[1]).thenComparingDouble(entry -> entry[0]))
+            .limit(limit)
+            .map(entry -> (int) entry[0] + ":" + entry[1])
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> entries(RecipeFeatureStore.TopK top) {
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < top.count; i++) {
+            entries.add(top.rows[i] + ":" + top.scores[i]);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,135 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.config.MongoIndexConfig;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.RecipeCatalogListener;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Explains the search filter query for every combination of filters against a real MongoDB
+ * with the indexes from {@link MongoIndexConfig}, and checks that none scans the collection.
+ * Skipped locally when Docker is not available; with -Drecipe.test.require-docker=true (as
+ * in the CI mongo-index-plans job) it fails instead.
+ */
+@DataMongoTest
+@Import({MongoIndexConfig.class, RecipeCatalogListener.class})
+@Testcontainers
+@EnabledIf("dockerAvailableOrRequired")
+class RecipeFilterIndexTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private CommandLineRunner ensureRecipeIndexes;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    static boolean dockerAvailableOrRequired() {
+        return Boolean.getBoolean("recipe.test.require-docker") || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recipeRepository.deleteAll();
+        List<Recipe> recipes = new ArrayList<>();
+        String[] cuisines = {"Italian", "Mexican", " indian ", "Thai"};
+        for (int i = 0; i < 200; i++) {
+            recipes.add(Recipe.builder()
+                .title("Recipe " + i)
+                .ingredients(List.of(Recipe.Ingredient.builder().name("ingredient " + (i % 17)).build()))
+                .steps(List.of("Cook"))
+                .timeMinutes(10 + i % 90)
+                .difficulty(Recipe.Difficulty.values()[i % Recipe.Difficulty.values().length])
+                .cuisine(cuisines[i % cuisines.length])
+                .dietTags(i % 3 == 0 ? Set.of("vegetarian") : Set.of("gluten-free"))
+                .source(Recipe.Source.DB)
+                .build());
+        }
+        recipeRepository.saveAll(recipes);
+        ensureRecipeIndexes.run();
+    }
+
+    @ParameterizedTest(name = "diet={0} cuisine={1} difficulty={2} maxTime={3}")
+    @MethodSource("filterCombinations")
+    void testFilterQuery_UsesIndex(Set<String> dietTags, String cuisine, Recipe.Difficulty difficulty, Integer maxTime) {
+        Document explain = recipeRepository.explainFilters(dietTags, cuisine, difficulty, maxTime);
+        Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+
+        List<String> stages = new ArrayList<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        RecipeService.collectPlanStages(winningPlan, stages, indexes);
+
+        assertFalse(stages.isEmpty(), "no plan stages in " + winningPlan);
+        assertFalse(stages.contains("COLLSCAN"), "collection scan in " + stages);
+        assertFalse(indexes.isEmpty(), "no index used in " + stages);
+    }
+
+    @Test
+    void testEnsureIndexes_ExistingInfraIndexesDoNotBlockTextIndex() throws Exception {
+        // Given - the indexes the old infra/mongo-init.js created, under their default names
+        MongoCollection<Document> recipes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Recipe.class));
+        recipes.dropIndexes();
+        recipes.createIndex(new Document("timeMinutes", 1));
+        recipes.createIndex(new Document("dietTags", 1));
+        recipes.createIndex(new Document("title", "text").append("ingredients.name", "text"));
+
+        // When
+        ensureRecipeIndexes.run();
+
+        // Then - no duplicate of an existing key pattern, and the weighted text index replaced the old one
+        Map<String, Document> byName = new HashMap<>();
+        for (Document index : recipes.listIndexes()) {
+            byName.put(index.getString("name"), index);
+        }
+        assertTrue(byName.containsKey("timeMinutes_1"));
+        assertFalse(byName.containsKey("time"));
+        assertTrue(byName.containsKey("dietTags_1"));
+        assertFalse(byName.containsKey("diet_tags"));
+        assertTrue(byName.containsKey("cuisine_norm_difficulty_time"));
+        assertTrue(byName.containsKey("difficulty_time"));
+        assertFalse(byName.containsKey("title_text_ingredients.name_text"));
+        assertEquals(3, byName.get("recipe_text").get("weights", Document.class).get("title", Number.class).intValue());
+    }
+
+    // Every subset of the four filters
+    static Stream<Arguments> filterCombinations() {
+        List<Arguments> combinations = new ArrayList<>();
+        for (int mask = 0; mask < 16; mask++) {
+            combinations.add(Arguments.of(
+                (mask & 1) != 0 ? Set.of("vegetarian") : null,
+                (mask & 2) != 0 ? "Indian" : null,
+                (mask & 4) != 0 ? Recipe.Difficulty.MEDIUM : null,
+                (mask & 8) != 0 ? 30 : null));
+        }
+        return combinations.stream();
+    }
+}
@@ -0,0 +1,158 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.RecipeRequest;
+import Assignment.Recipe_Generator.model.Recipe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeGenerationBatcherTest {
+
+    @Mock
+    private OpenRouterService openRouterService;
+
+    private RecipeGenerationBatcher batcher;
+
+    private final RecipeRequest request = RecipeRequest.builder()
+        .ingredients(List.of("chicken", "rice"))
+        .build();
+
+    @BeforeEach
+    void setUp() {
+        batcher = new RecipeGenerationBatcher(openRouterService);
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 2);
+        ReflectionTestUtils.setField(batcher, "maxWaitMs", 1000L);
+        ReflectionTestUtils.setField(batcher, "workers", 2);
+        ReflectionTestUtils.setField(batcher, "resultTimeoutMs", 5000L);
+        batcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void testFallbackFailure_CompletesCaller() throws Exception {
+        Recipe recipe = Recipe.builder().title("Fried Rice").build();
+        when(openRouterService.generateRecipeBatch(anyList(), anyList(), anyList()))
+            .thenReturn(List.of(List.of(recipe), List.of()));
+        when(openRouterService.generateSingleRecipe(any(), any(), any()))
+            .thenThrow(new NullPointerException("no user"));
+
+        List<List<Recipe>> results = generateConcurrently(2);
+
+        // One caller got the batched recipe, the other an empty result instead of hanging
+        assertTrue(results.contains(List.of(recipe)));
+        assertTrue(results.contains(List.of()));
+    }
+
+    @Test
+    void testTimeout_InFlightBatchIsAwaitedNotRepeated() throws Exception {
+        // Given - the batch call answers after the callers' timeout
+        ReflectionTestUtils.setField(batcher, "resultTimeoutMs", 100L);
+        Recipe first = Recipe.builder().title("Risotto").build();
+        Recipe second = Recipe.builder().title("Paella").build();
+        when(openRouterService.generateRecipeBatch(anyList(), anyList(), anyList())).thenAnswer(invocation -> {
+            Thread.sleep(400);
+            return List.of(List.of(first), List.of(second));
+        });
+
+        // When
+        List<List<Recipe>> results = generateConcurrently(2);
+
+        // Then
+        assertEquals(Set.of(List.of(first), List.of(second)), new HashSet<>(results));
+        verify(openRouterService, never()).generateSingleRecipe(any(), any(), any());
+    }
+
+    @Test
+    void testTimeout_QueuedGenerationIsWithdrawn() throws Exception {
+        // Given - a lone request waits for a batch that only flushes after 1000 ms
+        ReflectionTestUtils.setField(batcher, "resultTimeoutMs", 100L);
+        Recipe recipe = Recipe.builder().title("Risotto").build();
+        when(openRouterService.generateSingleRecipe(any(), any(), any())).thenReturn(List.of(recipe));
+
+        // When
+        List<Recipe> result = batcher.generate(request, null, List.of());
+        Thread.sleep(1200);
+
+        // Then - the caller generated it directly and the later flush skipped it
+        assertEquals(List.of(recipe), result);
+        verify(openRouterService, times(1)).generateSingleRecipe(any(), any(), any());
+        verify(openRouterService, never()).generateRecipeBatch(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void testIncompatibleRequests_NotBatchedTogether() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(batcher, "maxWaitMs", 100L);
+        Recipe recipe = Recipe.builder().title("Curry").build();
+        when(openRouterService.generateSingleRecipe(any(), any(), any())).thenReturn(List.of(recipe));
+        RecipeRequest italian = RecipeRequest.builder().ingredients(List.of("rice")).cuisine("Italian").build();
+        RecipeRequest indian = RecipeRequest.builder().ingredients(List.of("rice")).cuisine("Indian").build();
+
+        // When
+        List<List<Recipe>> results = generateConcurrently(List.of(italian, indian));
+
+        // Then - each waited out its own window and went alone
+        assertEquals(List.of(List.of(recipe), List.of(recipe)), results);
+        verify(openRouterService, times(2)).generateSingleRecipe(any(), any(), any());
+        verify(openRouterService, never()).generateRecipeBatch(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void testCompatibleRequests_BatchedAfterNormalization() throws Exception {
+        // Given
+        Recipe first = Recipe.builder().title("Risotto").build();
+        Recipe second = Recipe.builder().title("Arancini").build();
+        when(openRouterService.generateRecipeBatch(anyList(), anyList(), anyList()))
+            .thenReturn(List.of(List.of(first), List.of(second)));
+        RecipeRequest italian = RecipeRequest.builder().ingredients(List.of("rice")).cuisine("Italian")
+            .dietTags(Set.of("Vegetarian")).build();
+        RecipeRequest alsoItalian = RecipeRequest.builder().ingredients(List.of("cheese")).cuisine(" italian ")
+            .dietTags(Set.of("vegetarian ")).build();
+
+        // When
+        List<List<Recipe>> results = generateConcurrently(List.of(italian, alsoItalian));
+
+        // Then
+        assertEquals(Set.of(List.of(first), List.of(second)), new HashSet<>(results));
+        verify(openRouterService, times(1)).generateRecipeBatch(anyList(), anyList(), anyList());
+    }
+
+    private List<List<Recipe>> generateConcurrently(int callers) throws Exception {
+        return generateConcurrently(Collections.nCopies(callers, request));
+    }
+
+    private List<List<Recipe>> generateConcurrently(List<RecipeRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        try {
+            List<Future<List<Recipe>>> futures = new ArrayList<>();
+            for (RecipeRequest recipeRequest : requests) {
+                futures.add(executor.submit(() -> batcher.generate(recipeRequest, null, List.of())));
+            }
+            List<List<Recipe>> results = new ArrayList<>();
+            for (Future<List<Recipe>> future : futures) {
+                results.add(assertTimeoutPreemptively(Duration.ofSeconds(10), () -> future.get()));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package Assignment.Recipe_Generator.service;
 
+import Assignment.Recipe_Generator.dto.CursorPage;
 import Assignment.Recipe_Generator.dto.RecipeRequest;
 import Assignment.Recipe_Generator.dto.RecipeResponse;
 import Assignment.Recipe_Generator.model.Recipe;
 import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,7 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,10 +28,17 @@ class RecipeServiceTest {
     @Mock
     private OpenRouterService openRouterService;
 
+    @Mock
+    private LogService logService;
+
+    @Mock
+    private IngredientService ingredientService;
 
+    @Mock
+    private RecipeFeatureStore recipeFeatureStore;
 
     @Mock
-    private LogService logService;
+    private RecipeGenerationBatcher recipeGenerationBatcher;
 
     @InjectMocks
     private RecipeService recipeService;
@@ -58,12 +67,19 @@ class RecipeServiceTest {
             .ingredients(Arrays.asList("chicken", "tomato"))
             .servings(4)
             .build();
+
+        lenient().when(ingredientService.categorizeIngredients(any())).thenReturn(Map.of(
+            "matched", List.of("chicken", "tomato"),
+            "unmatched", List.of()));
+        lenient().when(ingredientService.normalizeUserIngredients(any())).thenReturn(Set.of("chicken", "tomato"));
     }
 
     @Test
     void testCalculateMatchScore_PerfectMatch() {
         // Given
-        when(recipeRepository.findAll()).thenReturn(Arrays.asList(testRecipe));
+        when(recipeFeatureStore.topMatches(eq(testRequest), eq(Set.of("chicken", "tomato")), eq(3)))
+            .thenReturn(List.of(new RecipeFeatureStore.Match("test-id", 1.0)));
+        when(recipeRepository.findAllById(List.of("test-id"))).thenReturn(List.of(testRecipe));
 
         // When
         RecipeResponse results = recipeService.generateRecipes(testRequest, "test-user");
@@ -72,6 +88,8 @@ class RecipeServiceTest {
         assertNotNull(results);
         assertNotNull(results.getRecipes());
         assertFalse(results.getRecipes().isEmpty());
+        assertEquals("Test Recipe", results.getRecipes().get(0).getTitle());
+        verify(recipeRepository, never()).findAll();
         verify(logService).logRecipeGeneration(eq("test-user"), any(), anyInt(), any());
     }
 
@@ -94,7 +112,9 @@ class RecipeServiceTest {
             .source(Recipe.Source.DB)
             .build();
 
-        when(recipeRepository.findAll()).thenReturn(Arrays.asList(partialMatchRecipe));
+        when(recipeFeatureStore.topMatches(eq(testRequest), any(), eq(3)))
+            .thenReturn(List.of(new RecipeFeatureStore.Match("partial-id", 0.25)));
+        when(recipeRepository.findAllById(List.of("partial-id"))).thenReturn(List.of(partialMatchRecipe));
 
         // When
         RecipeResponse results = recipeService.generateRecipes(testRequest, "test-user");
@@ -103,25 +123,13 @@ class RecipeServiceTest {
         assertNotNull(results);
         assertNotNull(results.getRecipes());
         // Should still return results even with partial match
+        assertEquals("Partial Match Recipe", results.getRecipes().get(0).getTitle());
         verify(logService).logRecipeGeneration(eq("test-user"), any(), anyInt(), any());
     }
 
     @Test
     void testGenerateRecipes_FallbackToLLM() {
-        // Given - No good matches in DB
-        Recipe poorMatchRecipe = Recipe.builder()
-            .id("poor-id")
-            .title("Poor Match Recipe")
-            .ingredients(Arrays.asList(
-                Recipe.Ingredient.builder().name("beef").quantity("500").unit("g").build(),
-                Recipe.Ingredient.builder().name("potato").quantity("3").unit("medium").build()
-            ))
-            .steps(Arrays.asList("Step 1"))
-            .timeMinutes(60)
-            .difficulty(Recipe.Difficulty.HARD)
-            .source(Recipe.Source.DB)
-            .build();
-
+        // Given - No ingredient matches in DB
         Recipe llmRecipe = Recipe.builder()
             .title("LLM Generated Recipe")
             .ingredients(Arrays.asList(
@@ -134,8 +142,8 @@ class RecipeServiceTest {
             .source(Recipe.Source.LLM)
             .build();
 
-        when(recipeRepository.findAll()).thenReturn(Arrays.asList(poorMatchRecipe));
-        when(openRouterService.generateRecipes(any(), any())).thenReturn(Arrays.asList(llmRecipe));
+        when(recipeFeatureStore.topMatches(any(), any(), eq(3))).thenReturn(List.of());
+        when(recipeGenerationBatcher.generate(any(), any(), anyList())).thenReturn(Arrays.asList(llmRecipe));
 
         // When
         RecipeResponse results = recipeService.generateRecipes(testRequest, "test-user");
@@ -143,7 +151,8 @@ class RecipeServiceTest {
         // Then
         assertNotNull(results);
         assertNotNull(results.getRecipes());
-        verify(openRouterService).generateRecipes(any(), eq("test-user"));
+        assertFalse(results.getRecipes().isEmpty());
+        verify(recipeGenerationBatcher, times(3)).generate(any(), eq("test-user"), anyList());
         verify(logService).logRecipeGeneration(eq("test-user"), contains("llm"), anyInt(), any());
     }
 
@@ -171,7 +180,31 @@ class RecipeServiceTest {
         // Then
         assertFalse(result.isPresent());
     }
-}
 
+    @Test
+    void testSearchRecipesAfter_InvalidCursor_Throws() {
+        // When / Then
+        for (String cursor : new String[]{"not-an-id", "zzzzzzzzzzzzzzzzzzzzzzzz", "650f1c2e9b1d4a3f8c7e6d5", "{\"$gt\": \"\"}"}) {
+            assertThrows(IllegalArgumentException.class,
+                () -> recipeService.searchRecipesAfter(null, null, null, null, cursor, 20), cursor);
+        }
+        verify(recipeRepository, never()).findByFiltersAfter(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchRecipesAfter_NextCursorIsLastId() {
+        // Given
+        Recipe first = Recipe.builder().id("650f1c2e9b1d4a3f8c7e6d5b").title("First").build();
+        Recipe second = Recipe.builder().id("650f1c2e9b1d4a3f8c7e6d5c").title("Second").build();
+        when(recipeRepository.findByFiltersAfter(null, null, null, null, "650f1c2e9b1d4a3f8c7e6d5a", 2))
+            .thenReturn(List.of(first, second));
 
+        // When
+        CursorPage<Recipe> page = recipeService.searchRecipesAfter(null, null, null, null, "650f1c2e9b1d4a3f8c7e6d5a", 1);
 
+        // Then
+        assertEquals(List.of(first), page.getContent());
+        assertEquals("650f1c2e9b1d4a3f8c7e6d5b", page.getNextCursor());
+        assertTrue(ObjectId.isValid(page.getNextCursor()));
+    }
+}
@@ -0,0 +1,162 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.RecipeSuggestion;
+import Assignment.Recipe_Generator.dto.ValueCount;
+import Assignment.Recipe_Generator.model.Recipe;
+import Assignment.Recipe_Generator.repository.FavoriteRepository;
+import Assignment.Recipe_Generator.repository.RecipeCatalogChangedEvent;
+import Assignment.Recipe_Generator.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeTitleIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    private RecipeTitleIndex recipeTitleIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(recipeRepository.findAllTitles()).thenReturn(List.of(
+            recipe("1", "Chicken Curry"),
+            recipe("2", "Chicken Soup"),
+            recipe("3", "Thai Green Curry"),
+            recipe("4", "Spicy Chickpea Stew")));
+        when(favoriteRepository.countByRecipe()).thenReturn(List.of(new ValueCount("2", 5)));
+        recipeTitleIndex = new RecipeTitleIndex(recipeRepository, favoriteRepository);
+    }
+
+    @Test
+    void testSuggest_TitlePrefixFirstThenByPopularity() {
+        // When
+        List<String> chick = ids(recipeTitleIndex.suggest("chick", 10));
+        List<String> curry = ids(recipeTitleIndex.suggest("Curry", 10));
+
+        // Then - whole-title prefixes before the word prefix in "Spicy Chickpea Stew"
+        assertEquals(List.of("2", "1", "4"), chick);
+        assertEquals(List.of("1", "3"), curry.stream().sorted().collect(Collectors.toList()));
+        assertEquals("Chicken Soup", recipeTitleIndex.suggest("chicken s", 10).get(0).getTitle());
+    }
+
+    @Test
+    void testSuggest_RespectsLimit() {
+        assertEquals(List.of("2"), ids(recipeTitleIndex.suggest("chick", 1)));
+    }
+
+    @Test
+    void testAdjustPopularity_Reweights() {
+        // Given
+        recipeTitleIndex.suggest("chick", 10);
+
+        // When - Chicken Curry overtakes Chicken Soup (5 favorites)
+        for (int i = 0; i < 6; i++) {
+            recipeTitleIndex.adjustPopularity("1", 1);
+        }
+        List<String> promoted = ids(recipeTitleIndex.suggest("chick", 10));
+        for (int i = 0; i < 6; i++) {
+            recipeTitleIndex.adjustPopularity("2", -1);
+        }
+        List<String> demoted = ids(recipeTitleIndex.suggest("chick", 10));
+
+        // Then
+        assertEquals(List.of("1", "2", "4"), promoted);
+        assertEquals(List.of("1", "2", "4"), demoted);
+    }
+
+    @Test
+    void testAdjustPopularity_BeforeLoad_IgnoredInFavorOfLoadedCounts() {
+        // When
+        recipeTitleIndex.adjustPopularity("1", 10);
+
+        // Then - the load reads the favorite counts, which already include that change
+        assertEquals(List.of("2", "1", "4"), ids(recipeTitleIndex.suggest("chick", 10)));
+    }
+
+    @Test
+    void testCatalogChanged_SavedAndDeletedKeptInSync() {
+        // Given
+        recipeTitleIndex.suggest("chick", 10);
+
+        // When
+        saved(recipe("5", "Chickpea Salad"));
+        saved(recipe("1", "Butter Chicken"));
+        recipeTitleIndex.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.DELETED, "2", null, 3));
+
+        // Then
+        assertEquals(List.of("5", "1", "4"), ids(recipeTitleIndex.suggest("chick", 10)));
+        assertEquals(List.of("1"), ids(recipeTitleIndex.suggest("butter", 10)));
+        assertTrue(recipeTitleIndex.suggest("chicken curry", 10).isEmpty());
+        assertTrue(recipeTitleIndex.suggest("soup", 10).isEmpty());
+        verify(recipeRepository, times(1)).findAllTitles();
+    }
+
+    @Test
+    void testCatalogChanged_BlankTitleRemovesRecipe() {
+        // Given
+        recipeTitleIndex.suggest("chick", 10);
+
+        // When
+        saved(recipe("2", " "));
+
+        // Then
+        assertEquals(List.of("1", "4"), ids(recipeTitleIndex.suggest("chick", 10)));
+    }
+
+    @Test
+    void testReload_PreviousIndexServesUntilSwap() throws Exception {
+        // Given
+        recipeTitleIndex.suggest("chick", 10);
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch finishScan = new CountDownLatch(1);
+        when(recipeRepository.findAllTitles()).thenAnswer(invocation -> {
+            scanning.countDown();
+            finishScan.await(10, TimeUnit.SECONDS);
+            return List.of(recipe("6", "Chicken Tikka"));
+        });
+        recipeTitleIndex.onCatalogChanged(new RecipeCatalogChangedEvent(RecipeCatalogChangedEvent.Type.RESET, null, null, 2));
+
+        // When - a reload is in progress
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<RecipeSuggestion>> reloaded = executor.submit(() -> recipeTitleIndex.suggest("chick", 10));
+            assertTrue(scanning.await(10, TimeUnit.SECONDS));
+
+            // Then - a reader that got past the loaded check still sees the complete old index
+            PrefixSuggestIndex current = (PrefixSuggestIndex) ReflectionTestUtils.getField(recipeTitleIndex, "index");
+            assertEquals(4, current.size());
+            finishScan.countDown();
+            assertEquals(List.of("6"), ids(reloaded.get(10, TimeUnit.SECONDS)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void saved(Recipe recipe) {
+        recipeTitleIndex.onCatalogChanged(new RecipeCatalogChangedEvent(
+            RecipeCatalogChangedEvent.Type.SAVED, recipe.getId(), recipe, 2));
+    }
+
+    private static List<String> ids(List<RecipeSuggestion> suggestions) {
+        return suggestions.stream().map(RecipeSuggestion::getId).collect(Collectors.toList());
+    }
+
+    private static Recipe recipe(String id, String title) {
+        return Recipe.builder().id(id).title(title).build();
+    }
+}
@@ -0,0 +1,187 @@
+package Assignment.Recipe_Generator.service;
+
+import Assignment.Recipe_Generator.dto.IngredientRecognition;
+import Assignment.Recipe_Generator.dto.PreparedImage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecognitionCacheServiceTest {
+
+    private static final long HASH = 0x0123_4567_89AB_CDEFL;
+
+    @Mock
+    private OpenRouterService openRouterService;
+
+    private RecognitionCacheService recognitionCacheService;
+
+    @BeforeEach
+    void setUp() {
+        recognitionCacheService = new RecognitionCacheService(openRouterService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recognitionCacheService, "enabled", true);
+        ReflectionTestUtils.setField(recognitionCacheService, "maxDistance", 3);
+        ReflectionTestUtils.setField(recognitionCacheService, "maxEntries", 100);
+        ReflectionTestUtils.setField(recognitionCacheService, "ttlMinutes", 60L);
+
+        lenient().when(openRouterService.recognizeIngredients(any(), any())).thenReturn(recognition("tomato"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {
+        0L,
+        1L,                                     // one bit
+        1L | 1L << 16 | 1L << 32,               // three bands differ, the fourth matches
+        1L << 63 | 1L << 47 | 1L << 31,         // top bits of three bands
+        0b111L << 20                            // three bits in one band
+    })
+    void testLookup_WithinThreeBits_Hit(long flippedBits) {
+        // Given
+        recognize(HASH);
+
+        // When
+        IngredientRecognition result = recognize(HASH ^ flippedBits);
+
+        // Then
+        assertEquals("tomato", result.getIngredients().get(0).getName());
+        verify(openRouterService, times(1)).recognizeIngredients(any(), any());
+        assertEquals(1L, recognitionCacheService.getStats().get("hits"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {
+        1L | 1L << 16 | 1L << 32 | 1L << 48,    // every band differs
+        0b1111L << 4,                           // four bits in one band
+        -1L                                     // complement
+    })
+    void testLookup_FourOrMoreBits_Miss(long flippedBits) {
+        // Given
+        recognize(HASH);
+
+        // When
+        recognize(HASH ^ flippedBits);
+
+        // Then
+        verify(openRouterService, times(2)).recognizeIngredients(any(), any());
+        assertEquals(0L, recognitionCacheService.getStats().get("hits"));
+    }
+
+    @Test
+    void testLookup_LargerThresholdScansAllEntries() {
+        // Given - every band differs, so only the linear scan can find it
+        ReflectionTestUtils.setField(recognitionCacheService, "maxDistance", 4);
+        recognize(HASH);
+
+        // When
+        recognize(HASH ^ (1L | 1L << 16 | 1L << 32 | 1L << 48));
+
+        // Then
+        verify(openRouterService, times(1)).recognizeIngredients(any(), any());
+    }
+
+    @Test
+    void testLookup_ReturnsClosestEntry() {
+        // Given - 3 and 1 bits from the query, 4 from each other, so both are cached
+        when(openRouterService.recognizeIngredients(any(), any()))
+            .thenReturn(recognition("far"), recognition("near"));
+        recognize(HASH ^ 0b111L);
+        recognize(HASH ^ (1L << 40));
+
+        // When
+        IngredientRecognition result = recognize(HASH);
+
+        // Then
+        assertEquals("near", result.getIngredients().get(0).getName());
+    }
+
+    @Test
+    void testExpiredEntry_Evicted() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(recognitionCacheService, "ttlMinutes", 0L);
+        recognize(HASH);
+        Thread.sleep(5);
+
+        // When
+        recognize(HASH ^ 1L);
+
+        // Then - the expired entry was dropped and the new result cached in its place
+        verify(openRouterService, times(2)).recognizeIngredients(any(), any());
+        assertEquals(1, recognitionCacheService.getStats().get("entries"));
+    }
+
+    @Test
+    void testCapacity_EvictsLeastRecentlyUsed() {
+        // Given
+        ReflectionTestUtils.setField(recognitionCacheService, "maxEntries", 2);
+        long first = 0L;
+        long second = 0x00FF_00FF_00FF_00FFL;
+        long third = 0xFF00_FF00_FF00_FF00L;
+        recognize(first);
+        recognize(second);
+        recognize(first); // hit; first is now more recently used than second
+
+        // When
+        recognize(third);
+
+        // Then
+        assertEquals(2, recognitionCacheService.getStats().get("entries"));
+        clearInvocations(openRouterService);
+        recognize(first);
+        recognize(third);
+        verify(openRouterService, never()).recognizeIngredients(any(), any());
+        recognize(second);
+        verify(openRouterService, times(1)).recognizeIngredients(any(), any());
+    }
+
+    @Test
+    void testEmptyRecognition_NotCached() {
+        // Given
+        when(openRouterService.recognizeIngredients(any(), any()))
+            .thenReturn(IngredientRecognition.builder().ingredients(List.of()).build());
+
+        // When
+        recognize(HASH);
+        recognize(HASH);
+
+        // Then
+        verify(openRouterService, times(2)).recognizeIngredients(any(), any());
+        assertEquals(0, recognitionCacheService.getStats().get("entries"));
+    }
+
+    @Test
+    void testCachedResult_IsCopied() {
+        // Given
+        recognize(HASH).getIngredients().get(0).setName("changed");
+
+        // When
+        IngredientRecognition result = recognize(HASH);
+
+        // Then
+        assertEquals("tomato", result.getIngredients().get(0).getName());
+    }
+
+    private IngredientRecognition recognize(long hash) {
+        return recognitionCacheService.recognizeIngredients(PreparedImage.builder().perceptualHash(hash).build(), "user");
+    }
+
+    private static IngredientRecognition recognition(String ingredient) {
+        return IngredientRecognition.builder()
+            .ingredients(List.of(IngredientRecognition.RecognizedIngredient.builder()
+                .name(ingredient)
+                .confidence(0.9)
+                .build()))
+            .build();
+    }
+}